@@ -70,6 +70,16 @@ public interface BoardConfigurationManager {
      */
     BoardConfig getBoardConfigForBoardDisplay(ApplicationUser user, String code);
 
+    /**
+     * Loads the board configuration, checking that the user can administer the board
+     * @param user the user
+     * @param code the configuration code
+     * @return the configuration
+     * @throws org.jirban.jira.JirbanPermissionException if the user does not have the correct permissions
+     * @throws org.jirban.jira.JirbanValidationException if the structure of the config is bad
+     */
+    BoardConfig getBoardConfigForBoardAdmin(ApplicationUser user, String code);
+
     /**
      * Loads the board configuration without checking permissions
      *
@@ -95,6 +105,14 @@ public interface BoardConfigurationManager {
      */
     void saveRankCustomFieldId(ApplicationUser user, ModelNode idNode);
 
+    /**
+     * Checks whether the user is a Jira Administrator
+     *
+     * @param user the logged in user
+     * @return {@code true} if the user is a Jira Administrator
+     */
+    boolean isJiraAdministrator(ApplicationUser user);
+
     String getBoardJsonConfig(ApplicationUser user, int boardId);
 
     String getStateHelpTextsJson(ApplicationUser user, String boardCode);
@@ -15,6 +15,7 @@
  */
 package org.jirban.jira.api;
 
+import java.util.List;
 import java.util.Set;
 
 import org.jirban.jira.impl.JirbanIssueEvent;
@@ -39,6 +40,18 @@ public interface BoardManager {
      */
     String getBoardJson(ApplicationUser user, boolean backlog, String code) throws SearchException;
 
+    /**
+     * Gets the json for the linked issues of a board's issues, for when the board json was sent without them
+     *
+     * @param user the logged in user
+     * @param backlog if {@true} we will include issues belonging to the backlog states when no issue keys are passed in
+     * @param code the code of the board
+     * @param issueKeys the keys of the issues to get the linked issues for. If empty, all the board's issues are used
+     * @return the linked issues in json format
+     * @throws SearchException
+     */
+    String getLinkedIssuesJson(ApplicationUser user, boolean backlog, String code, List<String> issueKeys) throws SearchException;
+
     /**
      * Deletes a board
      * @param user the logged in user
@@ -110,4 +123,42 @@ public interface BoardManager {
     Set<ParallelTaskCustomFieldConfig> getParallelTaskFieldsForCreateEvent(String projectCode);
 
     void updateParallelTaskForIssue(ApplicationUser user, String boardCode, String issueKey, int taskIndex, int optionIndex) throws SearchException;
+
+    /**
+     * Loads a board if it is not already loaded, without a logged in user. This is used to warm up the boards which
+     * are likely to be used, so that the first user does not have to wait for the load.
+     *
+     * @param code the board code
+     * @throws SearchException
+     */
+    void warmBoard(String code) throws SearchException;
+
+    /**
+     * Sets the codes of the boards which should be kept warm. When these expire they are rebuilt in the background
+     * even if nobody has read them since they were loaded.
+     *
+     * @param codes the board codes
+     */
+    void setWarmBoards(Set<String> codes);
+
+    /**
+     * Reloads a single issue on a board from Jira, and sends the differences to the clients as a normal change. This
+     * is done automatically when handling an event for the issue fails, but can also be triggered by an administrator
+     * of the board if the issue looks wrong.
+     *
+     * @param user the logged in user
+     * @param code the board code
+     * @param issueKey the issue key
+     * @throws SearchException
+     */
+    void reloadIssue(ApplicationUser user, String code, String issueKey) throws SearchException;
+
+    /**
+     * Gets the metrics of the queues applying the Jira events to the boards
+     *
+     * @param user the logged in user
+     * @return json containing the queue depth and latency of each board
+     * @throws org.jirban.jira.JirbanPermissionException if the user is not a Jira Administrator
+     */
+    String getEventQueuesJson(ApplicationUser user);
 }
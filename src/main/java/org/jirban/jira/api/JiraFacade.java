@@ -16,6 +16,8 @@
 
 package org.jirban.jira.api;
 
+import java.util.List;
+
 import org.jboss.dmr.ModelNode;
 
 import com.atlassian.jira.issue.search.SearchException;
@@ -63,6 +65,17 @@ public interface JiraFacade
      */
     String getBoardJson(ApplicationUser user, boolean backlog, String code) throws SearchException;
 
+    /**
+     * Gets the linked issues of a board's issues, for when the board was sent without them
+     * @param user the user
+     * @param backlog if {@true} we will include issues belonging to the backlog states when no issue keys are passed in
+     * @param code the board code
+     * @param issueKeys the keys of the issues to get the linked issues for. If empty, all the board's issues are used
+     * @return the linked issues json
+     * @throws SearchException
+     */
+    String getLinkedIssuesJson(ApplicationUser user, boolean backlog, String code, List<String> issueKeys) throws SearchException;
+
     /**
      * Gets the changes for a board. The client passes in their view id, and the delta is passed back to the client in
      * json format so they can apply it to their own model.
@@ -123,6 +136,23 @@ public interface JiraFacade
      */
     String getUserAccessJson(ApplicationUser user);
 
+    /**
+     * Reloads a single issue on a board from Jira
+     *
+     * @param user the currently logged in user
+     * @param boardCode the board code
+     * @param issueKey the issue key
+     */
+    void reloadIssue(ApplicationUser user, String boardCode, String issueKey) throws SearchException;
+
+    /**
+     * Gets the metrics of the queues applying the Jira events to the boards
+     *
+     * @param user the currently logged in user
+     * @return json of the event queue metrics
+     */
+    String getEventQueuesJson(ApplicationUser user);
+
     /**
      * Updates an issue's parallel task value
      * @param user the currently logged in used
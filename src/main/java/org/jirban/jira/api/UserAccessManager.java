@@ -16,6 +16,8 @@
 
 package org.jirban.jira.api;
 
+import java.util.List;
+
 import com.atlassian.jira.user.ApplicationUser;
 
 /**
@@ -25,4 +27,13 @@ public interface UserAccessManager {
     void logUserAccess(ApplicationUser user, String boardCode, String userAgent);
 
     String getUserAccessJson(ApplicationUser user);
+
+    /**
+     * Gets the codes of the boards which have been accessed the most recently, ordered by the number of accesses.
+     *
+     * @param days the number of days to look back
+     * @param maxBoards the maximum number of board codes to return
+     * @return the board codes, the most accessed first
+     */
+    List<String> getMostAccessedBoardCodes(int days, int maxBoards);
 }
@@ -139,6 +139,17 @@ public class BoardConfigurationManagerImpl implements BoardConfigurationManager
         return boardConfig;
     }
 
+    @Override
+    public BoardConfig getBoardConfigForBoardAdmin(ApplicationUser user, final String code) {
+        BoardConfig boardConfig = getBoardConfig(code);
+
+        if (boardConfig != null && !canEditBoard(user, boardConfig)) {
+            throw new JirbanPermissionException("Insufficient permissions to administer board " +
+                    boardConfig.getName() + " (" + code + ")");
+        }
+        return boardConfig;
+    }
+
     @Override
     public BoardConfig getBoardConfig(final String code) {
         BoardConfig boardConfig =  boardConfigs.get(code);
@@ -356,6 +367,10 @@ public class BoardConfigurationManagerImpl implements BoardConfigurationManager
         return hasPermissionBoard(user, boardConfig, ProjectPermissions.ADMINISTER_PROJECTS);
     }
 
+    private boolean canEditBoard(ApplicationUser user, BoardConfig boardConfig) {
+        return hasPermissionBoard(user, boardConfig, ProjectPermissions.ADMINISTER_PROJECTS);
+    }
+
     private boolean canViewBoard(ApplicationUser user, ModelNode boardConfig) {
         //A wild guess at a reasonable permission needed to view the boards
         return hasPermissionBoard(user, boardConfig, ProjectPermissions.TRANSITION_ISSUES);
@@ -413,7 +428,8 @@ public class BoardConfigurationManagerImpl implements BoardConfigurationManager
         return true;
     }
 
-    private boolean isJiraAdministrator(ApplicationUser user) {
+    @Override
+    public boolean isJiraAdministrator(ApplicationUser user) {
         final GlobalPermissionManager globalPermissionManager = jiraInjectables.getGlobalPermissionManager();
 
         return globalPermissionManager.hasPermission(GlobalPermissionKey.ADMINISTER, user);
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.dmr.ModelNode;
+import org.jirban.jira.JirbanLogger;
+import org.jirban.jira.api.NextRankedIssueUtil;
+
+import com.atlassian.jira.issue.search.SearchException;
+
+/**
+ * The single writer of a board. Everything which changes a board, i.e. handling the Jira events, reconciling the
+ * board and publishing a loaded board, is queued here and done one at a time in the order it was queued. The tasks
+ * run on a thread pool shared by all the boards, so the Jira thread firing an event does not have to wait for the
+ * board to be updated. Readers never wait for the writer, they just get the latest published board.
+ * <p>
+ * Workflow post-functions and automation often fire several events for the same issue within milliseconds. So an
+ * event is not applied until it has been queued for the coalescing window, and then gets merged with the events for
+ * the same issue following it. This way a burst of events results in one board copy and one registered change. Rather
+ * than holding on to a thread from the pool while waiting, the queue schedules the next drain for when the window of
+ * the first event is over.
+ * <p>
+ * Bulk edits and bulk transitions fire one event per issue. If the number of events waiting once the coalescing window
+ * is over reaches the batch threshold, they are handed over in one go so that the affected issues can be reloaded in
+ * a single board update.
+ * <p>
+ * Each board is updated independently of the others. A task failing only affects the board it was for, and a board
+ * with a lot of work gives up its thread every now and again so that it does not hold up the other boards.
+ *
+ * @author Kabir Khan
+ */
+class BoardEventQueue {
+    private final String boardCode;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    private final EventHandler eventHandler;
+    private final long coalesceWindowNanos;
+    private final int batchThreshold;
+
+    //The number of tasks to do before giving up the thread to the other boards
+    private static final int MAX_TASKS_PER_DRAIN = 50;
+    private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+    //Set while a thread from the pool is working through the tasks
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Runnable drainer = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+    //Hands the drain over to the pool once the coalescing window is over, so the scheduler does no board work itself
+    private final Runnable scheduledDrainer = new Runnable() {
+        @Override
+        public void run() {
+            executor.execute(drainer);
+        }
+    };
+
+    //Metrics
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong changed = new AtomicLong();
+    private final AtomicLong ignored = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile String lastFailure;
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private volatile long lastLatencyNanos;
+
+    BoardEventQueue(String boardCode, Executor executor, ScheduledExecutorService scheduler, EventHandler eventHandler,
+                    int coalesceWindowMillis, int batchThreshold) {
+        this.boardCode = boardCode;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.eventHandler = eventHandler;
+        this.coalesceWindowNanos = TimeUnit.MILLISECONDS.toNanos(coalesceWindowMillis);
+        this.batchThreshold = batchThreshold;
+    }
+
+    /**
+     * Queues a Jira event for the board.
+     *
+     * @param event the event
+     * @param nextRankedIssueUtil the utility to find the ranking of the issue
+     */
+    void addEvent(JirbanIssueEvent event, NextRankedIssueUtil nextRankedIssueUtil) {
+        add(new Task(event, nextRankedIssueUtil));
+    }
+
+    /**
+     * Queues a task changing the board.
+     *
+     * @param task the task
+     */
+    void add(Runnable task) {
+        add(new Task(task));
+    }
+
+    private void add(Task task) {
+        depth.incrementAndGet();
+        tasks.add(task);
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(drainer);
+        }
+    }
+
+    private void drain() {
+        int count = 0;
+        while (true) {
+            Task task = tasks.peek();
+            while (task != null) {
+                if (task.event != null) {
+                    final long wait = task.queuedNanos + coalesceWindowNanos - System.nanoTime();
+                    if (wait > 0) {
+                        //Give the events following this one some time to arrive. We keep the draining flag, so the
+                        //tasks queued in the meantime wait for the scheduled drain
+                        scheduler.schedule(scheduledDrainer, wait, TimeUnit.NANOSECONDS);
+                        return;
+                    }
+                }
+                //We are the only one polling, so this is the task we peeked at
+                tasks.poll();
+                depth.decrementAndGet();
+                try {
+                    if (task.event != null) {
+                        applyEvent(task);
+                    } else {
+                        task.task.run();
+                        checkFailed(task.task);
+                    }
+                } catch (Exception e) {
+                    recordFailure(task, e);
+                } catch (Error e) {
+                    recordFailure(task, e);
+                    //We keep the draining flag, so make sure the tasks queued behind this one still get run
+                    executor.execute(drainer);
+                    throw e;
+                }
+                recordLatency(System.nanoTime() - task.queuedNanos);
+                if (++count >= MAX_TASKS_PER_DRAIN && !tasks.isEmpty()) {
+                    //Let the other boards have a go, and continue later. We keep the draining flag
+                    executor.execute(drainer);
+                    return;
+                }
+                task = tasks.peek();
+            }
+            draining.set(false);
+            //A task might have been added after we found the queue empty, but before we reset the flag
+            if (tasks.isEmpty() || !draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void recordFailure(Task task, Throwable t) {
+        failures.incrementAndGet();
+        lastFailure = (task.event != null ? task.event.getIssueKey() + ": " : "") + t.getMessage();
+        //Last parameter is the exception (it does not match a {} entry)
+        JirbanLogger.LOGGER.error("BoardEventQueue - Error updating board {} - {}", boardCode, lastFailure, t);
+    }
+
+    private static void checkFailed(Runnable task) throws Exception {
+        if (!(task instanceof Future)) {
+            return;
+        }
+        //A future keeps its failure for whoever gets the result, so get it from there to record it
+        try {
+            ((Future<?>) task).get();
+        } catch (CancellationException e) {
+            //Not a failure
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private void applyEvent(Task task) throws SearchException {
+        final List<Task> batch = pollBatch(task);
+        if (batch != null) {
+            applyBatch(batch);
+            return;
+        }
+        JirbanIssueEvent event = task.event;
+        final List<Task> coalescedTasks = new ArrayList<>();
+        Task next = tasks.peek();
+        while (next != null && next.event != null && next.nextRankedIssueUtil == task.nextRankedIssueUtil) {
+            final JirbanIssueEvent merged = event.merge(next.event);
+            if (merged == null) {
+                break;
+            }
+            JirbanLogger.LOGGER.debug("BoardEventQueue - Coalescing event {} for board {}", next.event, boardCode);
+            event = merged;
+            //We are the only one polling, so this is the task we peeked at
+            tasks.poll();
+            depth.decrementAndGet();
+            coalesced.incrementAndGet();
+            coalescedTasks.add(next);
+            next = tasks.peek();
+        }
+        try {
+            recordResult(eventHandler.handleEvent(event, task.nextRankedIssueUtil));
+        } finally {
+            for (Task coalescedTask : coalescedTasks) {
+                recordLatency(System.nanoTime() - coalescedTask.queuedNanos);
+            }
+        }
+    }
+
+    private List<Task> pollBatch(Task first) {
+        if (batchThreshold <= 0) {
+            return null;
+        }
+        int count = 1;
+        for (Task queued : tasks) {
+            if (queued.event == null || queued.nextRankedIssueUtil != first.nextRankedIssueUtil) {
+                break;
+            }
+            count++;
+        }
+        if (count < batchThreshold) {
+            return null;
+        }
+        final List<Task> batch = new ArrayList<>(count);
+        batch.add(first);
+        for (int i = 1 ; i < count ; i++) {
+            //We are the only one polling, so these are the tasks we counted
+            batch.add(tasks.poll());
+            depth.decrementAndGet();
+        }
+        return batch;
+    }
+
+    private void applyBatch(List<Task> batch) throws SearchException {
+        JirbanLogger.LOGGER.debug("BoardEventQueue - Applying a batch of {} events to board {}", batch.size(), boardCode);
+        final List<JirbanIssueEvent> events = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            events.add(task.event);
+        }
+        batches.incrementAndGet();
+        try {
+            recordResult(eventHandler.handleEvents(events, batch.get(0).nextRankedIssueUtil));
+        } finally {
+            //The latency of the first one gets recorded by drain()
+            for (int i = 1 ; i < batch.size() ; i++) {
+                recordLatency(System.nanoTime() - batch.get(i).queuedNanos);
+            }
+        }
+    }
+
+    private void recordResult(boolean boardChanged) {
+        if (boardChanged) {
+            changed.incrementAndGet();
+        } else {
+            ignored.incrementAndGet();
+        }
+    }
+
+    private void recordLatency(long latencyNanos) {
+        applied.incrementAndGet();
+        totalLatencyNanos.addAndGet(latencyNanos);
+        lastLatencyNanos = latencyNanos;
+        long max = maxLatencyNanos.get();
+        while (latencyNanos > max && !maxLatencyNanos.compareAndSet(max, latencyNanos)) {
+            max = maxLatencyNanos.get();
+        }
+    }
+
+    /**
+     * Gets the metrics of this queue. The latency is the time from a task being queued until it has been applied to
+     * the board, in milliseconds.
+     *
+     * @return the metrics
+     */
+    ModelNode getMetrics() {
+        final long applied = this.applied.get();
+        final ModelNode metrics = new ModelNode();
+        metrics.get("board").set(boardCode);
+        metrics.get("depth").set(depth.get());
+        metrics.get("applied").set(applied);
+        metrics.get("coalesced").set(coalesced.get());
+        metrics.get("batches").set(batches.get());
+        metrics.get("changed").set(changed.get());
+        metrics.get("ignored").set(ignored.get());
+        metrics.get("failures").set(failures.get());
+        if (lastFailure != null) {
+            metrics.get("last-failure").set(lastFailure);
+        }
+        metrics.get("latency", "last").set(TimeUnit.NANOSECONDS.toMillis(lastLatencyNanos));
+        metrics.get("latency", "max").set(TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()));
+        metrics.get("latency", "average").set(applied == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get() / applied));
+        return metrics;
+    }
+
+    interface EventHandler {
+        /**
+         * Applies an event to the board
+         *
+         * @param event the event
+         * @param nextRankedIssueUtil the utility to find the ranking of the issue
+         * @return {@code true} if the board was changed, {@code false} if the event was not relevant to the board
+         * @throws SearchException if searching for the issue failed
+         */
+        boolean handleEvent(JirbanIssueEvent event, NextRankedIssueUtil nextRankedIssueUtil) throws SearchException;
+
+        /**
+         * Applies a burst of events to the board
+         *
+         * @param events the events
+         * @param nextRankedIssueUtil the utility to find the ranking of the issues
+         * @return {@code true} if the board was changed
+         * @throws SearchException if searching for the issues failed
+         */
+        boolean handleEvents(List<JirbanIssueEvent> events, NextRankedIssueUtil nextRankedIssueUtil) throws SearchException;
+    }
+
+    private static class Task {
+        private final Runnable task;
+        private final JirbanIssueEvent event;
+        private final NextRankedIssueUtil nextRankedIssueUtil;
+        private final long queuedNanos = System.nanoTime();
+
+        Task(Runnable task) {
+            this.task = task;
+            this.event = null;
+            this.nextRankedIssueUtil = null;
+        }
+
+        Task(JirbanIssueEvent event, NextRankedIssueUtil nextRankedIssueUtil) {
+            this.task = null;
+            this.event = event;
+            this.nextRankedIssueUtil = nextRankedIssueUtil;
+        }
+    }
+}
@@ -15,18 +15,27 @@
  */
 package org.jirban.jira.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.BiFunction;
 
 import javax.inject.Inject;
@@ -34,6 +43,7 @@ import javax.inject.Named;
 
 import org.jboss.dmr.ModelNode;
 import org.jirban.jira.JirbanLogger;
+import org.jirban.jira.JirbanPermissionException;
 import org.jirban.jira.JirbanValidationException;
 import org.jirban.jira.api.BoardConfigurationManager;
 import org.jirban.jira.api.BoardManager;
@@ -43,6 +53,7 @@ import org.jirban.jira.impl.board.Board;
 import org.jirban.jira.impl.board.BoardChangeRegistry;
 import org.jirban.jira.impl.board.BoardProject;
 import org.jirban.jira.impl.board.CustomFieldValue;
+import org.jirban.jira.impl.board.ProjectIssueSearchCache;
 import org.jirban.jira.impl.board.SortedParallelTaskFieldOptions;
 import org.jirban.jira.impl.config.BoardConfig;
 import org.jirban.jira.impl.config.BoardProjectConfig;
@@ -71,31 +82,119 @@ public class BoardManagerImpl implements BoardManager, InitializingBean, Disposa
 
     private static final int REFRESH_TIMEOUT_SECONDS = 5 * 60;
 
+    //Expired boards are normally reconciled with the issues updated since the last sync. Do a full rebuild every
+    //now and again anyway, in case something was missed
+    private static final int FULL_REBUILD_INTERVAL_SECONDS = 60 * 60;
+
+    //Look for updates a bit before the last sync, since jql only has minute precision for dates and the search
+    //index is updated asynchronously
+    private static final int SYNC_OVERLAP_SECONDS = 60;
+
+    //How long a request waits for a board load or an update queued for a board, before giving up on it
+    private static final int RESULT_TIMEOUT_SECONDS = Integer.getInteger("jirban.board.result.timeout.seconds", 5 * 60);
+
+    //The number of boards which can be updated at the same time
+    private static final int BOARD_EVENT_THREADS =
+            Integer.getInteger("jirban.event.threads", Math.max(4, Runtime.getRuntime().availableProcessors()));
+
+    //How long to wait for more events for the same issue before updating a board. Set to 0 to disable coalescing
+    private static final int COALESCE_WINDOW_MILLIS = Integer.getInteger("jirban.event.coalesce.window.ms", 50);
+
+    //The number of queued events for a board at which we stop handling them one by one, and reload the affected
+    //issues in one go instead. Set to 0 to disable
+    private static final int BATCH_THRESHOLD = Integer.getInteger("jirban.event.batch.threshold", 20);
+
+    //How long the search for a project's issues is kept for other boards containing the project to load from. Set to 0
+    //to only share the searches in progress
+    private static final int PROJECT_SEARCH_CACHE_MILLIS = Integer.getInteger("jirban.project.search.cache.ms", 60000);
+
+    //Keep the issue summaries of the boards in direct memory rather than on the heap, for very large boards
+    private static final boolean OFF_HEAP_SUMMARIES = Boolean.getBoolean("jirban.board.offheap.summaries");
+
+    //Leave the linked issues out of the full board json, for clients which fetch them separately for the issues
+    //they display
+    private static final boolean LAZY_LINKED_ISSUES = Boolean.getBoolean("jirban.board.lazy.linked.issues");
+
     private final JiraInjectables jiraInjectables;
 
-    //Guarded by this
-    private Map<String, Board> boards = new HashMap<>();
-    //Guarded by this
-    private Map<String, BoardChangeRegistry> boardChangeRegistries = new HashMap<>();
+    //Reads do not need to synchronize. Updates which need to be consistent with boardChangeRegistries, refreshEntries
+    //and boardLoads are guarded by this, which is only held for short periods and never while loading a board
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+    private final Map<String, BoardChangeRegistry> boardChangeRegistries = new ConcurrentHashMap<>();
+
+    //The loads of the boards which are in progress. Concurrent first readers of a board share the same load
+    private final Map<String, BoardLoad> boardLoads = new ConcurrentHashMap<>();
+
+    //Changes to a board, i.e. handling an event, reconciling the board or publishing a loaded board, are done one at
+    //a time by the board's event queue. The queues are kept for the lifetime of the plugin so that there is never more
+    //than one writer for a board
+    private final Map<String, BoardEventQueue> boardEventQueues = new ConcurrentHashMap<>();
 
     private final BoardConfigurationManager boardConfigurationManager;
 
     private final ProjectParallelTaskOptionsLoader projectParallelTaskOptionsLoader;
 
+    //Used when reloading an issue outside of the event handling
+    private final NextRankedIssueUtil nextRankedIssueUtil;
+
     private final ExecutorService boardRefreshExecutor = Executors.newSingleThreadExecutor();
 
+    //Runs the board event queues
+    private final Executor boardEventExecutor;
+
+    //Resumes the board event queues once the coalescing window of the event at their head is over
+    private final ScheduledExecutorService boardEventScheduler;
+
+    private final int coalesceWindowMillis;
+
+    private final int batchThreshold;
+
+    //Shares the searches for the issues of a project between the boards containing it
+    private final ProjectIssueSearchCache projectIssueSearchCache;
+
+    private final boolean lazyLinkedIssues;
+
+    //Reloads the boards which are in use in the background, while readers keep getting the current board. Also does
+    //the searches for the periodic reconciles, so that they don't hold up the threads handling the board events
+    private final ExecutorService boardRebuildExecutor = Executors.newSingleThreadExecutor();
+
     private final Queue<RefreshEntry> boardRefreshQueue = new LinkedBlockingQueue<>();
 
-    //Guarded by this
-    private final Map<String, RefreshEntry> refreshEntries = new HashMap<>();
+    private final Map<String, RefreshEntry> refreshEntries = new ConcurrentHashMap<>();
+
+    //The boards which get rebuilt when they expire, even if nobody has read them
+    private volatile Set<String> warmBoards = Collections.emptySet();
 
     @Inject
     public BoardManagerImpl(JiraInjectables jiraInjectables,
                             BoardConfigurationManager boardConfigurationManager,
-                            ProjectParallelTaskOptionsLoader projectParallelTaskOptionsLoader) {
+                            ProjectParallelTaskOptionsLoader projectParallelTaskOptionsLoader,
+                            NextRankedIssueUtil nextRankedIssueUtil) {
+        this(jiraInjectables, boardConfigurationManager, projectParallelTaskOptionsLoader, nextRankedIssueUtil,
+                Executors.newFixedThreadPool(BOARD_EVENT_THREADS), Executors.newSingleThreadScheduledExecutor(),
+                COALESCE_WINDOW_MILLIS, BATCH_THRESHOLD,
+                PROJECT_SEARCH_CACHE_MILLIS, LAZY_LINKED_ISSUES);
+    }
+
+    //The tests use an executor applying the events in the calling thread, by default no coalescing or batching, do
+    //not keep the project searches once they are done, and include the linked issues in the board unless told not to
+    BoardManagerImpl(JiraInjectables jiraInjectables,
+                     BoardConfigurationManager boardConfigurationManager,
+                     ProjectParallelTaskOptionsLoader projectParallelTaskOptionsLoader,
+                     NextRankedIssueUtil nextRankedIssueUtil,
+                     Executor boardEventExecutor, ScheduledExecutorService boardEventScheduler,
+                     int coalesceWindowMillis, int batchThreshold, int projectSearchCacheMillis,
+                     boolean lazyLinkedIssues) {
         this.jiraInjectables = jiraInjectables;
         this.boardConfigurationManager = boardConfigurationManager;
         this.projectParallelTaskOptionsLoader = projectParallelTaskOptionsLoader;
+        this.nextRankedIssueUtil = nextRankedIssueUtil;
+        this.boardEventExecutor = boardEventExecutor;
+        this.boardEventScheduler = boardEventScheduler;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+        this.batchThreshold = batchThreshold;
+        this.projectIssueSearchCache = new ProjectIssueSearchCache(projectSearchCacheMillis);
+        this.lazyLinkedIssues = lazyLinkedIssues;
     }
 
     @Override
@@ -186,39 +285,59 @@ public class BoardManagerImpl implements BoardManager, InitializingBean, Disposa
     @Override
     public String getBoardJson(ApplicationUser user, boolean backlog, String code) throws SearchException {
         Board board = getBoard(user, code);
-        return board.serialize(jiraInjectables, backlog, user).toJSONString(true);
+        markAccessed(code);
+        return board.serialize(jiraInjectables, backlog, user, lazyLinkedIssues).toJSONString(true);
+    }
+
+    @Override
+    public String getLinkedIssuesJson(ApplicationUser user, boolean backlog, String code, List<String> issueKeys) throws SearchException {
+        Board board = getBoard(user, code);
+        markAccessed(code);
+        return board.serializeLinkedIssues(backlog, issueKeys).toJSONString(true);
     }
 
     private Board getBoard(ApplicationUser user, String code) throws SearchException {
         Board board = boards.get(code);
-        if (board == null) {
-            synchronized (this) {
+        if (board != null) {
+            return board;
+        }
+
+        //Use the logged in user to check if we are allowed to view the board
+        final BoardConfig boardConfig = boardConfigurationManager.getBoardConfigForBoardDisplay(user, code);
+        return loadBoard(code, boardConfig);
+    }
+
+    private Board loadBoard(String code, BoardConfig boardConfig) throws SearchException {
+        Board board;
+        BoardLoad load = boardLoads.get(code);
+        if (load == null) {
+            final BoardLoad newLoad = new BoardLoad(code, boardConfig, null);
+            load = boardLoads.putIfAbsent(code, newLoad);
+            if (load == null) {
                 board = boards.get(code);
-                if (board == null) {
-
-                    //Use the logged in user to check if we are allowed to view the board
-                    final BoardConfig boardConfig = boardConfigurationManager.getBoardConfigForBoardDisplay(user, code);
-                    /*
-                    Use the board owner to load the board data. The board is only loaded once, and shared amongst all
-                    users.
-                    Since I was not 100% sure which permission to use to determine if a user can view the board in the
-                    check done by getBoardConfigForBoardDisplay(), it feels less error-prone to use the user who created
-                    the board (who needs the project admin permission) to load this data.
-                    This user is only used to load board data; all changes will be done using the logged in user.
-                    */
-
-                    final ApplicationUser boardOwner = jiraInjectables.getJiraUserManager().getUserByKey(boardConfig.getOwningUserKey());
-                    board = Board.builder(jiraInjectables, projectParallelTaskOptionsLoader, boardConfig, boardOwner).load().build();
-                    JirbanLogger.LOGGER.debug("Full refresh of board {}", code);
-                    boards.put(code, board);
-                    boardChangeRegistries.put(code, new BoardChangeRegistry(this, board));
-                    final RefreshEntry refreshEntry = new RefreshEntry(code, REFRESH_TIMEOUT_SECONDS);
-                    boardRefreshQueue.add(refreshEntry);
-                    refreshEntries.put(code, refreshEntry);
+                if (board != null) {
+                    //Another load completed in the meantime
+                    boardLoads.remove(code, newLoad);
+                    return board;
                 }
+                //We are the first reader, so do the load in this thread
+                load = newLoad;
+                load.run();
             }
         }
-        return board;
+        return load.getBoard();
+    }
+
+    @Override
+    public void warmBoard(String code) throws SearchException {
+        if (boards.get(code) == null) {
+            loadBoard(code, null);
+        }
+    }
+
+    @Override
+    public void setWarmBoards(Set<String> codes) {
+        warmBoards = Collections.unmodifiableSet(new HashSet<>(codes));
     }
 
     @Override
@@ -227,9 +346,21 @@ public class BoardManagerImpl implements BoardManager, InitializingBean, Disposa
     }
 
     public void forceRefresh(String code) {
+        final Board board = boards.get(code);
+        if (board != null) {
+            //Make sure the next load searches again
+            board.getConfig().getBoardProjects().forEach(project -> projectIssueSearchCache.invalidate(project.getCode()));
+        }
         deleteBoard(code);
     }
 
+    private void markAccessed(String code) {
+        RefreshEntry refreshEntry = refreshEntries.get(code);
+        if (refreshEntry != null) {
+            refreshEntry.markAccessed();
+        }
+    }
+
     private void deleteBoard(String code) {
         synchronized (this) {
             boards.remove(code);
@@ -241,6 +372,8 @@ public class BoardManagerImpl implements BoardManager, InitializingBean, Disposa
             if (refreshEntry != null) {
                 refreshEntry.invalidate();
             }
+            //Any load in progress will not be published
+            boardLoads.remove(code);
         }
     }
 
@@ -250,12 +383,10 @@ public class BoardManagerImpl implements BoardManager, InitializingBean, Disposa
         if (boardCodes.size() == 0) {
             return false;
         }
-        synchronized (this) {
-            for (String boardCode : boardCodes) {
-                //There might be a config, but no board. So check if there is a board first.
-                if (boards.get(boardCode) != null) {
-                    return true;
-                }
+        for (String boardCode : boardCodes) {
+            //There might be a config, but no board. So check if there is a board first.
+            if (boards.get(boardCode) != null) {
+                return true;
             }
         }
         return false;
@@ -356,14 +487,12 @@ public class BoardManagerImpl implements BoardManager, InitializingBean, Disposa
             return Collections.emptySet();
         }
         Set<String> activeBoards = new HashSet<>();
-        synchronized (this) {
-            for (String boardCode : boardCodes) {
-                //There might be a config, but no board. So check if there is a board first.
-                //There is a slight chance that a new board might pop up so we will miss this update, but it isn't a big
-                //deal. It will come in during the next periodic full refresh.
-                if (boards.get(boardCode) != null) {
-                    activeBoards.add(boardCode);
-                }
+        for (String boardCode : boardCodes) {
+            //There might be a config, but no board. So check if there is a board first.
+            //There is a slight chance that a new board might pop up so we will miss this update, but it isn't a big
+            //deal. It will come in during the next periodic full refresh.
+            if (boards.get(boardCode) != null) {
+                activeBoards.add(boardCode);
             }
         }
         Set<T> result = null;
@@ -383,45 +512,170 @@ public class BoardManagerImpl implements BoardManager, InitializingBean, Disposa
 
     @Override
     public void handleEvent(JirbanIssueEvent event, NextRankedIssueUtil nextRankedIssueUtil) {
-        //Jira seems to only handle one event at a time, which is good
-
+        //This is called by the Jira thread which fired the event, so just queue the event for the affected boards
+        //Boards loaded from now on must not use a search from before the event
+        projectIssueSearchCache.invalidate(event.getProjectCode());
         List<String> boardCodes = boardConfigurationManager.getBoardCodesForProjectCode(event.getProjectCode());
         for (String boardCode : boardCodes) {
-            final Board board;
-            final BoardChangeRegistry changeRegistry;
-            synchronized (this) {
-                board = boards.get(boardCode);
-                if (board == null) {
-                    continue;
+            if (boards.get(boardCode) == null && boardLoads.get(boardCode) == null) {
+                continue;
+            }
+            getBoardEventQueue(boardCode).addEvent(event, nextRankedIssueUtil);
+        }
+    }
+
+    //Called by the board's event queue
+    //Returns whether the board was changed. Errors are logged and counted by the queue, and do not affect other boards
+    private boolean applyEvent(String boardCode, JirbanIssueEvent event, NextRankedIssueUtil nextRankedIssueUtil) throws SearchException {
+        final Board board;
+        final BoardChangeRegistry changeRegistry;
+        synchronized (this) {
+            final BoardLoad load = boardLoads.get(boardCode);
+            if (load != null) {
+                //The board being loaded might have been loaded before this event happened. Record it so it can
+                //be replayed on the loaded board before that gets published
+                load.recordEvent(event, nextRankedIssueUtil);
+            }
+            board = boards.get(boardCode);
+            if (board == null) {
+                return false;
+            }
+            changeRegistry = boardChangeRegistries.get(boardCode);
+        }
+        if (event.getType() == JirbanIssueEvent.Type.CREATE && board.getIssue(event.getIssueKey()) != null) {
+            //The board was reconciled after the issue was created
+            return false;
+        }
+        final ApplicationUser boardOwner = jiraInjectables.getJiraUserManager().getUserByKey(board.getConfig().getOwningUserKey());
+        JirbanLogger.LOGGER.debug("BoardManagerImpl.applyEvent - Handling event on board {}", board.getConfig().getCode());
+        Board newBoard;
+        try {
+            newBoard = board.handleEvent(jiraInjectables, nextRankedIssueUtil, boardOwner, event, changeRegistry);
+        } catch (SearchException | RuntimeException e) {
+            //The board is most likely out of step with Jira for this issue, e.g. "Can't find issue to update". Rather
+            //than leaving it wrong until the next refresh, reload just this issue
+            JirbanLogger.LOGGER.warn("BoardManagerImpl.applyEvent - Error handling event {} on board {}, reloading the issue - {}",
+                    event.getIssueKey(), boardCode, e.getMessage());
+            newBoard = board.reloadIssue(jiraInjectables, boardOwner, nextRankedIssueUtil, event.getIssueKey(), changeRegistry);
+        }
+        return publishUpdatedBoard(boardCode, newBoard, changeRegistry);
+    }
+
+    //Called by the board's event queue
+    private boolean publishUpdatedBoard(String boardCode, Board newBoard, BoardChangeRegistry changeRegistry) {
+        if (newBoard == null) {
+            //The changes in the issue were not relevant to this board
+            return false;
+        }
+        synchronized (this) {
+            //An event ending up in forceRefresh() might have deleted the board and the change registry
+            //with the intent of forcing the next read to perform a full refresh
+            //We have the new board returned, but check if we need to recreate the registry
+            if (changeRegistry.isValid()) {
+                changeRegistry.setBoard(newBoard);
+                boards.put(boardCode, newBoard);
+            }
+        }
+        return true;
+    }
+
+    //Called by the board's event queue for a burst of events, e.g. from a bulk edit
+    private boolean applyEvents(String boardCode, List<JirbanIssueEvent> events, NextRankedIssueUtil nextRankedIssueUtil) throws SearchException {
+        final Board board;
+        final BoardChangeRegistry changeRegistry;
+        synchronized (this) {
+            final BoardLoad load = boardLoads.get(boardCode);
+            if (load != null) {
+                for (JirbanIssueEvent event : events) {
+                    load.recordEvent(event, nextRankedIssueUtil);
                 }
-                changeRegistry = boardChangeRegistries.get(boardCode);
             }
-            final ApplicationUser boardOwner = jiraInjectables.getJiraUserManager().getUserByKey(board.getConfig().getOwningUserKey());
-            try {
-                JirbanLogger.LOGGER.debug("BoardManagerImpl.handleEvent - Handling event on board {}", board.getConfig().getCode());
-                Board newBoard = board.handleEvent(jiraInjectables, nextRankedIssueUtil, boardOwner, event, changeRegistry);
-                if (newBoard == null) {
-                    //The changes in the issue were not relevant
-                    return;
+            board = boards.get(boardCode);
+            if (board == null) {
+                return false;
+            }
+            changeRegistry = boardChangeRegistries.get(boardCode);
+        }
+        final Set<String> issueKeys = new HashSet<>();
+        for (JirbanIssueEvent event : events) {
+            issueKeys.add(event.getIssueKey());
+        }
+        final ApplicationUser boardOwner = jiraInjectables.getJiraUserManager().getUserByKey(board.getConfig().getOwningUserKey());
+        try {
+            JirbanLogger.LOGGER.debug("BoardManagerImpl.applyEvents - Reloading {} issues on board {}", issueKeys.size(), boardCode);
+            final Board newBoard = board.reloadIssues(jiraInjectables, boardOwner, issueKeys, changeRegistry);
+            synchronized (this) {
+                if (changeRegistry.isValid()) {
+                    changeRegistry.setBoard(newBoard);
+                    boards.put(boardCode, newBoard);
                 }
-                synchronized (this) {
-                    //An event ending up in forceRefresh() might have deleted the board and the change registry
-                    //with the intent of forcing the next read to perform a full refresh
-                    //We have the new board returned, but check if we need to recreate the registry
-                    if (changeRegistry.isValid()) {
-                        changeRegistry.setBoard(newBoard);
-                        boards.put(boardCode, newBoard);
+            }
+            return true;
+        } catch (SearchException | RuntimeException e) {
+            //Some of the changes might have been registered, so throw out the board so that the next read does a
+            //full load
+            deleteBoard(boardCode);
+            throw e;
+        }
+    }
+
+    private BoardEventQueue getBoardEventQueue(String code) {
+        return boardEventQueues.computeIfAbsent(code, c -> new BoardEventQueue(c, boardEventExecutor, boardEventScheduler,
+                new BoardEventQueue.EventHandler() {
+                    @Override
+                    public boolean handleEvent(JirbanIssueEvent event, NextRankedIssueUtil nextRankedIssueUtil) throws SearchException {
+                        return applyEvent(c, event, nextRankedIssueUtil);
                     }
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-                //Last parameter is the exception (it does not match a {} entry)
-                JirbanLogger.LOGGER.error("BoardManagerImpl.handleEvent - Error handling event {} - {}", event.getIssueKey(), e.getMessage());
 
-                //Last parameter is the exception (it does not match a {} entry)
-                JirbanLogger.LOGGER.debug("BoardManagerImpl.handleEvent - Error handling event {}", event.getIssueKey(), e);
+                    @Override
+                    public boolean handleEvents(List<JirbanIssueEvent> events, NextRankedIssueUtil nextRankedIssueUtil) throws SearchException {
+                        return applyEvents(c, events, nextRankedIssueUtil);
+                    }
+                }, coalesceWindowMillis, batchThreshold));
+    }
+
+    @Override
+    public void reloadIssue(ApplicationUser user, String code, String issueKey) throws SearchException {
+        //Check we are allowed to administer the board
+        boardConfigurationManager.getBoardConfigForBoardAdmin(user, code);
+        if (boards.get(code) == null) {
+            //The issue will be up to date when the board gets loaded
+            return;
+        }
+        final FutureTask<Boolean> reloadTask = new FutureTask<>(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                final Board board;
+                final BoardChangeRegistry changeRegistry;
+                synchronized (BoardManagerImpl.this) {
+                    board = boards.get(code);
+                    changeRegistry = boardChangeRegistries.get(code);
+                    if (board == null || changeRegistry == null) {
+                        return false;
+                    }
+                }
+                final ApplicationUser boardOwner = jiraInjectables.getJiraUserManager().getUserByKey(board.getConfig().getOwningUserKey());
+                return publishUpdatedBoard(code,
+                        board.reloadIssue(jiraInjectables, boardOwner, nextRankedIssueUtil, issueKey, changeRegistry),
+                        changeRegistry);
             }
+        });
+        //Go through the board's event queue so that we don't interfere with the events being handled
+        getBoardEventQueue(code).add(reloadTask);
+        getResult(reloadTask);
+    }
+
+    @Override
+    public String getEventQueuesJson(ApplicationUser user) {
+        if (!boardConfigurationManager.isJiraAdministrator(user)) {
+            throw new JirbanPermissionException("Only Jira Administrators can view the board event queues");
+        }
+        final ModelNode list = new ModelNode();
+        list.setEmptyList();
+        for (BoardEventQueue queue : boardEventQueues.values()) {
+            list.add(queue.getMetrics());
         }
+        return list.toJSONString(true);
     }
 
     @Override
@@ -429,10 +683,8 @@ public class BoardManagerImpl implements BoardManager, InitializingBean, Disposa
         //Check we are allowed to view the board
         boardConfigurationManager.getBoardConfigForBoardDisplay(user, code);
 
-        BoardChangeRegistry boardChangeRegistry;
-        synchronized (this) {
-            boardChangeRegistry = boardChangeRegistries.get(code);
-        }
+        final BoardChangeRegistry boardChangeRegistry = boardChangeRegistries.get(code);
+        markAccessed(code);
 
         if (boardChangeRegistry == null) {
             //There is config but no board, so do a full refresh
@@ -458,7 +710,7 @@ public class BoardManagerImpl implements BoardManager, InitializingBean, Disposa
                     try {
                         Thread.sleep(10000);
 
-                        //Throw out all the 'expired' boards so that they are refreshed again
+                        //Refresh all the 'expired' boards
                         synchronized (BoardManagerImpl.this) {
                             RefreshEntry entry = boardRefreshQueue.peek();
                             while (entry != null && System.currentTimeMillis() > entry.endTime) {
@@ -466,12 +718,31 @@ public class BoardManagerImpl implements BoardManager, InitializingBean, Disposa
                                 entry = boardRefreshQueue.poll();
 
                                 if (entry.isValid()) {
-                                    JirbanLogger.LOGGER.debug("Periodic task deleting board " + entry.boardCode);
-                                    //Remove the board, an attempt to read it will result in a new instance being fully loaded
-                                    //and created
-                                    boardChangeRegistries.remove(entry.boardCode);
-                                    boards.remove(entry.boardCode);
-                                    //When an attempt is made to get the board again, a new entry will be added to the  queue
+                                    final Board board = boards.get(entry.boardCode);
+                                    if ((entry.isAccessed() || warmBoards.contains(entry.boardCode)) && board != null) {
+                                        //The board is in use, or should be kept warm, so bring it up to date in the
+                                        //background. Readers get the current board until the new one is swapped in
+                                        if (System.currentTimeMillis() - entry.fullLoadTime > FULL_REBUILD_INTERVAL_SECONDS * 1000L) {
+                                            rebuildBoard(entry.boardCode, board);
+                                        } else {
+                                            final RefreshEntry reconcileEntry = entry;
+                                            JirbanLogger.LOGGER.debug("Periodic task reconciling board " + entry.boardCode);
+                                            boardRebuildExecutor.execute(new Runnable() {
+                                                @Override
+                                                public void run() {
+                                                    reconcileBoard(reconcileEntry);
+                                                }
+                                            });
+                                        }
+                                    } else {
+                                        JirbanLogger.LOGGER.debug("Periodic task deleting board " + entry.boardCode);
+                                        //Nobody has used the board since it was loaded so remove it, an attempt to
+                                        //read it will result in a new instance being fully loaded and created.
+                                        //Invalidate the registry and drop any load, so that updates already queued
+                                        //for the board don't publish it again
+                                        deleteBoard(entry.boardCode);
+                                        //When an attempt is made to get the board again, a new entry will be added to the  queue
+                                    }
                                 }
                                 entry = boardRefreshQueue.peek();
                             }
@@ -485,20 +756,145 @@ public class BoardManagerImpl implements BoardManager, InitializingBean, Disposa
         });
     }
 
+    //Called with the BoardManagerImpl.this lock held
+    private void rebuildBoard(String code, Board board) {
+        final BoardLoad load = new BoardLoad(code, null, board);
+        if (boardLoads.putIfAbsent(code, load) == null) {
+            JirbanLogger.LOGGER.debug("Periodic task rebuilding board " + code);
+            boardRebuildExecutor.execute(load);
+        }
+    }
+
+    //Rebuilds the board in the calling thread rather than waiting for the periodic task. Used by the tests
+    void rebuildBoard(String code) throws SearchException {
+        final BoardLoad load;
+        synchronized (this) {
+            final Board board = boards.get(code);
+            if (board == null) {
+                return;
+            }
+            load = new BoardLoad(code, null, board);
+            if (boardLoads.putIfAbsent(code, load) != null) {
+                return;
+            }
+        }
+        load.run();
+        load.getBoard();
+    }
+
+    //Reconciles the board now rather than waiting for its refresh entry to expire. Used by the tests
+    void reconcileBoard(String code) {
+        final RefreshEntry entry = refreshEntries.get(code);
+        if (entry != null) {
+            reconcileBoard(entry);
+        }
+    }
+
+    //Searches for the changes outside the board's event queue, and then queues applying them to the board
+    private void reconcileBoard(RefreshEntry entry) {
+        final String code = entry.boardCode;
+        final Board board;
+        synchronized (this) {
+            if (!isCurrentForReconcile(entry)) {
+                //The board was deleted or is being loaded again
+                return;
+            }
+            board = boards.get(code);
+        }
+        final long syncTime = System.currentTimeMillis();
+        final ApplicationUser boardOwner;
+        final Board.Reconciliation reconciliation;
+        try {
+            boardOwner = jiraInjectables.getJiraUserManager().getUserByKey(board.getConfig().getOwningUserKey());
+            reconciliation = board.searchForReconcile(jiraInjectables, boardOwner,
+                    new Date(entry.syncTime - SYNC_OVERLAP_SECONDS * 1000L));
+        } catch (Exception e) {
+            reconcileFailed(entry, e);
+            return;
+        }
+        getBoardEventQueue(code).add(() -> applyReconcile(entry, boardOwner, reconciliation, syncTime));
+    }
+
+    //Called by the board's event queue, so events for the board wait until we are done
+    private void applyReconcile(RefreshEntry entry, ApplicationUser boardOwner, Board.Reconciliation reconciliation,
+                                long syncTime) {
+        final String code = entry.boardCode;
+        final Board board;
+        final BoardChangeRegistry changeRegistry;
+        synchronized (this) {
+            if (!isCurrentForReconcile(entry)) {
+                return;
+            }
+            board = boards.get(code);
+            changeRegistry = boardChangeRegistries.get(code);
+        }
+        try {
+            final Board newBoard = board.reconcile(jiraInjectables, boardOwner, reconciliation, changeRegistry);
+            synchronized (this) {
+                if (refreshEntries.get(code) != entry || !changeRegistry.isValid()) {
+                    return;
+                }
+                changeRegistry.setBoard(newBoard);
+                boards.put(code, newBoard);
+                final RefreshEntry refreshEntry = new RefreshEntry(code, REFRESH_TIMEOUT_SECONDS, syncTime, entry.fullLoadTime);
+                refreshEntries.put(code, refreshEntry);
+                boardRefreshQueue.add(refreshEntry);
+            }
+        } catch (Exception e) {
+            reconcileFailed(entry, e);
+        }
+    }
+
+    //Called with the BoardManagerImpl.this lock held
+    private boolean isCurrentForReconcile(RefreshEntry entry) {
+        final String code = entry.boardCode;
+        return refreshEntries.get(code) == entry && boardLoads.get(code) == null
+                && boards.get(code) != null && boardChangeRegistries.get(code) != null;
+    }
+
+    private void reconcileFailed(RefreshEntry entry, Exception e) {
+        final String code = entry.boardCode;
+        //Last parameter is the exception (it does not match a {} entry)
+        JirbanLogger.LOGGER.error("BoardManagerImpl.reconcileBoard - Error reconciling board {} - {}", code, e.getMessage(), e);
+        //Some of the changes might have been registered, so throw out the board so that the next read does a
+        //full load
+        synchronized (this) {
+            if (refreshEntries.get(code) == entry) {
+                deleteBoard(code);
+            }
+        }
+    }
+
     @Override
     public void destroy() throws Exception {
         boardRefreshExecutor.shutdownNow();
+        boardRebuildExecutor.shutdownNow();
         boardRefreshExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        boardRebuildExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        boardEventScheduler.shutdownNow();
+        boardEventScheduler.awaitTermination(10, TimeUnit.SECONDS);
+        if (boardEventExecutor instanceof ExecutorService) {
+            ((ExecutorService) boardEventExecutor).shutdownNow();
+            ((ExecutorService) boardEventExecutor).awaitTermination(10, TimeUnit.SECONDS);
+        }
     }
 
     private static class RefreshEntry {
         private final String boardCode;
         private final long endTime;
+        //When the board was last brought up to date with Jira
+        private final long syncTime;
+        //When the board was last fully loaded
+        private final long fullLoadTime;
         private volatile boolean valid = true;
+        //Set when the board is read, so that we only rebuild the boards which are in use
+        private volatile boolean accessed;
 
-        public RefreshEntry(String boardCode, int timeoutSeconds) {
+        public RefreshEntry(String boardCode, int timeoutSeconds, long syncTime, long fullLoadTime) {
             this.boardCode = boardCode;
             this.endTime = System.currentTimeMillis() + timeoutSeconds *1000;
+            this.syncTime = syncTime;
+            this.fullLoadTime = fullLoadTime;
         }
 
         void invalidate() {
@@ -509,6 +905,14 @@ public class BoardManagerImpl implements BoardManager, InitializingBean, Disposa
             return valid;
         }
 
+        void markAccessed() {
+            accessed = true;
+        }
+
+        boolean isAccessed() {
+            return accessed;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -522,4 +926,195 @@ public class BoardManagerImpl implements BoardManager, InitializingBean, Disposa
             return boardCode.hashCode();
         }
     }
+
+    /**
+     * Loads a board, either when it is first read or when rebuilding an expired board in the background. Events
+     * handled while the load is in progress are replayed on the loaded board before it gets published, since the
+     * load might have missed them. The replay and the publishing are done by the board's event queue, so that no
+     * events get handled in the meantime.
+     */
+    private class BoardLoad implements Runnable {
+        private final String code;
+        private final FutureTask<Board> task;
+        //Guarded by BoardManagerImpl.this
+        private List<LoadEvent> events = new ArrayList<>();
+
+        BoardLoad(String code, BoardConfig boardConfig, Board previous) {
+            this.code = code;
+            this.task = new FutureTask<>(new Callable<Board>() {
+                @Override
+                public Board call() throws Exception {
+                    return load(boardConfig, previous);
+                }
+            });
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        //Called by the board's event queue with the BoardManagerImpl.this lock held
+        void recordEvent(JirbanIssueEvent event, NextRankedIssueUtil nextRankedIssueUtil) {
+            events.add(new LoadEvent(event, nextRankedIssueUtil));
+        }
+
+        private Board load(BoardConfig boardConfig, Board previous) throws Exception {
+            final long startTime = System.currentTimeMillis();
+            try {
+                if (boardConfig == null) {
+                    boardConfig = boardConfigurationManager.getBoardConfig(code);
+                    if (boardConfig == null) {
+                        throw new JirbanValidationException("Could not find board " + code);
+                    }
+                }
+                /*
+                Use the board owner to load the board data. The board is only loaded once, and shared amongst all
+                users.
+                Since I was not 100% sure which permission to use to determine if a user can view the board in the
+                check done by getBoardConfigForBoardDisplay(), it feels less error-prone to use the user who created
+                the board (who needs the project admin permission) to load this data.
+                This user is only used to load board data; all changes will be done using the logged in user.
+                */
+                final ApplicationUser boardOwner = jiraInjectables.getJiraUserManager().getUserByKey(boardConfig.getOwningUserKey());
+                final Board board = Board.builder(jiraInjectables, projectParallelTaskOptionsLoader, projectIssueSearchCache, boardConfig, boardOwner)
+                        .setOffHeapSummaries(OFF_HEAP_SUMMARIES)
+                        .load()
+                        .build(previous);
+                JirbanLogger.LOGGER.debug("Full refresh of board {}", code);
+                final FutureTask<Board> publishTask = new FutureTask<>(new Callable<Board>() {
+                    @Override
+                    public Board call() throws Exception {
+                        return replayAndPublish(board, boardOwner, startTime);
+                    }
+                });
+                getBoardEventQueue(code).add(publishTask);
+                return getResult(publishTask);
+            } catch (Exception e) {
+                synchronized (BoardManagerImpl.this) {
+                    if (boardLoads.remove(code, this) && previous != null) {
+                        //Last parameter is the exception (it does not match a {} entry)
+                        JirbanLogger.LOGGER.error("BoardManagerImpl.BoardLoad - Error rebuilding board {} - {}", code, e.getMessage(), e);
+                        //Fall back to throwing out the board, so that the next read does a full load
+                        deleteBoard(code);
+                    }
+                }
+                throw e;
+            }
+        }
+
+        //Called by the board's event queue
+        private Board replayAndPublish(Board board, ApplicationUser boardOwner, long startTime) {
+            final BoardChangeRegistry changeRegistry = new BoardChangeRegistry(BoardManagerImpl.this, board);
+            final List<LoadEvent> loadEvents;
+            synchronized (BoardManagerImpl.this) {
+                if (boardLoads.get(code) != this) {
+                    //The board was deleted or force refreshed while we were loading it. Give the result to
+                    //the readers waiting for this load, but don't publish it
+                    return board;
+                }
+                loadEvents = events;
+                events = new ArrayList<>();
+            }
+            for (LoadEvent loadEvent : loadEvents) {
+                board = replayEvent(board, boardOwner, changeRegistry, loadEvent);
+            }
+            changeRegistry.setBoard(board);
+            synchronized (BoardManagerImpl.this) {
+                if (boardLoads.get(code) != this) {
+                    return board;
+                }
+                return publish(board, changeRegistry, startTime);
+            }
+        }
+
+        //Called by the board's event queue with the BoardManagerImpl.this lock held
+        private Board publish(Board board, BoardChangeRegistry changeRegistry, long startTime) {
+            final Board current = boards.get(code);
+            final BoardChangeRegistry currentRegistry = boardChangeRegistries.get(code);
+            if (current != null && currentRegistry != null) {
+                //This is a rebuild. Send the differences to the clients as changes following the current view, so
+                //they don't need a full refresh
+                final Board reloaded = current.registerReloadedChanges(board, currentRegistry);
+                if (reloaded != null) {
+                    board = reloaded;
+                    changeRegistry = currentRegistry;
+                    changeRegistry.setBoard(board);
+                } else {
+                    JirbanLogger.LOGGER.debug("BoardManagerImpl.BoardLoad - The changes to board {} need a full refresh", code);
+                    board = board.copyWithView(current.getCurrentView() + 1);
+                    changeRegistry = new BoardChangeRegistry(BoardManagerImpl.this, board);
+                }
+            }
+            boards.put(code, board);
+            BoardChangeRegistry oldRegistry = boardChangeRegistries.put(code, changeRegistry);
+            if (oldRegistry != null && oldRegistry != changeRegistry) {
+                oldRegistry.invalidate();
+            }
+            final RefreshEntry refreshEntry = new RefreshEntry(code, REFRESH_TIMEOUT_SECONDS, startTime, startTime);
+            RefreshEntry oldRefreshEntry = refreshEntries.put(code, refreshEntry);
+            if (oldRefreshEntry != null) {
+                oldRefreshEntry.invalidate();
+            }
+            boardRefreshQueue.add(refreshEntry);
+            boardLoads.remove(code);
+            return board;
+        }
+
+        private Board replayEvent(Board board, ApplicationUser boardOwner, BoardChangeRegistry changeRegistry, LoadEvent loadEvent) {
+            final JirbanIssueEvent event = loadEvent.event;
+            if (event.getType() == JirbanIssueEvent.Type.CREATE && board.getIssue(event.getIssueKey()) != null) {
+                //The board was loaded after the issue was created
+                return board;
+            }
+            try {
+                Board newBoard = board.handleEvent(jiraInjectables, loadEvent.nextRankedIssueUtil, boardOwner, event, changeRegistry);
+                return newBoard == null ? board : newBoard;
+            } catch (Exception e) {
+                //The loaded board most likely already contains the results of the event, e.g. an issue which was
+                //deleted before the board was loaded
+                JirbanLogger.LOGGER.debug("BoardManagerImpl.BoardLoad - Could not replay event {} on loaded board {}: {}",
+                        event.getIssueKey(), code, e.getMessage());
+                return board;
+            }
+        }
+
+        Board getBoard() throws SearchException {
+            return getResult(task);
+        }
+    }
+
+    private static <T> T getResult(FutureTask<T> task) throws SearchException {
+        try {
+            return task.get(RESULT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (TimeoutException e) {
+            //Leave the task alone, other requests might be waiting for it too
+            throw new IllegalStateException("Timed out after " + RESULT_TIMEOUT_SECONDS + " seconds waiting for the board");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof SearchException) {
+                throw (SearchException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private static class LoadEvent {
+        private final JirbanIssueEvent event;
+        private final NextRankedIssueUtil nextRankedIssueUtil;
+
+        LoadEvent(JirbanIssueEvent event, NextRankedIssueUtil nextRankedIssueUtil) {
+            this.event = event;
+            this.nextRankedIssueUtil = nextRankedIssueUtil;
+        }
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.jirban.jira.JirbanLogger;
+import org.jirban.jira.api.BoardManager;
+import org.jirban.jira.api.UserAccessManager;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Loads the most used boards in the background when the plugin starts, so that the first user of a board after a
+ * restart or upgrade does not have to wait for the full load. The boards are ranked by the number of accesses in
+ * the user access log, and are kept warm by the board manager until the ranking is done again.
+ *
+ * @author Kabir Khan
+ */
+@Named("jirbanBoardWarmer")
+public class BoardWarmer implements InitializingBean, DisposableBean {
+
+    //Give Jira some time to finish starting up before hitting the database and the search index
+    private static final int INITIAL_DELAY_SECONDS = 60;
+
+    //Rank the boards again every hour
+    private static final int RANK_INTERVAL_SECONDS = 60 * 60;
+
+    //Only look at the accesses from the last week
+    private static final int ACCESS_DAYS = 7;
+
+    private static final int MAX_BOARDS = 10;
+
+    //The number of boards to load at the same time
+    private static final int MAX_CONCURRENT_LOADS = 2;
+
+    private final BoardManager boardManager;
+
+    private final UserAccessManager userAccessManager;
+
+    private final int maxBoards;
+
+    //The warming should never keep Jira from shutting down, so these are daemon threads
+    private final ScheduledExecutorService rankExecutor =
+            Executors.newSingleThreadScheduledExecutor(threadFactory("jirban-board-warmer-rank"));
+
+    private final Executor loadExecutor;
+
+    @Inject
+    public BoardWarmer(BoardManager boardManager, UserAccessManager userAccessManager) {
+        this(boardManager, userAccessManager, MAX_BOARDS,
+                Executors.newFixedThreadPool(MAX_CONCURRENT_LOADS, threadFactory("jirban-board-warmer-load")));
+    }
+
+    //Used by the tests
+    BoardWarmer(BoardManager boardManager, UserAccessManager userAccessManager, int maxBoards, Executor loadExecutor) {
+        this.boardManager = boardManager;
+        this.userAccessManager = userAccessManager;
+        this.maxBoards = maxBoards;
+        this.loadExecutor = loadExecutor;
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        final AtomicInteger count = new AtomicInteger();
+        return r -> {
+            final Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        rankExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                warmBoards();
+            }
+        }, INITIAL_DELAY_SECONDS, RANK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        rankExecutor.shutdownNow();
+        rankExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        if (loadExecutor instanceof ExecutorService) {
+            ((ExecutorService) loadExecutor).shutdownNow();
+            ((ExecutorService) loadExecutor).awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    //Package-private for the tests
+    void warmBoards() {
+        final List<String> boardCodes;
+        try {
+            boardCodes = userAccessManager.getMostAccessedBoardCodes(ACCESS_DAYS, maxBoards);
+        } catch (Exception e) {
+            //Last parameter is the exception (it does not match a {} entry)
+            JirbanLogger.LOGGER.error("BoardWarmer - Error ranking the boards - {}", e.getMessage(), e);
+            return;
+        }
+        JirbanLogger.LOGGER.debug("BoardWarmer - Warming boards {}", boardCodes);
+
+        boardManager.setWarmBoards(new HashSet<>(boardCodes));
+        for (String boardCode : boardCodes) {
+            loadExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        boardManager.warmBoard(boardCode);
+                    } catch (Exception e) {
+                        //The board might have been deleted since it was accessed
+                        JirbanLogger.LOGGER.warn("BoardWarmer - Could not warm board {} - {}", boardCode, e.getMessage());
+                    }
+                }
+            });
+        }
+    }
+}
@@ -58,6 +58,7 @@ public class Constants {
     public static final String JIRBAN_VERSION = "jirban-version";
     public static final String KEY = "key";
     public static final String LABELS = "labels";
+    public static final String LAZY_LINKED_ISSUES = "lazy-linked-issues";
     public static final String LINKED = "linked";
     public static final String LINKED_ISSUES = "linked-issues";
     public static final String LINKED_PROJECTS = "linked-projects";
@@ -77,6 +78,7 @@ public class Constants {
     public static final String RANK_CUSTOM_FIELD = "rank-custom-field";
     public static final String RANK_CUSTOM_FIELD_ID = "rank-custom-field-id";
     public static final String REMOVED_ISSUES = "removed-issues";
+    public static final String SORT_ORDER = "sort-order";
     public static final String STATE = "state";
     public static final String STATE_LINKS = "state-links";
     public static final String STATES = "states";
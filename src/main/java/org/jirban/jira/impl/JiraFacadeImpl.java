@@ -17,6 +17,7 @@
 package org.jirban.jira.impl;
 
 import java.io.InputStream;
+import java.util.List;
 import java.util.jar.Manifest;
 
 import javax.inject.Inject;
@@ -108,6 +109,11 @@ public class JiraFacadeImpl implements JiraFacade, InitializingBean, DisposableB
         }
     }
 
+    @Override
+    public String getLinkedIssuesJson(ApplicationUser user, boolean backlog, String code, List<String> issueKeys) throws SearchException {
+        return boardManager.getLinkedIssuesJson(user, backlog, code, issueKeys);
+    }
+
     @Override
     public String getBoardsForDisplay(ApplicationUser user) {
         return boardConfigurationManager.getBoardsJson(user, false);
@@ -144,6 +150,16 @@ public class JiraFacadeImpl implements JiraFacade, InitializingBean, DisposableB
         return userAccessManager.getUserAccessJson(user);
     }
 
+    @Override
+    public void reloadIssue(ApplicationUser user, String boardCode, String issueKey) throws SearchException {
+        boardManager.reloadIssue(user, boardCode, issueKey);
+    }
+
+    @Override
+    public String getEventQueuesJson(ApplicationUser user) {
+        return boardManager.getEventQueuesJson(user);
+    }
+
     @Override
     public void updateParallelTaskForIssue(ApplicationUser user, String boardCode, String issueKey, int taskIndex, int optionIndex) throws SearchException{
         try {
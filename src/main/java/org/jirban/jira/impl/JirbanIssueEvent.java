@@ -17,8 +17,11 @@ package org.jirban.jira.impl;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
+import org.jirban.jira.impl.util.StringInterner;
+
 import com.atlassian.crowd.embedded.api.User;
 import com.atlassian.jira.bc.project.component.ProjectComponent;
 import com.atlassian.jira.issue.label.Label;
@@ -36,8 +39,9 @@ public class JirbanIssueEvent {
 
     private JirbanIssueEvent(Type type, String issueKey, String projectCode, Detail detail) {
         this.type = type;
-        this.issueKey = issueKey;
-        this.projectCode = projectCode;
+        //The key ends up in the board changes and the ranked issues of every board containing the project
+        this.issueKey = StringInterner.intern(issueKey);
+        this.projectCode = StringInterner.intern(projectCode);
         this.detail = detail;
     }
 
@@ -107,6 +111,43 @@ public class JirbanIssueEvent {
         return new JirbanIssueEvent(Type.UPDATE, issueKey, projectCode, detail);
     }
 
+    /**
+     * Merges an event for the same issue which happened right after this one, so that only one board update needs to
+     * be done for both. The rules are the same as when merging the changes for the clients in
+     * {@code BoardChangeRegistry.IssueChange}; the fields set by the later event win.
+     *
+     * @param next the event following this one
+     * @return the merged event, or {@code null} if the events cannot be merged
+     */
+    public JirbanIssueEvent merge(JirbanIssueEvent next) {
+        if (!issueKey.equals(next.issueKey) || !projectCode.equals(next.projectCode)) {
+            return null;
+        }
+        switch (type) {
+            case CREATE:
+                if (next.type == Type.UPDATE) {
+                    //We were created as part of this window, so keep CREATE
+                    final Detail merged = detail.merge(next.detail);
+                    return new JirbanIssueEvent(Type.CREATE, issueKey, projectCode,
+                            new Detail(merged.issueType, merged.priority, merged.summary,
+                                    merged.assignee == UNASSIGNED ? null : merged.assignee,
+                                    merged.components, merged.labels, merged.fixVersions,
+                                    null, merged.state, true, merged.customFieldValues));
+                }
+                //Leave a create followed by a delete to the board, since that is rare
+                return null;
+            case UPDATE:
+                if (next.type == Type.UPDATE) {
+                    return new JirbanIssueEvent(Type.UPDATE, issueKey, projectCode, detail.merge(next.detail));
+                } else if (next.type == Type.DELETE) {
+                    return next;
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
     public boolean isRecalculateState() {
         if (type == Type.DELETE) {
             return false;
@@ -145,15 +186,15 @@ public class JirbanIssueEvent {
         private Detail(String issueType, String priority, String summary, ApplicationUser assignee,
                        Collection<ProjectComponent> components, Collection<Label> labels, Collection<Version> fixVersions,
                        String oldState, String state, boolean reranked, Map<Long, String> customFieldValues) {
-            this.summary = summary;
+            this.summary = StringInterner.intern(summary);
             this.assignee = assignee;
             this.components = components;
             this.labels = labels;
             this.fixVersions = fixVersions;
-            this.issueType = issueType;
-            this.priority = priority;
-            this.oldState = oldState;
-            this.state = state;
+            this.issueType = StringInterner.intern(issueType);
+            this.priority = StringInterner.intern(priority);
+            this.oldState = StringInterner.intern(oldState);
+            this.state = StringInterner.intern(state);
             this.reranked = reranked;
             this.customFieldValues = customFieldValues != null ? customFieldValues : Collections.emptyMap();
         }
@@ -201,6 +242,30 @@ public class JirbanIssueEvent {
         public Map<Long, String> getCustomFieldValues() {
             return customFieldValues;
         }
+
+        private Detail merge(Detail next) {
+            final Map<Long, String> customFieldValues;
+            if (next.customFieldValues.isEmpty()) {
+                customFieldValues = this.customFieldValues;
+            } else if (this.customFieldValues.isEmpty()) {
+                customFieldValues = next.customFieldValues;
+            } else {
+                customFieldValues = new HashMap<>(this.customFieldValues);
+                customFieldValues.putAll(next.customFieldValues);
+            }
+            return new Detail(
+                    next.issueType != null ? next.issueType : issueType,
+                    next.priority != null ? next.priority : priority,
+                    next.summary != null ? next.summary : summary,
+                    next.assignee != null ? next.assignee : assignee,
+                    next.components != null ? next.components : components,
+                    next.labels != null ? next.labels : labels,
+                    next.fixVersions != null ? next.fixVersions : fixVersions,
+                    oldState,
+                    next.state != null ? next.state : state,
+                    reranked || next.reranked,
+                    customFieldValues);
+        }
     }
 
     public enum Type {
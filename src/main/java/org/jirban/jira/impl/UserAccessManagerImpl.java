@@ -18,6 +18,12 @@ package org.jirban.jira.impl;
 
 import java.sql.Date;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -95,4 +101,26 @@ public class UserAccessManagerImpl implements UserAccessManager {
         }
         return list.toJSONString(true);
     }
+
+    @Override
+    public List<String> getMostAccessedBoardCodes(int days, int maxBoards) {
+        final Date since = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days));
+        UserAccess[] accesses = activeObjects.executeInTransaction(new TransactionCallback<UserAccess[]>() {
+            @Override
+            public UserAccess[] doInTransaction() {
+                //Cap the number of entries we look at
+                return activeObjects.find(UserAccess.class,
+                        Query.select().where("TIME > ?", since).order("TIME desc").limit(10000));
+            }
+        });
+
+        final Map<String, Integer> counts = new HashMap<>();
+        for (UserAccess access : accesses) {
+            counts.merge(access.getBoardCode(), 1, Integer::sum);
+        }
+
+        final List<String> boardCodes = new ArrayList<>(counts.keySet());
+        Collections.sort(boardCodes, (a, b) -> Integer.compare(counts.get(b), counts.get(a)));
+        return boardCodes.size() > maxBoards ? boardCodes.subList(0, maxBoards) : boardCodes;
+    }
 }
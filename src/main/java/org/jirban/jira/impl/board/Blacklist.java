@@ -19,6 +19,7 @@ import static org.jirban.jira.impl.Constants.ISSUE_TYPES;
 import static org.jirban.jira.impl.Constants.PRIORITIES;
 import static org.jirban.jira.impl.Constants.STATES;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -26,6 +27,7 @@ import java.util.TreeSet;
 
 import org.jboss.dmr.ModelNode;
 import org.jirban.jira.impl.Constants;
+import org.jirban.jira.impl.util.IssueKeys;
 
 /**
  * Keeps track of states, issue types and priorities that affected issues belong to, but have not been
@@ -35,6 +37,8 @@ import org.jirban.jira.impl.Constants;
  * @author Kabir Khan
  */
 public class Blacklist {
+    private static final long[] NO_ISSUES = new long[0];
+
     /**
      * The missing states from the configuration
      */
@@ -51,11 +55,11 @@ public class Blacklist {
     private final Set<String> missingPriorities;
 
     /**
-     * The issues that have been blacklisted
+     * The issues that have been blacklisted, as sorted {@link IssueKeys encoded keys}
      */
-    private final Set<String> issues;
+    private final long[] issues;
 
-    private Blacklist(Set<String> missingStates, Set<String> missingIssueTypes, Set<String> missingPriorities, Set<String> issues) {
+    private Blacklist(Set<String> missingStates, Set<String> missingIssueTypes, Set<String> missingPriorities, long[] issues) {
         this.missingStates = missingStates;
         this.missingIssueTypes = missingIssueTypes;
         this.missingPriorities = missingPriorities;
@@ -67,7 +71,9 @@ public class Blacklist {
         serializeSet(blacklist, STATES, missingStates);
         serializeSet(blacklist, ISSUE_TYPES, missingIssueTypes);
         serializeSet(blacklist, PRIORITIES, missingPriorities);
-        serializeSet(blacklist, Constants.ISSUES, issues);
+        for (long issue : issues) {
+            blacklist.get(Constants.ISSUES).add(IssueKeys.decode(issue));
+        }
         if (blacklist.isDefined()) {
             parent.get("blacklist").set(blacklist);
         }
@@ -81,7 +87,44 @@ public class Blacklist {
     }
 
     public boolean isBlacklisted(String issueKey) {
-        return issues.contains(issueKey);
+        return contains(issues, issueKey);
+    }
+
+    boolean hasSameEntries(Blacklist other) {
+        return missingStates.equals(other.missingStates) &&
+                missingIssueTypes.equals(other.missingIssueTypes) &&
+                missingPriorities.equals(other.missingPriorities) &&
+                Arrays.equals(issues, other.issues);
+    }
+
+    private static boolean contains(long[] issues, String issueKey) {
+        //Don't bother encoding the key for the usual case of nothing being blacklisted
+        return issues.length > 0 && Arrays.binarySearch(issues, IssueKeys.encode(issueKey)) >= 0;
+    }
+
+    private static long[] plus(long[] issues, String issueKey) {
+        final long key = IssueKeys.encode(issueKey);
+        final int index = Arrays.binarySearch(issues, key);
+        if (index >= 0) {
+            return issues;
+        }
+        final int insert = -index - 1;
+        final long[] added = new long[issues.length + 1];
+        System.arraycopy(issues, 0, added, 0, insert);
+        added[insert] = key;
+        System.arraycopy(issues, insert, added, insert + 1, issues.length - insert);
+        return added;
+    }
+
+    private static long[] minus(long[] issues, String issueKey) {
+        final int index = Arrays.binarySearch(issues, IssueKeys.encode(issueKey));
+        if (index < 0) {
+            return issues;
+        }
+        final long[] removed = new long[issues.length - 1];
+        System.arraycopy(issues, 0, removed, 0, index);
+        System.arraycopy(issues, index + 1, removed, index, removed.length - index);
+        return removed;
     }
 
     abstract static class Accessor {
@@ -98,7 +141,7 @@ public class Blacklist {
         private Set<String> missingStates;
         private Set<String> missingIssueTypes;
         private Set<String> missingPriorities;
-        private Set<String> issues;
+        private long[] issues;
 
 
         @Override
@@ -133,7 +176,7 @@ public class Blacklist {
             if (issues == null) {
                 return false;
             }
-            return issues.contains(issueKey);
+            return contains(issues, issueKey);
         }
 
         @Override
@@ -148,10 +191,7 @@ public class Blacklist {
         }
 
         private void blacklistIssue(String issueKey) {
-            if (issues == null) {
-                issues = new TreeSet<>();
-            }
-            issues.add(issueKey);
+            issues = plus(issues == null ? NO_ISSUES : issues, issueKey);
         }
 
         Blacklist build() {
@@ -159,7 +199,7 @@ public class Blacklist {
                 missingStates == null ? Collections.emptySet() : Collections.unmodifiableSet(missingStates),
                 missingIssueTypes == null ? Collections.emptySet() : Collections.unmodifiableSet(missingIssueTypes),
                 missingPriorities == null ? Collections.emptySet() : Collections.unmodifiableSet(missingPriorities),
-                issues == null ? Collections.emptySet() : Collections.unmodifiableSet(issues));
+                issues == null ? NO_ISSUES : issues);
         }
     }
 
@@ -169,7 +209,8 @@ public class Blacklist {
         private Set<String> missingStates;
         private Set<String> missingIssueTypes;
         private Set<String> missingPriorities;
-        private Set<String> issues;
+        private long[] issues;
+        private String addedIssue;
         private String deletedIssue;
 
         public Updater(Blacklist original) {
@@ -208,10 +249,7 @@ public class Blacklist {
 
         @Override
         public boolean isBlackListed(String issueKey) {
-            if (issues == null) {
-                return original.isBlacklisted(issueKey);
-            }
-            return issues.contains(issueKey);
+            return contains(issues == null ? original.issues : issues, issueKey);
         }
 
         @Override
@@ -221,10 +259,7 @@ public class Blacklist {
 
         @Override
         public void deleteIssue(String issueKey) {
-            if (issues == null) {
-                issues = new TreeSet<>(original.issues);
-            }
-            issues.remove(issueKey);
+            issues = minus(issues == null ? original.issues : issues, issueKey);
             deletedIssue = issueKey;
             updated = true;
         }
@@ -234,10 +269,11 @@ public class Blacklist {
         }
 
         private void blacklistIssue(String issueKey) {
-            if (issues == null) {
-                issues = new TreeSet<>(original.issues);
+            final long[] current = issues == null ? original.issues : issues;
+            issues = plus(current, issueKey);
+            if (issues != current && !contains(original.issues, issueKey)) {
+                addedIssue = issueKey;
             }
-            issues.add(issueKey);
         }
 
         Blacklist build() {
@@ -249,7 +285,7 @@ public class Blacklist {
                 missingStates == null ? original.missingStates : Collections.unmodifiableSet(missingStates),
                 missingIssueTypes == null ? original.missingIssueTypes : Collections.unmodifiableSet(missingIssueTypes),
                 missingPriorities == null ? original.missingPriorities : Collections.unmodifiableSet(missingPriorities),
-                issues == null ? original.issues : Collections.unmodifiableSet(issues));
+                issues == null ? original.issues : issues);
         }
 
         String getAddedState() {
@@ -265,8 +301,7 @@ public class Blacklist {
         }
 
         String getAddedIssue() {
-            return getAddition(original.issues, issues);
-
+            return addedIssue;
         }
 
         private String getAddition(Set<String> original, Set<String> current) {
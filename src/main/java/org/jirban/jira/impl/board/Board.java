@@ -21,31 +21,37 @@ import static org.jirban.jira.impl.Constants.CUSTOM;
 import static org.jirban.jira.impl.Constants.FIX_VERSIONS;
 import static org.jirban.jira.impl.Constants.ISSUES;
 import static org.jirban.jira.impl.Constants.LABELS;
+import static org.jirban.jira.impl.Constants.LAZY_LINKED_ISSUES;
 import static org.jirban.jira.impl.Constants.MAIN;
 import static org.jirban.jira.impl.Constants.PROJECTS;
+import static org.jirban.jira.impl.Constants.SORT_ORDER;
 import static org.jirban.jira.impl.Constants.VIEW;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.jboss.dmr.ModelNode;
 import org.jirban.jira.JirbanLogger;
+import org.jirban.jira.JirbanValidationException;
 import org.jirban.jira.api.NextRankedIssueUtil;
 import org.jirban.jira.api.ProjectParallelTaskOptionsLoader;
 import org.jirban.jira.impl.JiraInjectables;
 import org.jirban.jira.impl.JirbanIssueEvent;
+import org.jirban.jira.impl.board.Issue.LinkedIssue;
 import org.jirban.jira.impl.board.MultiSelectNameOnlyValue.Component;
 import org.jirban.jira.impl.board.MultiSelectNameOnlyValue.FixVersion;
 import org.jirban.jira.impl.board.MultiSelectNameOnlyValue.Label;
@@ -53,66 +59,100 @@ import org.jirban.jira.impl.config.BoardConfig;
 import org.jirban.jira.impl.config.BoardProjectConfig;
 import org.jirban.jira.impl.config.CustomFieldConfig;
 import org.jirban.jira.impl.config.LinkedProjectConfig;
-import org.jirban.jira.impl.util.IndexedMap;
+import org.jirban.jira.impl.util.OffHeapStringArena;
+import org.jirban.jira.impl.util.PersistentHashMap;
+import org.jirban.jira.impl.util.RankedSequence;
+import org.jirban.jira.impl.util.StableIndexedMap;
 
 import com.atlassian.jira.avatar.Avatar;
 import com.atlassian.jira.bc.project.component.ProjectComponent;
 import com.atlassian.jira.issue.link.IssueLinkManager;
 import com.atlassian.jira.issue.search.SearchException;
+import com.atlassian.jira.issue.search.SearchResults;
+import com.atlassian.jira.jql.builder.JqlQueryBuilder;
 import com.atlassian.jira.project.version.Version;
 import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.jira.web.bean.PagerFilter;
 
 /**
  * The data for a board.
  *
  * @author Kabir Khan
  */
-public class Board {
+public class Board implements MultiSelectValueLookup, LinkedIssueLookup {
+    //The maximum number of issue keys in one search for the updated linked issues when reconciling
+    private static final int LINKED_ISSUE_SEARCH_BATCH_SIZE = 500;
+
     //This is incremented every time a change is made to the board
     final int currentView;
 
     private final BoardConfig boardConfig;
 
-    //Map of assignees sorted by their display name
-    private final IndexedMap<String, Assignee> sortedAssignees;
-    private final IndexedMap<String, Component> sortedComponents;
-    private final IndexedMap<String, Label> sortedLabels;
-    private final IndexedMap<String, FixVersion> sortedFixVersions;
-    private final Map<String, Issue> allIssues;
+    //The assignees, components, labels and fix versions, with the ids referenced by the issues
+    private final StableIndexedMap<String, Assignee> assignees;
+    private final StableIndexedMap<String, Component> components;
+    private final StableIndexedMap<String, Label> labels;
+    private final StableIndexedMap<String, FixVersion> fixVersions;
+    private final PersistentHashMap<String, Issue> allIssues;
+    //The link table, with the issues in the linked projects which the board issues link to
+    private final PersistentHashMap<String, LinkedIssue> linkedIssues;
     private final Map<String, BoardProject> projects;
     private final Map<String, SortedCustomFieldValues> sortedCustomFieldValues;
 
     private final Blacklist blacklist;
 
+    //The summaries of the issues are kept in here if set. Shared by all the copies of the board
+    private final OffHeapStringArena summaryArena;
+
     private Board(Board old, BoardConfig boardConfig,
-                    IndexedMap<String, Assignee> sortedAssignees,
-                    IndexedMap<String, Component> sortedComponents,
-                    IndexedMap<String, Label> sortedLabels,
-                    IndexedMap<String, FixVersion> sortedFixVersions,
-                    Map<String, Issue> allIssues,
+                    StableIndexedMap<String, Assignee> assignees,
+                    StableIndexedMap<String, Component> components,
+                    StableIndexedMap<String, Label> labels,
+                    StableIndexedMap<String, FixVersion> fixVersions,
+                    PersistentHashMap<String, Issue> allIssues,
+                    PersistentHashMap<String, LinkedIssue> linkedIssues,
                     Map<String, BoardProject> projects,
                     Map<String, SortedCustomFieldValues> sortedCustomFieldValues,
-                    Blacklist blacklist) {
-        this.currentView = old == null ? 0 : old.currentView + 1;
+                    Blacklist blacklist,
+                    OffHeapStringArena summaryArena) {
+        this(old == null ? 0 : old.currentView + 1, boardConfig, assignees, components, labels,
+                fixVersions, allIssues, linkedIssues, projects, sortedCustomFieldValues, blacklist, summaryArena);
+    }
+
+    private Board(int currentView, BoardConfig boardConfig,
+                    StableIndexedMap<String, Assignee> assignees,
+                    StableIndexedMap<String, Component> components,
+                    StableIndexedMap<String, Label> labels,
+                    StableIndexedMap<String, FixVersion> fixVersions,
+                    PersistentHashMap<String, Issue> allIssues,
+                    PersistentHashMap<String, LinkedIssue> linkedIssues,
+                    Map<String, BoardProject> projects,
+                    Map<String, SortedCustomFieldValues> sortedCustomFieldValues,
+                    Blacklist blacklist,
+                    OffHeapStringArena summaryArena) {
+        this.currentView = currentView;
         this.boardConfig = boardConfig;
 
-        this.sortedAssignees = sortedAssignees;
+        this.assignees = assignees;
 
-        this.sortedComponents = sortedComponents;
-        this.sortedLabels = sortedLabels;
-        this.sortedFixVersions = sortedFixVersions;
+        this.components = components;
+        this.labels = labels;
+        this.fixVersions = fixVersions;
 
         this.allIssues = allIssues;
+        this.linkedIssues = linkedIssues;
         this.projects = projects;
         this.sortedCustomFieldValues = sortedCustomFieldValues;
         this.blacklist = blacklist;
+        this.summaryArena = summaryArena;
     }
 
     public static Builder builder(JiraInjectables jiraInjectables,
                                   ProjectParallelTaskOptionsLoader projectParallelTaskOptionsLoader,
+                                  ProjectIssueSearchCache projectIssueSearchCache,
                                   BoardConfig boardConfig,
                                   ApplicationUser boardOwner) {
-        return new Builder(jiraInjectables, projectParallelTaskOptionsLoader, boardConfig, boardOwner);
+        return new Builder(jiraInjectables, projectParallelTaskOptionsLoader, projectIssueSearchCache, boardConfig, boardOwner);
     }
 
     public Board handleEvent(JiraInjectables jiraInjectables, NextRankedIssueUtil nextRankedIssueUtil, ApplicationUser boardOwner, JirbanIssueEvent event,
@@ -121,26 +161,560 @@ public class Board {
         return boardUpdater.handleEvent(event, nextRankedIssueUtil);
     }
 
+    /**
+     * Searches Jira for the changes made since {@code since}, including the ones which Jira does not raise events for,
+     * such as changes to the linked issues. This is the slow part of reconciling the board, and does not change the
+     * board, so it can run outside the board's event queue. The result is then applied with
+     * {@link #reconcile(JiraInjectables, ApplicationUser, Reconciliation, BoardChangeRegistry)}.
+     *
+     * @param jiraInjectables the jira injectables
+     * @param boardOwner the board owner
+     * @param since the time the board was last brought up to date
+     * @return the search results
+     * @throws SearchException if searching for the changes failed
+     */
+    public Reconciliation searchForReconcile(JiraInjectables jiraInjectables, ApplicationUser boardOwner, Date since)
+            throws SearchException {
+        //Find the board issues linking to issues which were updated. Only the linked issues the board references are
+        //searched for, rather than everything updated in the linked projects
+        final Map<String, Set<String>> linkingIssueKeys = new HashMap<>();
+        final Map<String, List<String>> linkedIssueKeysByProject = new HashMap<>();
+        for (Issue issue : allIssues.values()) {
+            for (String linkedIssueKey : issue.getLinkedIssueKeys()) {
+                final LinkedIssue linkedIssue = linkedIssues.get(linkedIssueKey);
+                if (linkedIssue == null) {
+                    continue;
+                }
+                final Set<String> keys = linkingIssueKeys.get(linkedIssueKey);
+                if (keys == null) {
+                    linkingIssueKeys.put(linkedIssueKey, new HashSet<>(Collections.singleton(issue.getKey())));
+                    linkedIssueKeysByProject.computeIfAbsent(linkedIssue.getProjectCode(), k -> new ArrayList<>()).add(linkedIssueKey);
+                } else {
+                    keys.add(issue.getKey());
+                }
+            }
+        }
+        final Set<String> reloadIssueKeys = new HashSet<>();
+        for (Map.Entry<String, List<String>> entry : linkedIssueKeysByProject.entrySet()) {
+            final List<String> linkedIssueKeys = entry.getValue();
+            for (int i = 0 ; i < linkedIssueKeys.size() ; i += LINKED_ISSUE_SEARCH_BATCH_SIZE) {
+                final List<String> batch =
+                        linkedIssueKeys.subList(i, Math.min(i + LINKED_ISSUE_SEARCH_BATCH_SIZE, linkedIssueKeys.size()));
+                JqlQueryBuilder queryBuilder = JqlQueryBuilder.newBuilder();
+                queryBuilder.where().project(entry.getKey())
+                        .and().issue(batch.toArray(new String[batch.size()]))
+                        .and().updatedAfter(since);
+                SearchResults searchResults = jiraInjectables.getSearchService().search(
+                        boardOwner, queryBuilder.buildQuery(), PagerFilter.getUnlimitedFilter());
+                for (com.atlassian.jira.issue.Issue linkedIssue : searchResults.getIssues()) {
+                    final Set<String> keys = linkingIssueKeys.get(linkedIssue.getKey());
+                    if (keys != null) {
+                        reloadIssueKeys.addAll(keys);
+                    }
+                }
+            }
+        }
+
+        final Map<String, Reconciliation.ProjectChanges> projectChanges = new HashMap<>();
+        for (BoardProjectConfig projectConfig : boardConfig.getBoardProjects()) {
+            projectChanges.put(projectConfig.getCode(),
+                    searchForReconcileProject(jiraInjectables, boardOwner, projectConfig, since, reloadIssueKeys));
+        }
+        return new Reconciliation(this, projectChanges);
+    }
+
+    private Reconciliation.ProjectChanges searchForReconcileProject(JiraInjectables jiraInjectables, ApplicationUser boardOwner,
+                                                                   BoardProjectConfig projectConfig, Date since,
+                                                                   Set<String> reloadIssueKeys) throws SearchException {
+        final BoardProject project = projects.get(projectConfig.getCode());
+
+        //All the issue keys in rank order, and the issues which were updated
+        final List<String> rankedIssueKeys = new ArrayList<>();
+        for (String issueKey : BoardProject.searchIssueKeys(jiraInjectables, projectConfig, boardOwner)) {
+            if (!blacklist.isBlacklisted(issueKey)) {
+                rankedIssueKeys.add(issueKey);
+            }
+        }
+        final Map<String, com.atlassian.jira.issue.Issue> jiraIssues = new HashMap<>();
+        for (com.atlassian.jira.issue.Issue jiraIssue : BoardProject.searchIssues(jiraInjectables, projectConfig, boardOwner, since)) {
+            jiraIssues.put(jiraIssue.getKey(), jiraIssue);
+        }
+        final Set<String> updatedIssueKeys = new HashSet<>(reloadIssueKeys);
+        updatedIssueKeys.addAll(jiraIssues.keySet());
+
+        //Load the other issues which will need reloading, e.g. issues which were only reranked, or link to an updated
+        //issue
+        final Set<String> movedIssueKeys = getRerankedIssueKeys(project.getRankedIssueKeys(), rankedIssueKeys);
+        final List<String> issueKeysToLoad = new ArrayList<>();
+        for (String issueKey : rankedIssueKeys) {
+            if ((!allIssues.containsKey(issueKey) || movedIssueKeys.contains(issueKey) || updatedIssueKeys.contains(issueKey))
+                    && !jiraIssues.containsKey(issueKey)) {
+                issueKeysToLoad.add(issueKey);
+            }
+        }
+        if (issueKeysToLoad.size() > 0) {
+            for (com.atlassian.jira.issue.Issue jiraIssue : BoardProject.searchIssuesWithKeys(jiraInjectables, projectConfig, boardOwner, issueKeysToLoad)) {
+                jiraIssues.put(jiraIssue.getKey(), jiraIssue);
+            }
+        }
+        return new Reconciliation.ProjectChanges(rankedIssueKeys, updatedIssueKeys, jiraIssues);
+    }
+
+    /**
+     * Brings the board up to date with the results of {@link #searchForReconcile(JiraInjectables, ApplicationUser, Date)}.
+     * Rather than loading all the issues again, only the issues which were updated, which link to an updated issue, or
+     * which are no longer ranked in the same order are reloaded. The issues which no longer match the project query are
+     * deleted. All changes go through the board updater, and are registered in the change registry like the ones coming
+     * from events.
+     * <p/>
+     * This board might have handled events since the search was done. Those are newer than the search results, so the
+     * issues changed by them are left alone, as is the ranking of the projects they reranked. The next reconcile will
+     * pick up anything missed.
+     *
+     * @param jiraInjectables the jira injectables
+     * @param boardOwner the board owner
+     * @param reconciliation the results of searching for the changes
+     * @param changeRegistry the change registry of this board
+     * @return the updated board
+     * @throws SearchException if loading one of the issues failed
+     */
+    public Board reconcile(JiraInjectables jiraInjectables, ApplicationUser boardOwner, Reconciliation reconciliation,
+                           BoardChangeRegistry changeRegistry) throws SearchException {
+        Board board = this;
+        for (Map.Entry<String, Reconciliation.ProjectChanges> entry : reconciliation.projectChanges.entrySet()) {
+            board = board.reconcileProject(jiraInjectables, boardOwner, entry.getKey(), reconciliation.searched,
+                    entry.getValue(), changeRegistry);
+        }
+        return board;
+    }
+
+    private Board reconcileProject(JiraInjectables jiraInjectables, ApplicationUser boardOwner, String projectCode,
+                                   Board searched, Reconciliation.ProjectChanges changes,
+                                   BoardChangeRegistry changeRegistry) throws SearchException {
+        final BoardProject project = projects.get(projectCode);
+        final List<String> rankedIssueKeys = changes.rankedIssueKeys;
+        final Map<String, Integer> rankIndices = new HashMap<>();
+        for (int i = 0 ; i < rankedIssueKeys.size() ; i++) {
+            rankIndices.put(rankedIssueKeys.get(i), i);
+        }
+
+        Board board = this;
+        for (String issueKey : project.getRankedIssueKeys()) {
+            if (!rankIndices.containsKey(issueKey) && isUnchangedSince(searched, issueKey)) {
+                //The issue was deleted or moved to a done state
+                board = board.handleEvent(jiraInjectables, null, boardOwner,
+                        JirbanIssueEvent.createDeleteEvent(issueKey, projectCode), changeRegistry);
+            }
+        }
+
+        //Events might have reranked the project since the search, in which case their order is the newer one
+        final Set<String> movedIssueKeys =
+                project.getRankedIssueKeys() == searched.projects.get(projectCode).getRankedIssueKeys() ?
+                        getRerankedIssueKeys(project.getRankedIssueKeys(), rankedIssueKeys) :
+                        Collections.emptySet();
+        //The issues on the board which are in the right order relative to each other
+        final Set<String> placedIssueKeys = new HashSet<>();
+        final List<String> issueKeysToReload = new ArrayList<>();
+        for (String issueKey : rankedIssueKeys) {
+            final boolean onBoard = allIssues.containsKey(issueKey);
+            if (onBoard && !movedIssueKeys.contains(issueKey)) {
+                placedIssueKeys.add(issueKey);
+            }
+            if ((!onBoard || movedIssueKeys.contains(issueKey) || changes.updatedIssueKeys.contains(issueKey))
+                    && isUnchangedSince(searched, issueKey)) {
+                issueKeysToReload.add(issueKey);
+            }
+        }
+        JirbanLogger.LOGGER.debug("Board.reconcileProject - Reloading {} issues in project {}", issueKeysToReload.size(), projectCode);
+
+        //Rank the reloaded issues in front of the next issue which is already in place
+        final NextRankedIssueUtil nextRankedIssueUtil = new NextRankedIssueUtil() {
+            @Override
+            public String findNextRankedIssue(BoardProjectConfig projectConfig, ApplicationUser boardOwner, String issueKey) {
+                final Integer index = rankIndices.get(issueKey);
+                if (index != null) {
+                    for (int i = index + 1 ; i < rankedIssueKeys.size() ; i++) {
+                        if (placedIssueKeys.contains(rankedIssueKeys.get(i))) {
+                            return rankedIssueKeys.get(i);
+                        }
+                    }
+                }
+                return null;
+            }
+        };
+        //Go backwards so that the issues following the one being reloaded are in place when it gets ranked
+        for (int i = issueKeysToReload.size() - 1 ; i >= 0 ; i--) {
+            final com.atlassian.jira.issue.Issue jiraIssue = changes.jiraIssues.get(issueKeysToReload.get(i));
+            if (jiraIssue == null) {
+                //It no longer belongs on the board, which the next reconcile will pick up
+                continue;
+            }
+            final Updater boardUpdater = new Updater(jiraInjectables, board, boardOwner, changeRegistry);
+            final Board newBoard = boardUpdater.handleReloadedIssue(jiraIssue, nextRankedIssueUtil);
+            if (newBoard != null) {
+                board = newBoard;
+            }
+            if (board.allIssues.containsKey(jiraIssue.getKey())) {
+                placedIssueKeys.add(jiraIssue.getKey());
+            }
+        }
+        return board;
+    }
+
+    //Whether an issue is the same as when the reconcile searches were done, i.e. no event has changed it since
+    private boolean isUnchangedSince(Board searched, String issueKey) {
+        return allIssues.get(issueKey) == searched.allIssues.get(issueKey);
+    }
+
+    /**
+     * Reloads a single issue from Jira, and ranks it again. This is used to heal the board when handling an event
+     * for the issue failed, e.g. because the board had missed an earlier event for it, and can also be triggered by
+     * an administrator. The differences are registered as a normal change for the clients.
+     *
+     * @param jiraInjectables the jira injectables
+     * @param boardOwner the board owner
+     * @param nextRankedIssueUtil the utility to find the ranking of the issue
+     * @param issueKey the issue key
+     * @param changeRegistry the change registry of this board
+     * @return the updated board, or {@code null} if nothing changed
+     * @throws SearchException if searching for the issue failed
+     */
+    public Board reloadIssue(JiraInjectables jiraInjectables, ApplicationUser boardOwner,
+                             NextRankedIssueUtil nextRankedIssueUtil, String issueKey,
+                             BoardChangeRegistry changeRegistry) throws SearchException {
+        final String projectCode = getProjectCode(issueKey);
+        final BoardProject project = projects.get(projectCode);
+        if (project == null) {
+            throw new JirbanValidationException("Issue " + issueKey + " does not belong to a project of board " + boardConfig.getCode());
+        }
+        final com.atlassian.jira.issue.Issue jiraIssue = BoardProject.findSingleIssue(jiraInjectables, boardOwner, issueKey);
+        if (jiraIssue == null || project.isDoneState(jiraIssue.getStatusObject().getName())) {
+            JirbanLogger.LOGGER.debug("Board.reloadIssue - {} does not belong on the board", issueKey);
+            if (allIssues.containsKey(issueKey) || blacklist.isBlacklisted(issueKey)) {
+                return handleEvent(jiraInjectables, nextRankedIssueUtil, boardOwner,
+                        JirbanIssueEvent.createDeleteEvent(issueKey, projectCode), changeRegistry);
+            }
+            return null;
+        }
+        final Updater boardUpdater = new Updater(jiraInjectables, this, boardOwner, changeRegistry);
+        return boardUpdater.handleReloadedIssue(jiraIssue, nextRankedIssueUtil);
+    }
+
+    private static String getProjectCode(String issueKey) {
+        final int index = issueKey == null ? -1 : issueKey.indexOf('-');
+        if (index <= 0 || index == issueKey.length() - 1) {
+            throw new JirbanValidationException("Bad issue key " + issueKey);
+        }
+        return issueKey.substring(0, index);
+    }
+
+    /**
+     * Reloads a set of issues in one go, rather than handling the events for them one by one. This is used for bursts
+     * of events, e.g. from a bulk edit or bulk transition, where handling each event would copy the board and search
+     * for the issue's rank once per issue. Instead, we search for the affected issues in one go, and for the rank
+     * order of the keys of each affected project once, and load the affected issues in a single board update. The
+     * differences are then registered as changes for the clients.
+     *
+     * @param jiraInjectables the jira injectables
+     * @param boardOwner the board owner
+     * @param issueKeys the keys of the issues to reload
+     * @param changeRegistry the change registry of this board
+     * @return the updated board
+     * @throws SearchException if searching for the issues failed
+     */
+    public Board reloadIssues(JiraInjectables jiraInjectables, ApplicationUser boardOwner, Set<String> issueKeys,
+                              BoardChangeRegistry changeRegistry) throws SearchException {
+        final Map<String, Set<String>> projectIssueKeys = new HashMap<>();
+        for (String issueKey : issueKeys) {
+            projectIssueKeys.computeIfAbsent(getProjectCode(issueKey), k -> new HashSet<>()).add(issueKey);
+        }
+        final Map<String, List<com.atlassian.jira.issue.Issue>> projectIssues = new HashMap<>();
+        final Map<String, List<String>> projectRankedIssueKeys = new HashMap<>();
+        for (BoardProjectConfig projectConfig : boardConfig.getBoardProjects()) {
+            final Set<String> keys = projectIssueKeys.get(projectConfig.getCode());
+            if (keys != null) {
+                projectIssues.put(projectConfig.getCode(),
+                        BoardProject.searchIssuesWithKeys(jiraInjectables, projectConfig, boardOwner, keys));
+                projectRankedIssueKeys.put(projectConfig.getCode(),
+                        BoardProject.searchIssueKeys(jiraInjectables, projectConfig, boardOwner));
+            }
+        }
+        projectIssueKeys.keySet().retainAll(projectIssues.keySet());
+        JirbanLogger.LOGGER.debug("Board.reloadIssues - Reloading {} issues in projects {}", issueKeys.size(), projectIssues.keySet());
+
+        final Updater boardUpdater = new Updater(jiraInjectables, this, boardOwner, changeRegistry);
+        final Board reloaded = boardUpdater.handleReloadedIssues(projectIssueKeys, projectIssues, projectRankedIssueKeys);
+        final Board board = registerReloadedChanges(reloaded, changeRegistry, projectIssueKeys);
+        if (board == null) {
+            //The change sets have no way of expressing the changes, so make the clients do a full refresh
+            final Board refreshed = reloaded.copyWithView(currentView + 1);
+            changeRegistry.requireFullRefresh(refreshed.currentView);
+            return refreshed;
+        }
+        return board;
+    }
+
+    /**
+     * Registers the differences between this board and a fully reloaded copy of it as changes in this board's change
+     * registry, so that polling clients can apply them like any other set of changes instead of doing a full refresh.
+     * All the changes are registered with the view following this board's view.
+     *
+     * @param reloaded the reloaded board
+     * @param changeRegistry the change registry of this board
+     * @return the reloaded board with its view continuing from this board's view, or {@code null} if the differences
+     *          cannot be expressed as changes (i.e. the linked issues or the blacklist are different) so that the clients
+     *          need a full refresh
+     */
+    public Board registerReloadedChanges(Board reloaded, BoardChangeRegistry changeRegistry) {
+        return registerReloadedChanges(reloaded, changeRegistry, null);
+    }
+
+    //If projectIssueKeys is set only those issues were reloaded, so only they and the ranking of their projects can
+    //have changed. This saves going through the whole board for each batch of events
+    private Board registerReloadedChanges(Board reloaded, BoardChangeRegistry changeRegistry,
+                                          Map<String, Set<String>> projectIssueKeys) {
+        if (!projects.keySet().equals(reloaded.projects.keySet()) || !blacklist.hasSameEntries(reloaded.blacklist)) {
+            return null;
+        }
+
+        final List<Issue> createdIssues = new ArrayList<>();
+        final Map<String, Issue> updatedIssues = new LinkedHashMap<>();
+        final List<Issue> deletedIssues = new ArrayList<>();
+        if (projectIssueKeys == null) {
+            for (Issue issue : reloaded.allIssues.values()) {
+                if (!diffReloadedIssue(allIssues.get(issue.getKey()), issue, reloaded, createdIssues, updatedIssues)) {
+                    return null;
+                }
+            }
+            for (Issue issue : allIssues.values()) {
+                if (!reloaded.allIssues.containsKey(issue.getKey())) {
+                    deletedIssues.add(issue);
+                }
+            }
+        } else {
+            for (Set<String> issueKeys : projectIssueKeys.values()) {
+                for (String issueKey : issueKeys) {
+                    final Issue issue = reloaded.allIssues.get(issueKey);
+                    if (issue != null && !diffReloadedIssue(allIssues.get(issueKey), issue, reloaded, createdIssues, updatedIssues)) {
+                        return null;
+                    }
+                }
+            }
+            //Taking the whole ranking from the search can remove issues other than the reloaded ones
+            for (String projectCode : projectIssueKeys.keySet()) {
+                for (String issueKey : projects.get(projectCode).getRankedIssueKeys()) {
+                    if (!reloaded.allIssues.containsKey(issueKey)) {
+                        deletedIssues.add(allIssues.get(issueKey));
+                    }
+                }
+            }
+        }
+        final Set<String> rerankedIssues = new HashSet<>();
+        for (String projectCode : projectIssueKeys == null ? projects.keySet() : projectIssueKeys.keySet()) {
+            rerankedIssues.addAll(getRerankedIssueKeys(
+                    projects.get(projectCode).getRankedIssueKeys(),
+                    reloaded.projects.get(projectCode).getRankedIssueKeys()));
+        }
+        rerankedIssues.forEach(key -> updatedIssues.putIfAbsent(key, reloaded.allIssues.get(key)));
+
+        if (createdIssues.isEmpty() && updatedIssues.isEmpty() && deletedIssues.isEmpty()) {
+            return reloaded.copyWithView(currentView);
+        }
+
+        final int view = currentView + 1;
+        for (Issue issue : deletedIssues) {
+            changeRegistry.addChange(view, JirbanIssueEvent.createDeleteEvent(issue.getKey(), issue.getProjectCode()))
+                    .buildAndRegister();
+        }
+        //The new assignees, components etc. only need to be sent once
+        final Set<String> newAssigneeKeys = new HashSet<>();
+        final Set<String> newComponentNames = new HashSet<>();
+        final Set<String> newLabelNames = new HashSet<>();
+        final Set<String> newFixVersionNames = new HashSet<>();
+        final Set<String> newCustomFieldValueKeys = new HashSet<>();
+        final List<Issue> changedIssues = new ArrayList<>(createdIssues);
+        changedIssues.addAll(updatedIssues.values());
+        for (Issue issue : changedIssues) {
+            final Issue existing = allIssues.get(issue.getKey());
+            final BoardProject project = projects.get(issue.getProjectCode());
+            final JirbanIssueEvent event = existing == null ?
+                    JirbanIssueEvent.createCreateEvent(issue.getKey(), issue.getProjectCode(), null, null, null,
+                            null, null, null, null, null, null) :
+                    JirbanIssueEvent.createUpdateEvent(issue.getKey(), issue.getProjectCode(), null, null, null,
+                            null, null, null, null, null, null, rerankedIssues.contains(issue.getKey()), null);
+
+            final BoardChange.Builder changeBuilder = changeRegistry.addChange(view, event);
+            final Assignee assignee = issue.getAssignee();
+            if (assignee != null && assignees.get(assignee.getKey()) == null && newAssigneeKeys.add(assignee.getKey())) {
+                changeBuilder.addNewAssignee(assignee);
+            }
+            final Set<Component> newComponents = getNewValues(issue.getComponents(reloaded), components, newComponentNames);
+            if (newComponents.size() > 0) {
+                changeBuilder.addNewComponents(newComponents);
+            }
+            final Set<Label> newLabels = getNewValues(issue.getLabels(reloaded), labels, newLabelNames);
+            if (newLabels.size() > 0) {
+                changeBuilder.addNewLabels(newLabels);
+            }
+            final Set<FixVersion> newFixVersions = getNewValues(issue.getFixVersions(reloaded), fixVersions, newFixVersionNames);
+            if (newFixVersions.size() > 0) {
+                changeBuilder.addNewFixVersions(newFixVersions);
+            }
+            final Map<String, CustomFieldValue> newCustomFieldValues = new HashMap<>();
+            for (CustomFieldValue value : issue.getCustomFieldValues()) {
+                final SortedCustomFieldValues existingForField = sortedCustomFieldValues.get(value.getCustomFieldName());
+                if ((existingForField == null || existingForField.getCustomFieldValue(value.getKey()) == null) &&
+                        newCustomFieldValueKeys.add(value.getCustomFieldName() + ":" + value.getKey())) {
+                    newCustomFieldValues.put(value.getCustomFieldName(), value);
+                }
+            }
+            if (newCustomFieldValues.size() > 0) {
+                changeBuilder.addNewCustomFieldValues(newCustomFieldValues);
+            }
+
+            if (existing != null) {
+                changeBuilder.setFromBacklogState(existing.isInBacklogState());
+            }
+            changeBuilder.setBacklogState(issue.isInBacklogState());
+            changeBuilder.setReloadedIssue(issue.convertToReloadedIssueChange(changeRegistry, boardConfig, existing, reloaded));
+            changeBuilder.buildAndRegister();
+        }
+        return reloaded.copyWithView(view);
+    }
+
+    //Returns false if the linked issues changed, since the changes sent to the clients have no way of updating them
+    private boolean diffReloadedIssue(Issue existing, Issue issue, Board reloaded,
+                                      List<Issue> createdIssues, Map<String, Issue> updatedIssues) {
+        if (existing == null) {
+            createdIssues.add(issue);
+        } else if (existing == issue) {
+            //The issue was not reloaded
+            return true;
+        } else if (!existing.hasSameLinkedIssues(issue, this, reloaded)) {
+            return false;
+        } else if (!existing.hasSameData(issue, this, reloaded)) {
+            updatedIssues.put(issue.getKey(), issue);
+        }
+        return true;
+    }
+
+    /**
+     * Copies the board with a different view, e.g. to replace a board whose view has moved on since this board was
+     * loaded.
+     *
+     * @param view the view of the copy
+     * @return the copy
+     */
+    public Board copyWithView(int view) {
+        return new Board(view, boardConfig, assignees, components, labels, fixVersions,
+                allIssues, linkedIssues, projects, sortedCustomFieldValues, blacklist, summaryArena);
+    }
+
+    private static <T extends MultiSelectNameOnlyValue> Set<T> getNewValues(Set<T> values, StableIndexedMap<String, T> existing,
+                                                                            Set<String> alreadyAdded) {
+        final Set<T> newValues = new HashSet<>();
+        if (values != null) {
+            for (T value : values) {
+                if (existing.get(value.getName()) == null && alreadyAdded.add(value.getName())) {
+                    newValues.add(value);
+                }
+            }
+        }
+        return newValues;
+    }
+
+    private static Set<String> getRerankedIssueKeys(List<String> rankedIssueKeys, List<String> reloadedRankedIssueKeys) {
+        final Map<String, Integer> originalIndices = new HashMap<>();
+        for (int i = 0 ; i < rankedIssueKeys.size() ; i++) {
+            originalIndices.put(rankedIssueKeys.get(i), i);
+        }
+        //The original indices of the issues which are on both boards, in the reloaded order
+        final List<String> keys = new ArrayList<>();
+        final List<Integer> indices = new ArrayList<>();
+        for (String key : reloadedRankedIssueKeys) {
+            final Integer index = originalIndices.get(key);
+            if (index != null) {
+                keys.add(key);
+                indices.add(index);
+            }
+        }
+
+        //The issues in the longest increasing run of original indices kept their relative order, so only the
+        //others need to be reranked on the clients
+        final int size = keys.size();
+        final int[] tails = new int[size];
+        final int[] previous = new int[size];
+        int length = 0;
+        for (int i = 0 ; i < size ; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (indices.get(tails[mid]) < indices.get(i)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        final boolean[] inOrder = new boolean[size];
+        for (int i = length > 0 ? tails[length - 1] : -1 ; i >= 0 ; i = previous[i]) {
+            inOrder[i] = true;
+        }
+        final Set<String> reranked = new HashSet<>();
+        for (int i = 0 ; i < size ; i++) {
+            if (!inOrder[i]) {
+                reranked.add(keys.get(i));
+            }
+        }
+        return reranked;
+    }
+
     public ModelNode serialize(JiraInjectables jiraInjectables, boolean backlog, ApplicationUser user) {
+        return serialize(jiraInjectables, backlog, user, false);
+    }
+
+    /**
+     * Serializes the board.
+     *
+     * @param jiraInjectables the jira injectables
+     * @param backlog whether to include the issues in the backlog
+     * @param user the user
+     * @param lazyLinkedIssues if {@code true} the linked issues are left out, and the clients get them from
+     *                         {@link #serializeLinkedIssues(boolean, Collection)} when needed
+     * @return the serialized board
+     */
+    public ModelNode serialize(JiraInjectables jiraInjectables, boolean backlog, ApplicationUser user, boolean lazyLinkedIssues) {
         ModelNode outputNode = new ModelNode();
         //Sort the assignees by name
         outputNode.get(VIEW).set(currentView);
 
+        //The values are serialized in id order, which is what the issues reference. The display order is sent
+        //separately, as the ids in the order they should be shown
         ModelNode assigneesNode = outputNode.get(ASSIGNEES);
         assigneesNode.setEmptyList();
-        sortedAssignees.values().forEach(assignee -> assignee.serialize(assigneesNode));
+        assignees.values().forEach(assignee -> assignee.serialize(assigneesNode));
+        serializeSortOrder(outputNode, ASSIGNEES, assignees);
 
-        if (sortedComponents.size() > 0) {
+        if (components.size() > 0) {
             ModelNode componentsNode = outputNode.get(COMPONENTS);
-            sortedComponents.values().forEach(component -> component.serialize(componentsNode));
+            components.values().forEach(component -> component.serialize(componentsNode));
+            serializeSortOrder(outputNode, COMPONENTS, components);
         }
-        if (sortedLabels.size() > 0) {
+        if (labels.size() > 0) {
             ModelNode labelsNode = outputNode.get(LABELS);
-            sortedLabels.values().forEach(label -> label.serialize(labelsNode));
+            labels.values().forEach(label -> label.serialize(labelsNode));
+            serializeSortOrder(outputNode, LABELS, labels);
         }
-        if (sortedFixVersions.size() > 0) {
+        if (fixVersions.size() > 0) {
             ModelNode fixVersionsNode = outputNode.get(FIX_VERSIONS);
-            sortedFixVersions.values().forEach(fixVersion -> fixVersion.serialize(fixVersionsNode));
+            fixVersions.values().forEach(fixVersion -> fixVersion.serialize(fixVersionsNode));
+            serializeSortOrder(outputNode, FIX_VERSIONS, fixVersions);
         }
         if (sortedCustomFieldValues.size() > 0) {
             ModelNode customNode = outputNode.get(CUSTOM);
@@ -150,15 +724,16 @@ public class Board {
         boardConfig.serializeModelNodeForBoard(outputNode);
 
         ModelNode allIssues = outputNode.get(ISSUES);
-        this.allIssues.forEach((code, issue) -> {
-            boolean relevant = true;
-            if (!backlog) {
-                relevant = !getBoardProject(issue.getProjectCode()).isBacklogState(issue.getState());
-            }
-            if (relevant) {
-                allIssues.get(code).set(issue.getModelNodeForFullRefresh(this));
+        for (Issue issue : getIssues(backlog)) {
+            final ModelNode issueNode = issue.getModelNodeForFullRefresh(this);
+            if (!lazyLinkedIssues) {
+                issue.serializeLinkedIssues(issueNode, this);
             }
-        });
+            allIssues.get(issue.getKey()).set(issueNode);
+        }
+        if (lazyLinkedIssues) {
+            outputNode.get(LAZY_LINKED_ISSUES).set(true);
+        }
 
         ModelNode mainProjectsParent = outputNode.get(PROJECTS, MAIN);
 
@@ -173,6 +748,55 @@ public class Board {
         return outputNode;
     }
 
+    /**
+     * Serializes the linked issues of some of the board's issues, for clients which got the board without them.
+     *
+     * @param backlog whether to include the issues in the backlog when {@code issueKeys} is empty
+     * @param issueKeys the keys of the issues to get the linked issues for. If empty, all the issues are included
+     * @return the serialized linked issues
+     */
+    public ModelNode serializeLinkedIssues(boolean backlog, Collection<String> issueKeys) {
+        ModelNode outputNode = new ModelNode();
+        outputNode.get(VIEW).set(currentView);
+        ModelNode issuesNode = outputNode.get(ISSUES).setEmptyObject();
+        final Iterable<Issue> issues;
+        if (issueKeys.isEmpty()) {
+            issues = getIssues(backlog);
+        } else {
+            final List<Issue> requested = new ArrayList<>();
+            for (String issueKey : issueKeys) {
+                final Issue issue = allIssues.get(issueKey);
+                if (issue != null) {
+                    requested.add(issue);
+                }
+            }
+            issues = requested;
+        }
+        for (Issue issue : issues) {
+            if (issue.hasLinkedIssues()) {
+                issue.serializeLinkedIssues(issuesNode.get(issue.getKey()), this);
+            }
+        }
+        return outputNode;
+    }
+
+    private Iterable<Issue> getIssues(boolean backlog) {
+        if (backlog) {
+            return allIssues.values();
+        }
+        //Only go through the issues in the states which are not in the backlog. The issues get keyed by issue key
+        //when serialized, so there is no need to merge the states back into rank order
+        final List<Issue> issues = new ArrayList<>();
+        for (BoardProject project : projects.values()) {
+            for (RankedSequence<String> issueKeys : project.getNonBacklogIssueKeys()) {
+                for (String issueKey : issueKeys) {
+                    issues.add(allIssues.get(issueKey));
+                }
+            }
+        }
+        return issues;
+    }
+
     public Issue getIssue(String key) {
         return allIssues.get(key);
     }
@@ -189,28 +813,32 @@ public class Board {
         return projects.get(code);
     }
 
-    public int getAssigneeIndex(Assignee assignee) {
-        return sortedAssignees.getIndex(assignee.getKey());
+    public int getAssigneeId(Assignee assignee) {
+        return assignees.getId(assignee.getKey());
     }
 
-    public int getComponentIndex(Component component) {
-        return sortedComponents.getIndex(component.getName());
+    @Override
+    public Component getComponent(int id) {
+        return components.forId(id);
     }
 
-    public int getLabelIndex(Label label) {
-        return sortedLabels.getIndex(label.getName());
+    @Override
+    public Label getLabel(int id) {
+        return labels.forId(id);
     }
 
-    public int getFixVersionIndex(FixVersion fixVersion) {
-        return sortedFixVersions.getIndex(fixVersion.getName());
+    @Override
+    public FixVersion getFixVersion(int id) {
+        return fixVersions.forId(id);
     }
 
-    public int getCustomFieldIndex(CustomFieldValue customFieldValue) {
-        return sortedCustomFieldValues.get(customFieldValue.getCustomFieldName()).getCustomFieldIndex(customFieldValue);
+    @Override
+    public LinkedIssue getLinkedIssue(String issueKey) {
+        return linkedIssues.get(issueKey);
     }
 
-    private void updateBoardInProjects() {
-        projects.values().forEach(project -> project.setBoard(this));
+    public int getCustomFieldIndex(CustomFieldValue customFieldValue) {
+        return sortedCustomFieldValues.get(customFieldValue.getCustomFieldName()).getCustomFieldIndex(customFieldValue);
     }
 
     private static Assignee createAssignee(JiraInjectables jiraInjectables, ApplicationUser boardOwner, ApplicationUser assigneeUser) {
@@ -225,16 +853,7 @@ public class Board {
 
     BoardChangeRegistry.IssueChange createCreateIssueChange(BoardChangeRegistry registry, String issueKey) {
         Issue issue = allIssues.get(issueKey);
-        return issue.convertToCreateIssueChange(registry, getConfig());
-    }
-
-    public boolean isBacklogIssue(BoardProjectConfig projectConfig, String issueKey) {
-        Issue issue = allIssues.get(issueKey);
-        int boardIndex = projectConfig.mapOwnStateOntoBoardStateIndex(issue.getState());
-        if (boardConfig.isBacklogState(boardIndex)) {
-            return true;
-        }
-        return false;
+        return issue.convertToCreateIssueChange(registry, getConfig(), this);
     }
 
     static abstract class Accessor {
@@ -249,18 +868,20 @@ public class Board {
             this.boardOwner = boardOwner;
         }
 
-        Integer getIssueTypeIndexRecordingMissing(String issueKey, String issueTypeName) {
+        int getIssueTypeIndexRecordingMissing(String issueKey, String issueTypeName) {
             final Integer issueTypeIndex = boardConfig.getIssueTypeIndex(issueTypeName);
             if (issueTypeIndex == null) {
                 getBlacklist().addMissingIssueType(issueKey, issueTypeName);
+                return -1;
             }
             return issueTypeIndex;
         }
 
-        Integer getPriorityIndexRecordingMissing(String issueKey, String priorityName) {
+        int getPriorityIndexRecordingMissing(String issueKey, String priorityName) {
             final Integer priorityIndex = boardConfig.getPriorityIndex(priorityName);
             if (priorityIndex == null) {
                 getBlacklist().addMissingPriority(issueKey, priorityName);
+                return -1;
             }
             return priorityIndex;
         }
@@ -287,15 +908,38 @@ public class Board {
         abstract Issue getIssue(String issueKey);
         abstract Blacklist.Accessor getBlacklist();
 
+        /**
+         * Gets the arena to keep the issue summaries in
+         *
+         * @return the arena, or {@code null} to keep them on the heap
+         */
+        abstract OffHeapStringArena getSummaryArena();
+
+        /**
+         * Gets a linked issue which has already been loaded by this builder or updater
+         *
+         * @param issueKey the key of the linked issue
+         * @return the linked issue, or {@code null} if it needs loading
+         */
+        abstract LinkedIssue getLoadedLinkedIssue(String issueKey);
+
+        abstract void addLinkedIssue(LinkedIssue linkedIssue);
+
         abstract CustomFieldValue getCustomFieldValue(CustomFieldConfig customField, Object fieldValue);
 
         abstract CustomFieldValue getCustomFieldValue(CustomFieldConfig customField, String key);
 
-        abstract Set<Component> getComponents(Collection<ProjectComponent> componentObjects);
+        /**
+         * Gets the ids of an issue's components, adding the ones which are new to the board
+         *
+         * @param componentObjects the issue's components
+         * @return the sorted ids, or {@code null} if the issue has no components
+         */
+        abstract int[] getComponentIds(Collection<ProjectComponent> componentObjects);
 
-        abstract Set<Label> getLabels(Set<com.atlassian.jira.issue.label.Label> labels);
+        abstract int[] getLabelIds(Set<com.atlassian.jira.issue.label.Label> labels);
 
-        abstract Set<FixVersion> getFixVersions(Collection<Version> fixVersions);
+        abstract int[] getFixVersionIds(Collection<Version> fixVersions);
 
         public List<String> getStateNames() {
             return boardConfig.getStateNames();
@@ -309,52 +953,108 @@ public class Board {
 
     }
 
-    private static Map<String, Assignee> sortAssignees(Map<String, Assignee> assignees) {
-        return sortMapValues(
-                assignees,
-                Assignee::getDisplayName,
-                Assignee::getKey);
+    private static StableIndexedMap<String, Assignee> indexAssignees(Map<String, Assignee> assignees) {
+        return StableIndexedMap.create(assignees, Comparator.comparing(Assignee::getDisplayName, String.CASE_INSENSITIVE_ORDER));
     }
 
-    private static <T extends MultiSelectNameOnlyValue> Map<String, T> sortMultiSelectNameOnlyValueMap(Map<String, T> values) {
-        return sortMapValues(values, MultiSelectNameOnlyValue::getName, MultiSelectNameOnlyValue::getName);
+    private static <T extends MultiSelectNameOnlyValue> StableIndexedMap<String, T> emptyMultiSelectNameOnlyValues() {
+        return StableIndexedMap.empty(Comparator.comparing(MultiSelectNameOnlyValue::getName, String.CASE_INSENSITIVE_ORDER));
     }
 
-    private static <T> Map<String, T> sortMapValues(Map<String, T> unsorted, Function<T, String> displayNameExtractor, Function<T, String> keyExtractor) {
-        List<T> values = new ArrayList<T>(unsorted.values());
-        Comparator<T> comparator = Comparator.comparing(displayNameExtractor, String.CASE_INSENSITIVE_ORDER);
-        Collections.sort(values, comparator);
-        LinkedHashMap<String, T> result = new LinkedHashMap<>();
-        values.forEach(value -> result.put(keyExtractor.apply(value), value));
-        return result;
+    private static final int[] NO_IDS = new int[0];
+
+    private static int[] toSortedIds(Collection<Integer> ids) {
+        final int[] sorted = new int[ids.size()];
+        int i = 0;
+        for (int id : ids) {
+            sorted[i++] = id;
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static void serializeSortOrder(ModelNode parent, String name, StableIndexedMap<String, ?> values) {
+        final ModelNode sortOrderNode = parent.get(SORT_ORDER, name);
+        sortOrderNode.setEmptyList();
+        for (int id : values.getSortOrder()) {
+            sortOrderNode.add(id);
+        }
     }
 
     /**
      * Used to create a new board
      */
+    /**
+     * The results of searching Jira for the changes to reconcile a board with.
+     */
+    public static class Reconciliation {
+        //The board the searches were done for
+        private final Board searched;
+        private final Map<String, ProjectChanges> projectChanges;
+
+        private Reconciliation(Board searched, Map<String, ProjectChanges> projectChanges) {
+            this.searched = searched;
+            this.projectChanges = projectChanges;
+        }
+
+        private static class ProjectChanges {
+            //The keys of the issues which belong on the board in rank order
+            private final List<String> rankedIssueKeys;
+            //The keys of the issues which were updated, or link to an updated issue
+            private final Set<String> updatedIssueKeys;
+            //The issues which might need reloading
+            private final Map<String, com.atlassian.jira.issue.Issue> jiraIssues;
+
+            private ProjectChanges(List<String> rankedIssueKeys, Set<String> updatedIssueKeys,
+                                   Map<String, com.atlassian.jira.issue.Issue> jiraIssues) {
+                this.rankedIssueKeys = rankedIssueKeys;
+                this.updatedIssueKeys = updatedIssueKeys;
+                this.jiraIssues = jiraIssues;
+            }
+        }
+    }
+
     public static class Builder extends Accessor {
         private final ProjectParallelTaskOptionsLoader projectParallelTaskOptionsLoader;
+        private final ProjectIssueSearchCache projectIssueSearchCache;
         private final Map<String, Assignee> assignees = new HashMap<>();
-        private final Map<String, Component> components = new HashMap<>();
-        private final Map<String, Label> labels = new HashMap<>();
-        private final Map<String, FixVersion> fixVersions = new HashMap<>();
+        //The ids are handed out as the values are found in the issues
+        private StableIndexedMap<String, Component> components = emptyMultiSelectNameOnlyValues();
+        private StableIndexedMap<String, Label> labels = emptyMultiSelectNameOnlyValues();
+        private StableIndexedMap<String, FixVersion> fixVersions = emptyMultiSelectNameOnlyValues();
         private final Map<String, Issue> allIssues = new HashMap<>();
+        private final Map<String, LinkedIssue> linkedIssues = new HashMap<>();
         private final Map<String, BoardProject.Builder> projects = new HashMap<>();
         private final Blacklist.Builder blacklist = new Blacklist.Builder();
         private final Map<Long, SortedCustomFieldValues.Builder> customFieldBuilders = new HashMap();
+        private OffHeapStringArena summaryArena;
 
         public Builder(JiraInjectables jiraInjectables,
                        ProjectParallelTaskOptionsLoader projectParallelTaskOptionsLoader,
+                       ProjectIssueSearchCache projectIssueSearchCache,
                        BoardConfig boardConfig, ApplicationUser boardOwner) {
             super(jiraInjectables, boardConfig, boardOwner);
             this.projectParallelTaskOptionsLoader = projectParallelTaskOptionsLoader;
+            this.projectIssueSearchCache = projectIssueSearchCache;
+        }
+
+        /**
+         * Whether to keep the summaries of the issues off-heap, for very large boards. Must be called before
+         * {@link #load()}.
+         *
+         * @param offHeapSummaries {@code true} to keep the summaries off-heap
+         * @return this builder
+         */
+        public Builder setOffHeapSummaries(boolean offHeapSummaries) {
+            summaryArena = offHeapSummaries ? new OffHeapStringArena() : null;
+            return this;
         }
 
         public Builder load() throws SearchException {
             for (BoardProjectConfig boardProjectConfig : boardConfig.getBoardProjects()) {
                 BoardProjectConfig project = boardConfig.getBoardProject(boardProjectConfig.getCode());
                 BoardProject.Builder projectBuilder = BoardProject.builder(jiraInjectables, projectParallelTaskOptionsLoader, this, project, boardOwner);
-                projectBuilder.load();
+                projectBuilder.load(projectIssueSearchCache);
                 projects.put(projectBuilder.getCode(), projectBuilder);
             }
             return this;
@@ -382,46 +1082,54 @@ public class Board {
         }
 
         @Override
-        Set<Component> getComponents(Collection<ProjectComponent> componentObjects) {
-            return getIssueMultiSelectNameValues(components, componentObjects,
+        int[] getComponentIds(Collection<ProjectComponent> componentObjects) {
+            return getIssueMultiSelectNameValueIds(componentObjects,
                     projectComponent -> projectComponent.getName(),
-                    name -> new Component(name));
+                    name -> new Component(name),
+                    () -> components,
+                    map -> components = map);
         }
 
         @Override
-        Set<Label> getLabels(Set<com.atlassian.jira.issue.label.Label> jiraLabels) {
-            return getIssueMultiSelectNameValues(labels, jiraLabels,
+        int[] getLabelIds(Set<com.atlassian.jira.issue.label.Label> jiraLabels) {
+            return getIssueMultiSelectNameValueIds(jiraLabels,
                     jiraLabel -> jiraLabel.getLabel(),
-                    name -> new Label(name));
+                    name -> new Label(name),
+                    () -> labels,
+                    map -> labels = map);
         }
 
         @Override
-        Set<FixVersion> getFixVersions(Collection<Version> jiraFixVersions) {
-            return getIssueMultiSelectNameValues(fixVersions, jiraFixVersions,
+        int[] getFixVersionIds(Collection<Version> jiraFixVersions) {
+            return getIssueMultiSelectNameValueIds(jiraFixVersions,
                     jiraFixVersion -> jiraFixVersion.getName(),
-                    name -> new FixVersion(name));
+                    name -> new FixVersion(name),
+                    () -> fixVersions,
+                    map -> fixVersions = map);
         }
 
-        private <T, R extends MultiSelectNameOnlyValue> Set<R> getIssueMultiSelectNameValues (
-                Map<String, R> builderMap,
+        private <T, R extends MultiSelectNameOnlyValue> int[] getIssueMultiSelectNameValueIds(
                 Collection<T> issueJiraObjects,
                 Function<T, String> nameGetter,
-                Function<String, R> valueFactory) {
+                Function<String, R> valueFactory,
+                Supplier<StableIndexedMap<String, R>> valueMapSupplier,
+                Consumer<StableIndexedMap<String, R>> valueMapUpdater) {
             if (issueJiraObjects == null || issueJiraObjects.size() == 0) {
                 //No values for issue
                 return null;
             }
-            final Set<R> ret = new LinkedHashSet<R>(issueJiraObjects.size());
+            final Set<Integer> ids = new HashSet<>(issueJiraObjects.size());
             for (T issueJiraObject : issueJiraObjects) {
                 final String name = nameGetter.apply(issueJiraObject);
-                R value = builderMap.get(name);
-                if (value == null) {
-                    value = valueFactory.apply(name);
-                    builderMap.put(name, value);
+                final StableIndexedMap<String, R> valueMap = valueMapSupplier.get();
+                Integer id = valueMap.getId(name);
+                if (id == null) {
+                    id = valueMap.size();
+                    valueMapUpdater.accept(valueMap.plus(name, valueFactory.apply(name)));
                 }
-                ret.add(value);
+                ids.add(id);
             }
-            return ret;
+            return toSortedIds(ids);
         }
 
         @Override
@@ -456,7 +1164,34 @@ public class Board {
             return blacklist;
         }
 
+        @Override
+        OffHeapStringArena getSummaryArena() {
+            return summaryArena;
+        }
+
+        @Override
+        LinkedIssue getLoadedLinkedIssue(String issueKey) {
+            return linkedIssues.get(issueKey);
+        }
+
+        @Override
+        void addLinkedIssue(LinkedIssue linkedIssue) {
+            linkedIssues.put(linkedIssue.getKey(), linkedIssue);
+        }
+
         public Board build() {
+            return build(null);
+        }
+
+        /**
+         * Builds the board as a replacement for a board which has been loaded previously. The view of the new board
+         * continues from the view of the previous board, so that clients holding a view of the previous board get
+         * a full refresh rather than a set of changes against a board with the same view.
+         *
+         * @param previous the board being replaced. May be {@code null}
+         * @return the new board
+         */
+        public Board build(Board previous) {
             Map<String, BoardProject> projects = new LinkedHashMap<>();
 
             BoardProject.Builder ownerProject = this.projects.remove(boardConfig.getOwnerProjectCode());
@@ -475,16 +1210,21 @@ public class Board {
             });
 
             Board board = new Board(
-                    null, boardConfig,
-                    new IndexedMap<>(sortAssignees(assignees)),
-                    new IndexedMap<>(sortMultiSelectNameOnlyValueMap(components)),
-                    new IndexedMap<>(sortMultiSelectNameOnlyValueMap(labels)),
-                    new IndexedMap<>(sortMultiSelectNameOnlyValueMap(fixVersions)),
-                    Collections.unmodifiableMap(allIssues),
+                    previous, boardConfig,
+                    indexAssignees(assignees),
+                    components,
+                    labels,
+                    fixVersions,
+                    PersistentHashMap.copyOf(allIssues),
+                    PersistentHashMap.copyOf(linkedIssues),
                     Collections.unmodifiableMap(projects),
                     Collections.unmodifiableMap(sortedCustomFieldValues),
-                    blacklist.build());
-            projects.values().forEach(project -> project.setBoard(board));
+                    blacklist.build(),
+                    summaryArena);
+            if (summaryArena != null) {
+                JirbanLogger.LOGGER.debug("Board.Builder.build - Board {} holds {} summaries in {} bytes off-heap",
+                        boardConfig.getCode(), summaryArena.size(), summaryArena.getUsedBytes());
+            }
             return board;
         }
     }
@@ -492,21 +1232,25 @@ public class Board {
     /**
      * Used to update an already existing/loaded board
      */
-    static class Updater extends Accessor {
+    static class Updater extends Accessor implements MultiSelectValueLookup, LinkedIssueLookup {
         private final Board board;
         private final BoardChangeRegistry changeRegistry;
         private final Blacklist.Updater blacklist;
 
         //Will only be populated if a new assignee is brought in
-        private Map<String, Assignee> assigneesCopy;
+        private StableIndexedMap<String, Assignee> assigneesCopy;
         //Will only be populated if new components are brought in
-        private Map<String, Component> componentsCopy;
+        private StableIndexedMap<String, Component> componentsCopy;
         //Will only be populated if new labels are brought in
-        private Map<String, Label> labelsCopy;
+        private StableIndexedMap<String, Label> labelsCopy;
         //Will only be populated if new fixVersions are brought in
-        private Map<String, FixVersion> fixVersionsCopy;
+        private StableIndexedMap<String, FixVersion> fixVersionsCopy;
 
-        Map<String, Issue> allIssuesCopy;
+        PersistentHashMap<String, Issue> allIssuesCopy;
+        //Will only be populated if linked issues are added or changed
+        private PersistentHashMap<String, LinkedIssue> linkedIssuesCopy;
+        //The linked issues loaded by this updater
+        private final Map<String, LinkedIssue> loadedLinkedIssues = new HashMap<>();
 
         private Assignee newAssignee;
         private Set<Component> newComponents;
@@ -544,7 +1288,7 @@ public class Board {
             }
 
             final Map<String, BoardProject> projectsCopy;
-            final Map<String, Issue> allIssuesCopy;
+            final PersistentHashMap<String, Issue> allIssuesCopy;
             if (board.blacklist.isBlacklisted(event.getIssueKey())) {
                 JirbanLogger.LOGGER.debug("Board.Updater.handleDeleteEvent - Handling delete event for blacklisted issue {}", event.getIssueKey());
                 //For a delete of an issue that has been blacklisted we simply remove the issue from the blacklist.
@@ -565,21 +1309,20 @@ public class Board {
                 final BoardProject projectCopy = project.copyAndDeleteIssue(issue);
                 projectsCopy = copyAndPut(board.projects, event.getProjectCode(), projectCopy, HashMap::new);
 
-                Map<String, Issue> allIssues = new HashMap<>(board.allIssues);
-                allIssues.remove(issue.getKey());
-                allIssuesCopy = Collections.unmodifiableMap(allIssues);
+                allIssuesCopy = board.allIssues.minus(issue.getKey());
             }
 
             Board boardCopy = new Board(board, board.boardConfig,
-                    board.sortedAssignees,
-                    board.sortedComponents,
-                    board.sortedLabels,
-                    board.sortedFixVersions,
-                    Collections.unmodifiableMap(allIssuesCopy),
+                    board.assignees,
+                    board.components,
+                    board.labels,
+                    board.fixVersions,
+                    allIssuesCopy,
+                    linkedIssuesCopy == null ? board.linkedIssues : linkedIssuesCopy,
                     projectsCopy,
                     SortedCustomFieldValues.Updater.merge(customFieldUpdaters, board.sortedCustomFieldValues),
-                    blacklist.build());
-            boardCopy.updateBoardInProjects();
+                    blacklist.build(),
+                    board.summaryArena);
 
             //Register the event
             BoardChange.Builder changeBuilder = changeRegistry.addChange(boardCopy.currentView, event);
@@ -646,9 +1389,9 @@ public class Board {
             //Might bring in a new assignee and/or component, need to add those first
             //Will populate assigneeCopy and newAssignee if we need to add the assignee
             final Assignee issueAssignee = getOrCreateIssueAssignee(evtDetail);
-            final Set<Component> issueComponents = getOrCreateIssueComponents(evtDetail);
-            final Set<Label> issueLabels = getOrCreateIssueLabels(evtDetail);
-            final Set<FixVersion> issueFixVersions = getOrCreateIssueFixVersions(evtDetail);
+            final int[] issueComponents = getOrCreateIssueComponents(evtDetail);
+            final int[] issueLabels = getOrCreateIssueLabels(evtDetail);
+            final int[] issueFixVersions = getOrCreateIssueFixVersions(evtDetail);
 
             final BoardProject.Updater projectUpdater = project.updater(jiraInjectables, nextRankedIssueUtil, this, boardOwner);
             final Map<String, CustomFieldValue> customFieldValues
@@ -692,7 +1435,7 @@ public class Board {
 
             //This will replace the old issue
             allIssuesCopy = newIssue != null ?
-                    copyAndPut(board.allIssues, event.getIssueKey(), newIssue, HashMap::new) :
+                    board.allIssues.plus(event.getIssueKey(), newIssue) :
                     board.allIssues;
 
             JirbanLogger.LOGGER.debug("Board.Updater.handleCreateOrUpdateIssue - newIssue {}; updatedBlacklist {}; changedRankOrState {}",
@@ -706,17 +1449,18 @@ public class Board {
                 projectsCopy.put(event.getProjectCode(), projectCopy);
 
                 final Board boardCopy = new Board(board, board.boardConfig,
-                        assigneesCopy == null ? board.sortedAssignees : new IndexedMap<>(sortAssignees(assigneesCopy)),
-                        componentsCopy == null ? board.sortedComponents : new IndexedMap<>(sortMultiSelectNameOnlyValueMap(componentsCopy)),
-                        labelsCopy == null ? board.sortedLabels : new IndexedMap<>(sortMultiSelectNameOnlyValueMap(labelsCopy)),
-                        fixVersionsCopy == null ? board.sortedFixVersions : new IndexedMap<>(sortMultiSelectNameOnlyValueMap(fixVersionsCopy)),
+                        assigneesCopy == null ? board.assignees : assigneesCopy,
+                        componentsCopy == null ? board.components : componentsCopy,
+                        labelsCopy == null ? board.labels : labelsCopy,
+                        fixVersionsCopy == null ? board.fixVersions : fixVersionsCopy,
                         allIssuesCopy,
+                        linkedIssuesCopy == null ? board.linkedIssues : linkedIssuesCopy,
                         Collections.unmodifiableMap(projectsCopy),
                         SortedCustomFieldValues.Updater.merge(customFieldUpdaters, board.sortedCustomFieldValues),
-                        blacklist.build());
+                        blacklist.build(),
+                        board.summaryArena);
 
                 //Register the event
-                boardCopy.updateBoardInProjects();
 
                 if (moveFromDone) {
                     //We are making an issue visible again by moving it from a done state to a non-done state
@@ -756,10 +1500,10 @@ public class Board {
                     }
 
                     if (existingIssue != null) {
-                        changeBuilder.setFromBacklogState(project.isBacklogState(existingIssue.getState()));
+                        changeBuilder.setFromBacklogState(existingIssue.isInBacklogState());
                     }
                     if (newIssue != null) {
-                        changeBuilder.setBacklogState(project.isBacklogState(newIssue.getState()));
+                        changeBuilder.setBacklogState(newIssue.isInBacklogState());
                     }
                     if (parallelTaskValues.size() > 0) {
                         changeBuilder.setParallelTaskValues(parallelTaskValues);
@@ -774,30 +1518,188 @@ public class Board {
             return null;
         }
 
+        Board handleReloadedIssue(com.atlassian.jira.issue.Issue jiraIssue, NextRankedIssueUtil nextRankedIssueUtil) throws SearchException {
+            final String issueKey = jiraIssue.getKey();
+            JirbanLogger.LOGGER.debug("Board.Updater.handleReloadedIssue - Handling reloaded issue {}", issueKey);
+            if (board.blacklist.isBlacklisted(issueKey)) {
+                return null;
+            }
+            final String projectCode = jiraIssue.getProjectObject().getKey();
+            final BoardProject project = board.projects.get(projectCode);
+            if (project == null) {
+                throw new IllegalArgumentException("Can't find project " + projectCode
+                        + " in board " + board.boardConfig.getId());
+            }
+
+            final Issue existingIssue = board.allIssues.get(issueKey);
+            final BoardProject.Updater projectUpdater = project.updater(jiraInjectables, nextRankedIssueUtil, this, boardOwner);
+            final Issue newIssue = projectUpdater.reloadIssue(jiraIssue);
+            final BoardProject projectCopy = projectUpdater.build();
+            //The ranked sequence stays the same instance if the issue was already in place
+            final boolean reranked = projectCopy.getRankedIssueKeys() != project.getRankedIssueKeys();
+            if (newIssue == null && !blacklist.isUpdated()) {
+                return null;
+            }
+            if (newIssue != null && existingIssue != null && !reranked &&
+                    existingIssue.hasSameData(newIssue, this, this) && existingIssue.hasSameLinkedIssues(newIssue, board, this)) {
+                //The issue was updated in ways we are not interested in
+                return null;
+            }
+
+            allIssuesCopy = newIssue != null ?
+                    board.allIssues.plus(issueKey, newIssue) :
+                    board.allIssues;
+            final Map<String, BoardProject> projectsCopy = new HashMap<>(board.projects);
+            projectsCopy.put(projectCode, projectCopy);
+
+            final Board boardCopy = new Board(board, board.boardConfig,
+                    assigneesCopy == null ? board.assignees : assigneesCopy,
+                    componentsCopy == null ? board.components : componentsCopy,
+                    labelsCopy == null ? board.labels : labelsCopy,
+                    fixVersionsCopy == null ? board.fixVersions : fixVersionsCopy,
+                    allIssuesCopy,
+                    linkedIssuesCopy == null ? board.linkedIssues : linkedIssuesCopy,
+                    Collections.unmodifiableMap(projectsCopy),
+                    SortedCustomFieldValues.Updater.merge(customFieldUpdaters, board.sortedCustomFieldValues),
+                    blacklist.build(),
+                    board.summaryArena);
+
+            if (newIssue != null && existingIssue != null && !existingIssue.hasSameLinkedIssues(newIssue, board, this)) {
+                //The change sets have no way of updating the linked issues, so make the clients do a full refresh
+                changeRegistry.requireFullRefresh(boardCopy.currentView);
+                return boardCopy;
+            }
+
+            final JirbanIssueEvent event = existingIssue == null ?
+                    JirbanIssueEvent.createCreateEvent(issueKey, projectCode, null, null, null,
+                            null, null, null, null, null, null) :
+                    JirbanIssueEvent.createUpdateEvent(issueKey, projectCode, null, null, null,
+                            null, null, null, null, null, null, reranked, null);
+            final BoardChange.Builder changeBuilder = changeRegistry.addChange(boardCopy.currentView, event);
+            if (newAssignee != null) {
+                changeBuilder.addNewAssignee(newAssignee);
+            }
+            if (newComponents != null) {
+                changeBuilder.addNewComponents(newComponents);
+            }
+            if (newLabels != null) {
+                changeBuilder.addNewLabels(newLabels);
+            }
+            if (newFixVersions != null) {
+                changeBuilder.addNewFixVersions(newFixVersions);
+            }
+            if (blacklist.isUpdated()) {
+                changeBuilder.addBlacklist(blacklist.getAddedState(), blacklist.getAddedIssueType(),
+                        blacklist.getAddedPriority(), blacklist.getAddedIssue());
+            }
+            if (newIssue != null) {
+                final Map<String, CustomFieldValue> customFieldValues = new HashMap<>();
+                newIssue.getCustomFieldValues().forEach(value -> customFieldValues.put(value.getCustomFieldName(), value));
+                if (customFieldValues.size() > 0) {
+                    changeBuilder.addCustomFieldValues(board.sortedCustomFieldValues, customFieldValues);
+                }
+                if (existingIssue != null) {
+                    changeBuilder.setFromBacklogState(existingIssue.isInBacklogState());
+                }
+                changeBuilder.setBacklogState(newIssue.isInBacklogState());
+                changeBuilder.setReloadedIssue(newIssue.convertToReloadedIssueChange(changeRegistry, board.boardConfig, existingIssue, this));
+            }
+            JirbanLogger.LOGGER.debug("Board.Updater.handleReloadedIssue - Registering change");
+            changeBuilder.buildAndRegister();
+            return boardCopy;
+        }
+
+        Board handleReloadedIssues(Map<String, Set<String>> projectIssueKeys,
+                                   Map<String, List<com.atlassian.jira.issue.Issue>> projectIssues,
+                                   Map<String, List<String>> projectRankedIssueKeys) throws SearchException {
+            allIssuesCopy = board.allIssues;
+            final Map<String, BoardProject> projectsCopy = new HashMap<>(board.projects);
+            for (Map.Entry<String, Set<String>> entry : projectIssueKeys.entrySet()) {
+                final Set<String> issueKeys = entry.getValue();
+                final BoardProject project = board.projects.get(entry.getKey());
+                final BoardProject.Updater projectUpdater = project.updater(jiraInjectables, null, this, boardOwner);
+                final Map<String, Issue> reloadedIssues = new HashMap<>();
+                for (com.atlassian.jira.issue.Issue jiraIssue : projectIssues.get(entry.getKey())) {
+                    final String issueKey = jiraIssue.getKey();
+                    if (!issueKeys.contains(issueKey) || blacklist.isBlackListed(issueKey)) {
+                        continue;
+                    }
+                    final Issue issue = projectUpdater.loadIssue(jiraIssue);
+                    if (issue != null) {
+                        reloadedIssues.put(issueKey, issue);
+                    }
+                }
+                //The issues which are no longer returned by the search were deleted or moved to a done state
+                for (String issueKey : issueKeys) {
+                    final Issue issue = reloadedIssues.get(issueKey);
+                    allIssuesCopy = issue != null ? allIssuesCopy.plus(issueKey, issue) : allIssuesCopy.minus(issueKey);
+                }
+                final boolean fullRerank = projectUpdater.rankReloadedIssues(
+                        projectRankedIssueKeys.get(entry.getKey()), issueKeys, allIssuesCopy::get);
+                final BoardProject projectCopy = projectUpdater.build();
+                if (fullRerank) {
+                    for (String issueKey : project.getRankedIssueKeys()) {
+                        if (!projectCopy.getRankedIssueKeys().contains(issueKey)) {
+                            allIssuesCopy = allIssuesCopy.minus(issueKey);
+                        }
+                    }
+                }
+                projectsCopy.put(entry.getKey(), projectCopy);
+            }
+
+            final Board boardCopy = new Board(board, board.boardConfig,
+                    assigneesCopy == null ? board.assignees : assigneesCopy,
+                    componentsCopy == null ? board.components : componentsCopy,
+                    labelsCopy == null ? board.labels : labelsCopy,
+                    fixVersionsCopy == null ? board.fixVersions : fixVersionsCopy,
+                    allIssuesCopy,
+                    linkedIssuesCopy == null ? board.linkedIssues : linkedIssuesCopy,
+                    Collections.unmodifiableMap(projectsCopy),
+                    SortedCustomFieldValues.Updater.merge(customFieldUpdaters, board.sortedCustomFieldValues),
+                    blacklist.build(),
+                    board.summaryArena);
+            return boardCopy;
+        }
+
         @Override
         Assignee getAssignee(ApplicationUser assigneeUser) {
             return getOrCreateIssueAssignee(assigneeUser);
         }
 
         @Override
-        Set<Component> getComponents(Collection<ProjectComponent> componentObjects) {
+        int[] getComponentIds(Collection<ProjectComponent> componentObjects) {
             return getOrCreateIssueComponents(componentObjects);
         }
 
         @Override
-        Set<Label> getLabels(Set<com.atlassian.jira.issue.label.Label> labels) {
+        int[] getLabelIds(Set<com.atlassian.jira.issue.label.Label> labels) {
             return getOrCreateIssueLabels(labels);
         }
 
         @Override
-        Set<FixVersion> getFixVersions(Collection<Version> fixVersions) {
+        int[] getFixVersionIds(Collection<Version> fixVersions) {
             return getOrCreateIssueFixVersions(fixVersions);
         }
 
+        @Override
+        public Component getComponent(int id) {
+            return (componentsCopy == null ? board.components : componentsCopy).forId(id);
+        }
+
+        @Override
+        public Label getLabel(int id) {
+            return (labelsCopy == null ? board.labels : labelsCopy).forId(id);
+        }
+
+        @Override
+        public FixVersion getFixVersion(int id) {
+            return (fixVersionsCopy == null ? board.fixVersions : fixVersionsCopy).forId(id);
+        }
+
         @Override
         CustomFieldValue getCustomFieldValue(CustomFieldConfig customFieldConfig, Object fieldValue) {
-            //Should not get called for this code path
-            throw new IllegalStateException();
+            //This gets called when an issue is reloaded
+            return getCustomFieldValue(customFieldConfig, CustomFieldUtil.getUtil(customFieldConfig).getKey(fieldValue));
         }
 
         @Override
@@ -841,6 +1743,33 @@ public class Board {
             return blacklist;
         }
 
+        @Override
+        OffHeapStringArena getSummaryArena() {
+            return board.summaryArena;
+        }
+
+        @Override
+        LinkedIssue getLoadedLinkedIssue(String issueKey) {
+            return loadedLinkedIssues.get(issueKey);
+        }
+
+        @Override
+        void addLinkedIssue(LinkedIssue linkedIssue) {
+            loadedLinkedIssues.put(linkedIssue.getKey(), linkedIssue);
+            //The linked issue is reloaded along with the issue linking to it, so it might have changed
+            final PersistentHashMap<String, LinkedIssue> linkedIssues =
+                    linkedIssuesCopy == null ? board.linkedIssues : linkedIssuesCopy;
+            final LinkedIssue existing = linkedIssues.get(linkedIssue.getKey());
+            if (existing == null || !existing.hasSameData(linkedIssue)) {
+                linkedIssuesCopy = linkedIssues.plus(linkedIssue.getKey(), linkedIssue);
+            }
+        }
+
+        @Override
+        public LinkedIssue getLinkedIssue(String issueKey) {
+            return (linkedIssuesCopy == null ? board.linkedIssues : linkedIssuesCopy).get(issueKey);
+        }
+
         private Assignee getOrCreateIssueAssignee(JirbanIssueEvent.Detail evtDetail) {
             return getOrCreateIssueAssignee(evtDetail.getAssignee());
         }
@@ -851,32 +1780,27 @@ public class Board {
             } else if (evtAssignee == JirbanIssueEvent.UNASSIGNED) {
                 return Assignee.UNASSIGNED;
             } else {
-                Assignee assignee = board.sortedAssignees.get(evtAssignee.getName());
+                Assignee assignee = board.assignees.get(evtAssignee.getName());
                 if (assignee == null) {
                     assignee = Board.createAssignee(jiraInjectables, boardOwner, evtAssignee);
                     newAssignee = assignee;
-                    assigneesCopy = copyAndPut(board.sortedAssignees.map(), evtAssignee.getName(), assignee, HashMap::new);
+                    assigneesCopy = (assigneesCopy == null ? board.assignees : assigneesCopy).plus(evtAssignee.getName(), assignee);
                 }
                 return assignee;
             }
         }
 
-        private Set<Component> getOrCreateIssueComponents(JirbanIssueEvent.Detail evtDetail) {
+        private int[] getOrCreateIssueComponents(JirbanIssueEvent.Detail evtDetail) {
             return getOrCreateIssueComponents(evtDetail.getComponents());
         }
 
-        private Set<Component> getOrCreateIssueComponents(Collection<ProjectComponent> evtComponents) {
+        private int[] getOrCreateIssueComponents(Collection<ProjectComponent> evtComponents) {
             return getOrCreateIssueMultiSelectNameValues(
                     evtComponents,
                     ProjectComponent::getName,
                     name -> new Component(name),
-                    () -> componentsCopy == null ? board.sortedComponents.map() : componentsCopy,
-                    () -> {
-                        if (componentsCopy == null) {
-                            componentsCopy = new HashMap<String, Component>(board.sortedComponents.map());
-                        }
-                        return componentsCopy;
-                    },
+                    () -> componentsCopy == null ? board.components : componentsCopy,
+                    copy -> componentsCopy = copy,
                     () -> {
                         if (newComponents == null) {
                             newComponents = new HashSet<Component>();
@@ -885,22 +1809,17 @@ public class Board {
                     });
         }
 
-        private Set<Label> getOrCreateIssueLabels(JirbanIssueEvent.Detail evtDetail) {
+        private int[] getOrCreateIssueLabels(JirbanIssueEvent.Detail evtDetail) {
             return getOrCreateIssueLabels(evtDetail.getLabels());
         }
 
-        private Set<Label> getOrCreateIssueLabels(Collection<com.atlassian.jira.issue.label.Label> evtLabels) {
+        private int[] getOrCreateIssueLabels(Collection<com.atlassian.jira.issue.label.Label> evtLabels) {
             return getOrCreateIssueMultiSelectNameValues(
                     evtLabels,
                     com.atlassian.jira.issue.label.Label::getLabel,
                     name -> new Label(name),
-                    () -> labelsCopy == null ? board.sortedLabels.map() : labelsCopy,
-                    () -> {
-                        if (labelsCopy == null) {
-                            labelsCopy = new HashMap<String, Label>(board.sortedLabels.map());
-                        }
-                        return labelsCopy;
-                    },
+                    () -> labelsCopy == null ? board.labels : labelsCopy,
+                    copy -> labelsCopy = copy,
                     () -> {
                         if (newLabels == null) {
                             newLabels = new HashSet<Label>();
@@ -909,22 +1828,17 @@ public class Board {
                     });
         }
 
-        private Set<FixVersion> getOrCreateIssueFixVersions(JirbanIssueEvent.Detail evtDetail) {
+        private int[] getOrCreateIssueFixVersions(JirbanIssueEvent.Detail evtDetail) {
             return getOrCreateIssueFixVersions(evtDetail.getFixVersions());
         }
 
-        private Set<FixVersion> getOrCreateIssueFixVersions(Collection<com.atlassian.jira.project.version.Version> evtFixVersions) {
+        private int[] getOrCreateIssueFixVersions(Collection<com.atlassian.jira.project.version.Version> evtFixVersions) {
             return getOrCreateIssueMultiSelectNameValues(
                     evtFixVersions,
                     com.atlassian.jira.project.version.Version::getName,
                     name -> new FixVersion(name),
-                    () -> fixVersionsCopy == null ? board.sortedFixVersions.map() : fixVersionsCopy,
-                    () -> {
-                        if (fixVersionsCopy == null) {
-                            fixVersionsCopy = new HashMap<String, FixVersion>(board.sortedFixVersions.map());
-                        }
-                        return fixVersionsCopy;
-                    },
+                    () -> fixVersionsCopy == null ? board.fixVersions : fixVersionsCopy,
+                    copy -> fixVersionsCopy = copy,
                     () -> {
                         if (newFixVersions == null) {
                             newFixVersions = new HashSet<FixVersion>();
@@ -933,32 +1847,38 @@ public class Board {
                     });
         }
 
-        private <T, R extends MultiSelectNameOnlyValue> Set<R> getOrCreateIssueMultiSelectNameValues(
+        /**
+         * Gets the ids of the values from an event, adding the ones which are new to the board.
+         *
+         * @return {@code null} if the event does not change the values, otherwise the sorted ids. An empty
+         * array means the values were cleared
+         */
+        private <T, R extends MultiSelectNameOnlyValue> int[] getOrCreateIssueMultiSelectNameValues(
                 Collection<T> jiraEventValues,
                 Function<T, String> nameExtractor,
                 Function<String, R> newValueCreator,
-                Supplier<Map<String, R>> valueMapSupplier,
-                Supplier<Map<String, R>> copyMapSupplier,
+                Supplier<StableIndexedMap<String, R>> valueMapSupplier,
+                Consumer<StableIndexedMap<String, R>> valueMapUpdater,
                 Supplier<Set<R>> newSetSupplier) {
             if (jiraEventValues == null) {
                 return null;
             } else if (jiraEventValues.isEmpty()) {
-                return Collections.emptySet();
+                return NO_IDS;
             } else {
-                Set<R> values = new HashSet<>();
+                Set<Integer> ids = new HashSet<>();
                 for (T jiraEventValue : jiraEventValues) {
-                    Map<String, R> valueMap = valueMapSupplier.get();
+                    StableIndexedMap<String, R> valueMap = valueMapSupplier.get();
                     final String name = nameExtractor.apply(jiraEventValue);
-                    R value = valueMap.get(name);
-                    if (value == null) {
-                        value = newValueCreator.apply(name);
-                        Map<String, R> copyMap = copyMapSupplier.get();
-                        copyMap.put(name, value);
+                    Integer id = valueMap.getId(name);
+                    if (id == null) {
+                        final R value = newValueCreator.apply(name);
+                        id = valueMap.size();
+                        valueMapUpdater.accept(valueMap.plus(name, value));
                         newSetSupplier.get().add(value);
                     }
-                    values.add(value);
+                    ids.add(id);
                 }
-                return values;
+                return toSortedIds(ids);
             }
         }
 
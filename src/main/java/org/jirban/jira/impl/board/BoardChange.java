@@ -65,6 +65,8 @@ public class BoardChange {
     private final Map<Integer, Integer> parallelTaskValues;
     private final Boolean fromBacklogState;
 
+    //All the data of an issue which was reloaded when the board was rebuilt
+    private final BoardChangeRegistry.IssueChange reloadedIssue;
 
     private BoardChange(int view, JirbanIssueEvent event, Assignee newAssignee,
                         Set<Component> newComponents, Set<Label> newLabels,
@@ -74,7 +76,8 @@ public class BoardChange {
                         Boolean fromBacklogState, Boolean backlogState,
                         Map<String, CustomFieldValue> customFieldValues,
                         Map<String, CustomFieldValue> newCustomFieldValues,
-                        Map<Integer, Integer> parallelTaskValues) {
+                        Map<Integer, Integer> parallelTaskValues,
+                        BoardChangeRegistry.IssueChange reloadedIssue) {
         this.view = view;
         this.event = event;
         this.newAssignee = newAssignee;
@@ -91,6 +94,7 @@ public class BoardChange {
         this.customFieldValues = customFieldValues;
         this.newCustomFieldValues = newCustomFieldValues;
         this.parallelTaskValues = parallelTaskValues;
+        this.reloadedIssue = reloadedIssue;
     }
 
     long getTime() {
@@ -165,6 +169,10 @@ public class BoardChange {
         return parallelTaskValues;
     }
 
+    BoardChangeRegistry.IssueChange getReloadedIssue() {
+        return reloadedIssue;
+    }
+
     public static class Builder {
         private final BoardChangeRegistry registry;
         private final int view;
@@ -193,6 +201,9 @@ public class BoardChange {
         private Map<String, CustomFieldValue> customFieldValues;
         private Map<Integer, Integer> parallelTaskValues;
 
+        //If the issue was reloaded
+        private BoardChangeRegistry.IssueChange reloadedIssue;
+
         Builder(BoardChangeRegistry registry, int view, JirbanIssueEvent event) {
             this.registry = registry;
             this.view = view;
@@ -269,13 +280,23 @@ public class BoardChange {
             return this;
         }
 
+        Builder addNewCustomFieldValues(Map<String, CustomFieldValue> newCustomFieldValues) {
+            this.newCustomFieldValues = Collections.unmodifiableMap(newCustomFieldValues);
+            return this;
+        }
+
+        Builder setReloadedIssue(BoardChangeRegistry.IssueChange reloadedIssue) {
+            this.reloadedIssue = reloadedIssue;
+            return this;
+        }
+
 
         public void buildAndRegister() {
             BoardChange change = new BoardChange(
                     view, event, newAssignee, newComponents, newLabels, newFixVersions, addedBlacklistState,
                     addedBlacklistPriority, addedBlacklistIssueType, addedBlacklistIssue, deletedBlacklistIssue,
                     fromBacklogState, backlogState, customFieldValues, newCustomFieldValues,
-                    parallelTaskValues);
+                    parallelTaskValues, reloadedIssue);
             registry.registerChange(change);
         }
 
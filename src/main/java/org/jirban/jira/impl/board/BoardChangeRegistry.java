@@ -52,6 +52,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.jboss.dmr.ModelNode;
@@ -63,6 +64,9 @@ import org.jirban.jira.impl.JirbanIssueEvent.Type;
 import org.jirban.jira.impl.board.MultiSelectNameOnlyValue.Component;
 import org.jirban.jira.impl.board.MultiSelectNameOnlyValue.FixVersion;
 import org.jirban.jira.impl.board.MultiSelectNameOnlyValue.Label;
+import org.jirban.jira.impl.util.IssueKeys;
+import org.jirban.jira.impl.util.LongObjectMap;
+import org.jirban.jira.impl.util.RankedSequence;
 
 
 /**
@@ -116,6 +120,16 @@ public class BoardChangeRegistry {
         }
     }
 
+    //This gets called by the board updater when a change cannot be expressed as a change set. Clients with an older
+    //view get a full refresh of the board, without the board itself being thrown out
+    void requireFullRefresh(int view) {
+        synchronized (this) {
+            changes = new CopyOnWriteArrayList<>();
+            startView = view;
+            endView = view;
+        }
+    }
+
     //This gets called by the board manager after the board has been built
     public void setBoard(Board board) {
         this.board = board;
@@ -210,6 +224,52 @@ public class BoardChangeRegistry {
         return change;
     }
 
+    //Callback for the BoardIssue to convert itself to an IssueChange containing all its data, once it has been reloaded
+    IssueChange createReloadedIssueChange(Issue issue, boolean create, Assignee assignee, String issueType, String priority,
+                                          Set<Component> components, Set<Label> labels, Set<FixVersion> fixVersions,
+                                          Map<String, CustomFieldValue> customFieldValues, int[] parallelTaskValues) {
+        IssueChange change = new IssueChange(issue.getProjectCode(), issue.getKey(), null);
+        change.type = create ? CREATE : UPDATE;
+        change.state = issue.getState();
+        change.summary = issue.getSummary();
+        change.issueType = issueType;
+        change.priority = priority;
+
+        if (assignee != null) {
+            change.assignee = assignee.getKey();
+        } else {
+            change.unassigned = true;
+        }
+        if (components != null) {
+            change.components = new HashSet<>();
+            components.forEach(component -> change.components.add(component.getName()));
+        } else {
+            change.clearedComponents = true;
+        }
+        if (labels != null) {
+            change.labels = new HashSet<>();
+            labels.forEach(label -> change.labels.add(label.getName()));
+        } else {
+            change.clearedLabels = true;
+        }
+        if (fixVersions != null) {
+            change.fixVersions = new HashSet<>();
+            fixVersions.forEach(fixVersion -> change.fixVersions.add(fixVersion.getName()));
+        } else {
+            change.clearedFixVersions = true;
+        }
+        if (customFieldValues.size() > 0) {
+            change.customFieldValues = new HashMap<>(customFieldValues);
+        }
+        if (parallelTaskValues != null) {
+            change.parallelTaskValues = new HashMap<>();
+            for (int i = 0 ; i < parallelTaskValues.length ; i++) {
+                change.parallelTaskValues.put(i, parallelTaskValues[i]);
+            }
+        }
+        return change;
+    }
+
     public void forceRefresh() {
         JirbanLogger.LOGGER.debug("Forcing refresh");
         boardManager.forceRefresh(board.getConfig().getCode());
@@ -278,7 +338,8 @@ public class BoardChangeRegistry {
     private class ChangeSetCollector {
         private final boolean backlog;
         private int view;
-        private final Map<String, IssueChange> issueChanges = new HashMap<>();
+        //Keyed by the encoded issue key
+        private final LongObjectMap<IssueChange> issueChanges = new LongObjectMap<>();
         private final BlacklistChange blacklistChange = new BlacklistChange();
         private NewReferenceCollector newReferenceCollector = new NewReferenceCollector();
 
@@ -288,9 +349,8 @@ public class BoardChangeRegistry {
         }
 
         void addChange(BoardChange boardChange) {
-            final String issueKey = boardChange.getEvent().getIssueKey();
-
             if (!boardChange.isBlacklistEvent()) {
+                final long issueKey = IssueKeys.encode(boardChange.getEvent().getIssueKey());
                 IssueChange issueChange = issueChanges.get(issueKey);
                 if (issueChange == null) {
                     issueChange = IssueChange.create(newReferenceCollector, boardChange);
@@ -298,7 +358,7 @@ public class BoardChangeRegistry {
                 } else {
                     issueChange.merge(newReferenceCollector, boardChange);
                     if (issueChange.type == null) {
-                        issueChanges.remove(issueChange.issueKey);
+                        issueChanges.remove(issueKey);
                     }
                 }
             } else {
@@ -341,20 +401,24 @@ public class BoardChangeRegistry {
 
                     final Set<String> rerankedIssues = projectEntry.getValue();
                     final BoardProject project = board.getBoardProject(projectEntry.getKey());
-                    final List<String> rankedIssueKeys = project.getRankedIssueKeys();
-
-                    for (int i = 0; i < rankedIssueKeys.size() ; i++) {
-                        final String issueKey = rankedIssueKeys.get(i);
-
-                        if (rerankedIssues.contains(issueKey)) {
-                            final ModelNode ranked = changes.get(RANK, projectEntry.getKey());
-
-                            ModelNode rankEntry = new ModelNode();
-                            rankEntry.get(INDEX).set(i);
-                            rankEntry.get(KEY).set(issueKey);
-                            ranked.add(rankEntry);
+                    final RankedSequence<String> rankedIssueKeys = project.getRankedIssueKeys();
+
+                    //Look up the index of each reranked issue rather than scanning the whole project
+                    final TreeMap<Integer, String> rerankedByIndex = new TreeMap<>();
+                    for (String issueKey : rerankedIssues) {
+                        final int index = rankedIssueKeys.indexOf(issueKey);
+                        if (index >= 0) {
+                            rerankedByIndex.put(index, issueKey);
                         }
                     }
+                    for (Map.Entry<Integer, String> rankedEntry : rerankedByIndex.entrySet()) {
+                        final ModelNode ranked = changes.get(RANK, projectEntry.getKey());
+
+                        ModelNode rankEntry = new ModelNode();
+                        rankEntry.get(INDEX).set(rankedEntry.getKey());
+                        rankEntry.get(KEY).set(rankedEntry.getValue());
+                        ranked.add(rankEntry);
+                    }
                 }
             }
             return output;
@@ -504,6 +568,9 @@ public class BoardChangeRegistry {
                         reranked = boardChange.getEvent().getDetails().isReranked();
                     }
                     mergeFields(boardChange, newReferenceCollector);
+                    if (boardChange.getReloadedIssue() != null) {
+                        mergeReloadedIssue(boardChange, newReferenceCollector);
+                    }
                     if (boardChange.getBacklogState() != null) {
                         backlogEndState = boardChange.getBacklogState();
                     }
@@ -622,6 +689,58 @@ public class BoardChangeRegistry {
             }
         }
 
+        void mergeReloadedIssue(BoardChange boardChange, NewReferenceCollector newReferenceCollector) {
+            //The reloaded issue contains all the data, so it replaces whatever we have merged so far
+            final IssueChange reloaded = boardChange.getReloadedIssue();
+            issueType = reloaded.issueType;
+            priority = reloaded.priority;
+            summary = reloaded.summary;
+            state = reloaded.state;
+            assignee = reloaded.assignee;
+            unassigned = reloaded.unassigned;
+            components = reloaded.components;
+            clearedComponents = reloaded.clearedComponents;
+            labels = reloaded.labels;
+            clearedLabels = reloaded.clearedLabels;
+            fixVersions = reloaded.fixVersions;
+            clearedFixVersions = reloaded.clearedFixVersions;
+            if (reloaded.customFieldValues != null) {
+                if (customFieldValues == null) {
+                    customFieldValues = new HashMap<>();
+                }
+                reloaded.customFieldValues.forEach((key, value) -> {
+                    if (value == null && type == CREATE) {
+                        //A create only contains the fields which are set
+                        customFieldValues.remove(key);
+                    } else {
+                        customFieldValues.put(key, value);
+                    }
+                });
+            }
+            if (reloaded.parallelTaskValues != null) {
+                if (parallelTaskValues == null) {
+                    parallelTaskValues = new HashMap<>();
+                }
+                parallelTaskValues.putAll(reloaded.parallelTaskValues);
+            }
+
+            if (boardChange.getNewAssignee() != null) {
+                newReferenceCollector.addNewAssignee(boardChange.getNewAssignee());
+            }
+            if (boardChange.getNewComponents() != null) {
+                newReferenceCollector.addNewComponents(boardChange.getNewComponents());
+            }
+            if (boardChange.getNewLabels() != null) {
+                newReferenceCollector.addNewLabels(boardChange.getNewLabels());
+            }
+            if (boardChange.getNewFixVersions() != null) {
+                newReferenceCollector.addNewFixVersions(boardChange.getNewFixVersions());
+            }
+            if (boardChange.getNewCustomFieldValues() != null) {
+                newReferenceCollector.addNewCustomFieldValues(boardChange.getNewCustomFieldValues());
+            }
+        }
+
         void mergeType(JirbanIssueEvent event) {
             Type evtType = event.getType();
             if (type == null) {
@@ -22,22 +22,28 @@ import static org.jirban.jira.impl.Constants.RANKED;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
 
 import org.jboss.dmr.ModelNode;
 import org.jirban.jira.JirbanLogger;
 import org.jirban.jira.api.NextRankedIssueUtil;
 import org.jirban.jira.api.ProjectParallelTaskOptionsLoader;
 import org.jirban.jira.impl.JiraInjectables;
-import org.jirban.jira.impl.board.MultiSelectNameOnlyValue.Component;
-import org.jirban.jira.impl.board.MultiSelectNameOnlyValue.FixVersion;
-import org.jirban.jira.impl.board.MultiSelectNameOnlyValue.Label;
 import org.jirban.jira.impl.config.BoardProjectConfig;
 import org.jirban.jira.impl.config.CustomFieldConfig;
 import org.jirban.jira.impl.config.LinkedProjectConfig;
+import org.jirban.jira.impl.util.OffHeapStringArena;
+import org.jirban.jira.impl.util.RankedSequence;
+import org.jirban.jira.impl.util.StringInterner;
 
 import com.atlassian.jira.bc.issue.search.SearchService;
 import com.atlassian.jira.bc.project.component.ProjectComponent;
@@ -60,48 +66,63 @@ import com.atlassian.query.order.SortOrder;
 
 /**
  * The data for a board project, i.e. a project whose issues should appear as cards on the board.
+ * It is immutable and does not know which board it belongs to, so the board copies share the projects which did not
+ * change. Anything which needs the board, such as its assignee or custom field indices, gets it passed in.
  *
  * @author Kabir Khan
  */
 public class BoardProject {
 
-    private volatile Board board;
     private final BoardProjectConfig projectConfig;
-    private final List<String> rankedIssueKeys;
+    private final RankedSequence<String> rankedIssueKeys;
+    /** The ranked issue keys in each of our own states, indexed by the state index. Each is ordered as in
+     * {@link #rankedIssueKeys}, so the issues in a state can be found without going through all of them */
+    private final RankedSequence<String>[] rankedIssueKeysByState;
     private final Map<String, SortedParallelTaskFieldOptions> parallelTaskValues;
 
-    private BoardProject(BoardProjectConfig projectConfig, List<String> rankedIssueKeys, Map<String, SortedParallelTaskFieldOptions> parallelTaskValues) {
+    private BoardProject(BoardProjectConfig projectConfig, RankedSequence<String> rankedIssueKeys,
+                         RankedSequence<String>[] rankedIssueKeysByState, Map<String, SortedParallelTaskFieldOptions> parallelTaskValues) {
         this.projectConfig = projectConfig;
         this.rankedIssueKeys = rankedIssueKeys;
+        this.rankedIssueKeysByState = rankedIssueKeysByState;
         this.parallelTaskValues = parallelTaskValues;
     }
 
-    void setBoard(Board board) {
-        this.board = board;
-    }
-
-    int getAssigneeIndex(Assignee assignee) {
-        return board.getAssigneeIndex(assignee);
-    }
-
-    int getComponentIndex(Component component) {
-        return board.getComponentIndex(component);
-    }
-
-    int getLabelIndex(Label label) {
-        return board.getLabelIndex(label);
-    }
-
-    int getFixVersionIndex(FixVersion fixVersion) {
-        return board.getFixVersionIndex(fixVersion);
+    public RankedSequence<String> getRankedIssueKeys() {
+        return rankedIssueKeys;
     }
 
-    public int getCustomFieldValueIndex(CustomFieldValue customFieldValue) {
-        return board.getCustomFieldIndex(customFieldValue);
+    /**
+     * Gets the ranked issue keys, leaving out the ones in a backlog state unless {@code backlog} is {@code true}.
+     *
+     * @param backlog whether to include the issues in the backlog
+     * @return the issue keys in rank order
+     */
+    Iterable<String> getRankedIssueKeys(boolean backlog) {
+        if (backlog) {
+            return rankedIssueKeys;
+        }
+        final List<RankedSequence<String>> nonBacklog = getNonBacklogIssueKeys();
+        if (nonBacklog.size() == 1) {
+            return nonBacklog.get(0);
+        }
+        return () -> new RankOrderIterator(rankedIssueKeys, nonBacklog);
     }
 
-    public List<String> getRankedIssueKeys() {
-        return rankedIssueKeys;
+    /**
+     * Gets the issue keys of each of our own states which is not a backlog state and has issues. Each list is in rank
+     * order, but the lists are in state order.
+     *
+     * @return the issue keys of the non-backlog states
+     */
+    List<RankedSequence<String>> getNonBacklogIssueKeys() {
+        final List<RankedSequence<String>> nonBacklog = new ArrayList<>();
+        for (int i = 0 ; i < rankedIssueKeysByState.length ; i++) {
+            if (!projectConfig.isBacklogState(i) && rankedIssueKeysByState[i].size() > 0) {
+                nonBacklog.add(rankedIssueKeysByState[i]);
+            }
+        }
+        return nonBacklog;
     }
 
     void serialize(JiraInjectables jiraInjectables, Board board, ModelNode parent, ApplicationUser user, boolean backlog) {
@@ -110,12 +131,8 @@ public class BoardProject {
 
         ModelNode ranked = new ModelNode();
         ranked.setEmptyList();
-        for (String key : rankedIssueKeys) {
-            if (backlog) {
-                ranked.add(key);
-            } else if (!board.isBacklogIssue(projectConfig, key)) {
-                ranked.add(key);
-            }
+        for (String key : getRankedIssueKeys(backlog)) {
+            ranked.add(key);
         }
         parent.get(RANKED).set(ranked);
 
@@ -127,7 +144,7 @@ public class BoardProject {
 
     }
 
-    boolean isOwner() {
+    boolean isOwner(Board board) {
         return board.getConfig().getOwnerProjectCode().equals(projectConfig.getCode());
     }
 
@@ -204,6 +221,95 @@ public class BoardProject {
         return queryBuilder.buildQuery();
     }
 
+    /**
+     * Searches for the issues of the project which belong on the board, in rank order.
+     *
+     * @param jiraInjectables the jira injectables
+     * @param projectConfig the project config
+     * @param boardOwner the board owner
+     * @param updatedSince if not {@code null} only the issues updated since this time are returned
+     * @return the issues
+     * @throws SearchException if the search failed
+     */
+    static List<com.atlassian.jira.issue.Issue> searchIssues(JiraInjectables jiraInjectables, BoardProjectConfig projectConfig,
+                                                             ApplicationUser boardOwner, Date updatedSince) throws SearchException {
+        final SearchService searchService = jiraInjectables.getSearchService();
+        final Query query = initialiseQuery(projectConfig, boardOwner, searchService,
+                updatedSince == null ? null : new Consumer<JqlQueryBuilder>() {
+                    @Override
+                    public void consume(@Nonnull JqlQueryBuilder queryBuilder) {
+                        queryBuilder.where().and().updatedAfter(updatedSince);
+                    }
+                });
+        return searchService.search(boardOwner, query, PagerFilter.getUnlimitedFilter()).getIssues();
+    }
+
+    /**
+     * Searches for the given issues of the project, leaving out the ones which do not belong on the board, in rank
+     * order.
+     *
+     * @param jiraInjectables the jira injectables
+     * @param projectConfig the project config
+     * @param boardOwner the board owner
+     * @param issueKeys the keys of the issues
+     * @return the issues
+     * @throws SearchException if the search failed
+     */
+    static List<com.atlassian.jira.issue.Issue> searchIssuesWithKeys(JiraInjectables jiraInjectables, BoardProjectConfig projectConfig,
+                                                                     ApplicationUser boardOwner, Collection<String> issueKeys) throws SearchException {
+        final SearchService searchService = jiraInjectables.getSearchService();
+        final Query query = initialiseQuery(projectConfig, boardOwner, searchService, new Consumer<JqlQueryBuilder>() {
+            @Override
+            public void consume(@Nonnull JqlQueryBuilder queryBuilder) {
+                queryBuilder.where().and().issue(issueKeys.toArray(new String[issueKeys.size()]));
+            }
+        });
+        return searchService.search(boardOwner, query, PagerFilter.getUnlimitedFilter()).getIssues();
+    }
+
+    /**
+     * Searches for the keys of the issues of the project which belong on the board, in rank order. The issues
+     * returned by the search read their fields from the search index when asked for them, so only the keys get read.
+     *
+     * @param jiraInjectables the jira injectables
+     * @param projectConfig the project config
+     * @param boardOwner the board owner
+     * @return the issue keys
+     * @throws SearchException if the search failed
+     */
+    static List<String> searchIssueKeys(JiraInjectables jiraInjectables, BoardProjectConfig projectConfig,
+                                        ApplicationUser boardOwner) throws SearchException {
+        final List<com.atlassian.jira.issue.Issue> issues = searchIssues(jiraInjectables, projectConfig, boardOwner, null);
+        final List<String> issueKeys = new ArrayList<>(issues.size());
+        for (com.atlassian.jira.issue.Issue issue : issues) {
+            issueKeys.add(issue.getKey());
+        }
+        return issueKeys;
+    }
+
+    /**
+     * Searches for a single issue, regardless of its state
+     *
+     * @param jiraInjectables the jira injectables
+     * @param boardOwner the board owner
+     * @param issueKey the issue key
+     * @return the issue, or {@code null} if it could not be found
+     * @throws SearchException if the search failed
+     */
+    static com.atlassian.jira.issue.Issue findSingleIssue(JiraInjectables jiraInjectables, ApplicationUser boardOwner,
+                                                          String issueKey) throws SearchException {
+        JqlQueryBuilder queryBuilder = JqlQueryBuilder.newBuilder();
+        queryBuilder.where().issue(issueKey);
+
+        final SearchService searchService = jiraInjectables.getSearchService();
+
+        SearchResults searchResults =
+                searchService.search(boardOwner, queryBuilder.buildQuery(), PagerFilter.getUnlimitedFilter());
+
+        List<com.atlassian.jira.issue.Issue> issues = searchResults.getIssues();
+        return issues.size() == 0 ? null : issues.get(0);
+    }
+
     public static abstract class Accessor {
         protected final JiraInjectables jiraInjectables;
         protected final Board.Accessor board;
@@ -221,18 +327,19 @@ public class BoardProject {
             return projectConfig;
         }
 
-        Integer getPriorityIndexRecordingMissing(String issueKey, String priorityName) {
+        int getPriorityIndexRecordingMissing(String issueKey, String priorityName) {
             return board.getPriorityIndexRecordingMissing(issueKey, priorityName);
         }
 
-        Integer getIssueTypeIndexRecordingMissing(String issueKey, String issueTypeName) {
+        int getIssueTypeIndexRecordingMissing(String issueKey, String issueTypeName) {
             return board.getIssueTypeIndexRecordingMissing(issueKey, issueTypeName);
         }
 
-        Integer getStateIndexRecordingMissing(String issueKey, String stateName) {
+        int getStateIndexRecordingMissing(String issueKey, String stateName) {
             final Integer index = projectConfig.getStateIndex(stateName);
             if (index == null) {
                 board.addMissingState(issueKey, stateName);
+                return -1;
             } else {
 //                if (!projectConfig.isOwner()) {
 //                    Integer ownerStateIndex = null;
@@ -272,16 +379,28 @@ public class BoardProject {
             return board.getLinkedProjectContext(linkedProjectCode);
         }
 
-        public Set<Component> getComponents(Collection<ProjectComponent> componentObjects) {
-            return board.getComponents(componentObjects);
+        OffHeapStringArena getSummaryArena() {
+            return board.getSummaryArena();
+        }
+
+        Issue.LinkedIssue getLoadedLinkedIssue(String issueKey) {
+            return board.getLoadedLinkedIssue(issueKey);
         }
 
-        public Set<Label> getLabels(Set<com.atlassian.jira.issue.label.Label> labels) {
-            return board.getLabels(labels);
+        void addLinkedIssue(Issue.LinkedIssue linkedIssue) {
+            board.addLinkedIssue(linkedIssue);
         }
 
-        public Set<FixVersion> getFixVersions(Collection<Version> fixVersions) {
-            return board.getFixVersions(fixVersions);
+        public int[] getComponentIds(Collection<ProjectComponent> componentObjects) {
+            return board.getComponentIds(componentObjects);
+        }
+
+        public int[] getLabelIds(Set<com.atlassian.jira.issue.label.Label> labels) {
+            return board.getLabelIds(labels);
+        }
+
+        public int[] getFixVersionIds(Collection<Version> fixVersions) {
+            return board.getFixVersionIds(fixVersions);
         }
 
         public Board.Accessor getBoard() {
@@ -309,7 +428,7 @@ public class BoardProject {
      */
     public static class Builder extends Accessor {
         private final List<String> rankedIssueKeys = new ArrayList<>();
-        private final Map<String, List<String>> issueKeysByState = new HashMap<>();
+        private final Map<String, Integer> stateIndices = new HashMap<>();
         private final Map<String, SortedParallelTaskFieldOptions> parallelTaskValues;
 
 
@@ -319,9 +438,8 @@ public class BoardProject {
             this.parallelTaskValues = parallelTaskValues;
         }
 
-        Builder addIssue(String state, Issue issue) {
-            final List<String> issueKeys = issueKeysByState.computeIfAbsent(state, l -> new ArrayList<>());
-            issueKeys.add(issue.getKey());
+        Builder addIssue(Issue issue) {
+            stateIndices.put(issue.getKey(), issue.getStateIndex());
             board.addIssue(issue);
             return this;
         }
@@ -330,34 +448,32 @@ public class BoardProject {
             return parallelTaskValues;
         }
 
-        void load() throws SearchException {
-            final SearchService searchService = jiraInjectables.getSearchService();
-            final Query query = initialiseQuery(projectConfig, boardOwner, searchService, null);
-
-            SearchResults searchResults =
-                        searchService.search(boardOwner, query, PagerFilter.getUnlimitedFilter());
+        void load(ProjectIssueSearchCache searchCache) throws SearchException {
+            //Other boards containing the project might be loading it as well, so share the search with them
+            final List<com.atlassian.jira.issue.Issue> jiraIssues = searchCache.search(jiraInjectables, projectConfig, boardOwner);
 
             final BulkIssueLoadStrategy issueLoadStrategy = BulkIssueLoadStrategy.create(this);
             List<Issue.Builder> issueBuilders = new ArrayList<>();
-            for (com.atlassian.jira.issue.Issue jiraIssue : searchResults.getIssues()) {
+            for (com.atlassian.jira.issue.Issue jiraIssue : jiraIssues) {
                 Issue.Builder issueBuilder = Issue.builder(this, issueLoadStrategy);
                 issueBuilder.load(jiraIssue);
                 issueBuilders.add(issueBuilder);
                 if (!board.getBlacklist().isBlackListed(jiraIssue.getKey())) {
-                    rankedIssueKeys.add(jiraIssue.getKey());
+                    rankedIssueKeys.add(StringInterner.intern(jiraIssue.getKey()));
                 }
             }
             issueBuilders.forEach(issueBuilder -> {
                 Issue issue = issueBuilder.build();
                 if (issue != null) {
-                    addIssue(issue.getState(), issue);
+                    addIssue(issue);
                 }});
         }
 
         BoardProject build() {
             return new BoardProject(
                     projectConfig,
-                    Collections.unmodifiableList(rankedIssueKeys),
+                    RankedSequence.copyOf(rankedIssueKeys),
+                    splitByState(projectConfig, rankedIssueKeys, stateIndices::get),
                     Collections.unmodifiableMap(parallelTaskValues));
         }
 
@@ -370,10 +486,18 @@ public class BoardProject {
      * Used to update an existing board
      */
     static class Updater extends Accessor {
+        //When more than one in this many of the issues get reloaded in one go, rebuild the ranking from the search
+        //rather than placing each reloaded issue
+        private static final int FULL_RERANK_RATIO = 4;
+
         private final BoardProject project;
         private final NextRankedIssueUtil nextRankedIssueUtil;
         private Issue newIssue;
-        private List<String> rankedIssueKeys;
+        private RankedSequence<String> rankedIssueKeys;
+        //The issues which were added, moved or removed, and the index of their new state, or -1 if removed
+        private final Map<String, Integer> movedIssues = new HashMap<>();
+        //Set if the whole ranking was replaced
+        private RankedSequence<String>[] rankedIssueKeysByState;
 
 
         Updater(JiraInjectables jiraInjectables, NextRankedIssueUtil nextRankedIssueUtil, Board.Accessor board, BoardProject project,
@@ -385,8 +509,8 @@ public class BoardProject {
         }
 
         Issue createIssue(String issueKey, String issueType, String priority, String summary,
-                          Assignee assignee, Set<Component> issueComponents,
-                          Set<Label> labels, Set<FixVersion> fixVersions, String state,
+                          Assignee assignee, int[] issueComponents,
+                          int[] labels, int[] fixVersions, String state,
                           Map<String, CustomFieldValue> customFieldValues, Map<Integer, Integer> parallelTaskValues) throws SearchException {
             JirbanLogger.LOGGER.debug("BoardProject.Updater.createIssue - {}", issueKey);
             newIssue = Issue.createForCreateEvent(
@@ -396,13 +520,14 @@ public class BoardProject {
 
             if (newIssue != null) {
                 rankedIssueKeys = rankIssues(issueKey);
+                movedIssues.put(issueKey, newIssue.getStateIndex());
             }
             return newIssue;
         }
 
         Issue updateIssue(Issue existing, String issueType, String priority, String summary,
-                          Assignee issueAssignee, Set<Component> issueComponents,
-                          Set<Label> labels, Set<FixVersion> fixVersions, boolean reranked,
+                          Assignee issueAssignee, int[] issueComponents,
+                          int[] labels, int[] fixVersions, boolean reranked,
                           String state, Map<String, CustomFieldValue> customFieldValues,
                           Map<Integer, Integer> parallelTaskValues) throws SearchException {
             JirbanLogger.LOGGER.debug("BoardProject.Updater.updateIssue - {}, rankOrStateChanged: {}", existing.getKey(), reranked);
@@ -413,12 +538,15 @@ public class BoardProject {
             if (reranked) {
                 rankedIssueKeys = rankIssues(existing.getKey());
             }
+            if (reranked || newIssue != null) {
+                movedIssues.put(existing.getKey(), (newIssue != null ? newIssue : existing).getStateIndex());
+            }
             return newIssue;
         }
 
         void deleteIssue(Issue issue) {
-            rankedIssueKeys = new ArrayList<>(project.rankedIssueKeys);
-            rankedIssueKeys.remove(issue.getKey());
+            rankedIssueKeys = project.rankedIssueKeys.minus(issue.getKey());
+            movedIssues.put(issue.getKey(), -1);
         }
 
         public Map<String, SortedParallelTaskFieldOptions> getParallelTaskValues() {
@@ -426,68 +554,229 @@ public class BoardProject {
         }
 
 
-        List<String> rankIssues(String issueKey) throws SearchException {
+        RankedSequence<String> rankIssues(String issueKey) throws SearchException {
             String nextIssueKey = nextRankedIssueUtil.findNextRankedIssue(this.projectConfig, boardOwner, issueKey);
             //If the next issue is blacklisted, keep searching until we find the next valid one
             while (nextIssueKey != null && board.getBlacklist().isBlackListed(nextIssueKey)) {
                 nextIssueKey = nextRankedIssueUtil.findNextRankedIssue(this.projectConfig, boardOwner, nextIssueKey);
             }
-            final List<String> newRankedKeys = new ArrayList<>();
-            if (nextIssueKey == null) {
-                //Add it at the end
-                project.rankedIssueKeys.forEach(key -> {
-                    if (!key.equals(issueKey)) {
-                        //Don't copy the one we are moving to the end
-                        newRankedKeys.add(key);
-                    }
-                });
-                newRankedKeys.add(issueKey);
-            } else {
-                final String nextKey = nextIssueKey;
-                //Remove it from the middle and add it at the end
-                project.rankedIssueKeys.forEach(key -> {
-                    if (key.equals(nextKey)) {
-                        newRankedKeys.add(issueKey);
-                    }
-                    if (!key.equals(issueKey)) {
-                        newRankedKeys.add(key);
-                    }
-                });
-            }
-            return new ArrayList<>(newRankedKeys);
+            //Moves the issue if it is already there. A null next issue key adds it at the end
+            return project.rankedIssueKeys.insertBefore(issueKey, nextIssueKey);
         }
 
         Issue loadSingleIssue(String issueKey) throws SearchException {
             JirbanLogger.LOGGER.debug("BoardProject.Updater.loadSingleIssue - {}", issueKey);
-            JqlQueryBuilder queryBuilder = JqlQueryBuilder.newBuilder();
-            queryBuilder.where().issue(issueKey);
-
-            final SearchService searchService = jiraInjectables.getSearchService();
-
-            SearchResults searchResults =
-                    searchService.search(boardOwner, queryBuilder.buildQuery(), PagerFilter.getUnlimitedFilter());
-
-            List<com.atlassian.jira.issue.Issue> issues = searchResults.getIssues();
-            if (issues.size() == 0) {
+            final com.atlassian.jira.issue.Issue jiraIssue = findSingleIssue(jiraInjectables, boardOwner, issueKey);
+            if (jiraIssue == null) {
                 JirbanLogger.LOGGER.debug("BoardProject.Updater.loadSingleIssue - no issue found");
                 return null;
             }
             Issue.Builder issueBuilder = Issue.builder(this, null);
-            issueBuilder.load(issues.get(0));
+            issueBuilder.load(jiraIssue);
             newIssue = issueBuilder.build();
             JirbanLogger.LOGGER.debug("BoardProject.Updater.loadSingleIssue - found {}", newIssue);
             rankedIssueKeys = rankIssues(issueKey);
+            if (newIssue != null) {
+                movedIssues.put(issueKey, newIssue.getStateIndex());
+            }
+            return newIssue;
+        }
+
+        Issue reloadIssue(com.atlassian.jira.issue.Issue jiraIssue) throws SearchException {
+            loadIssue(jiraIssue);
+            if (newIssue != null) {
+                rankedIssueKeys = rankIssues(jiraIssue.getKey());
+                movedIssues.put(jiraIssue.getKey(), newIssue.getStateIndex());
+            }
+            return newIssue;
+        }
+
+        //Loads the issue without ranking it. Used when reloading several issues at once
+        Issue loadIssue(com.atlassian.jira.issue.Issue jiraIssue) {
+            JirbanLogger.LOGGER.debug("BoardProject.Updater.loadIssue - {}", jiraIssue.getKey());
+            Issue.Builder issueBuilder = Issue.builder(this, null);
+            issueBuilder.load(jiraIssue);
+            newIssue = issueBuilder.build();
             return newIssue;
         }
 
+        /**
+         * Used when reloading several issues at once. The issues which were not reloaded keep their relative order,
+         * so each reloaded issue gets placed in front of the next of those in the rank order returned by the search.
+         * If a large part of the project was reloaded, it is cheaper to take the whole ranking from the search.
+         *
+         * @param rankedIssueKeys the keys of the issues of the project which belong on the board, in rank order
+         * @param issueKeys the keys of the reloaded issues
+         * @param issues looks up the issues on the updated board, returning {@code null} if not on the board
+         * @return {@code true} if the whole ranking was taken from the search, in which case the issues which are no
+         *          longer returned by it are dropped from the ranking
+         */
+        boolean rankReloadedIssues(List<String> rankedIssueKeys, Set<String> issueKeys, Function<String, Issue> issues) {
+            if (issueKeys.size() * FULL_RERANK_RATIO > project.rankedIssueKeys.size()) {
+                final List<String> boardIssueKeys = new ArrayList<>();
+                for (String issueKey : rankedIssueKeys) {
+                    if (issues.apply(issueKey) != null) {
+                        boardIssueKeys.add(issueKey);
+                    }
+                }
+                setRankedIssueKeys(boardIssueKeys, issues);
+                return true;
+            }
+            RankedSequence<String> ranked = project.rankedIssueKeys;
+            for (String issueKey : issueKeys) {
+                ranked = ranked.minus(issueKey);
+                movedIssues.put(issueKey, -1);
+            }
+            //Go backwards so that the issues following the one being placed are in place
+            String nextIssueKey = null;
+            for (int i = rankedIssueKeys.size() - 1 ; i >= 0 ; i--) {
+                final String issueKey = rankedIssueKeys.get(i);
+                final Issue issue = issues.apply(issueKey);
+                if (issue == null) {
+                    continue;
+                }
+                if (issueKeys.contains(issueKey)) {
+                    ranked = ranked.insertBefore(issueKey, nextIssueKey);
+                    movedIssues.put(issueKey, issue.getStateIndex());
+                }
+                nextIssueKey = issueKey;
+            }
+            this.rankedIssueKeys = ranked;
+            return false;
+        }
+
+        //Used when the ranking comes straight from the search
+        void setRankedIssueKeys(List<String> rankedIssueKeys, Function<String, Issue> issues) {
+            this.rankedIssueKeys = RankedSequence.copyOf(rankedIssueKeys);
+            this.rankedIssueKeysByState = splitByState(projectConfig, rankedIssueKeys,
+                    issueKey -> issues.apply(issueKey).getStateIndex());
+            movedIssues.clear();
+        }
+
         BoardProject build() throws SearchException {
 
             //Update the ranked issue list if a rerank was done
-            List<String> rankedIssueKeys =
-                    this.rankedIssueKeys != null ?
-                            Collections.unmodifiableList(this.rankedIssueKeys) : project.rankedIssueKeys;
+            RankedSequence<String> rankedIssueKeys =
+                    this.rankedIssueKeys != null ? this.rankedIssueKeys : project.rankedIssueKeys;
+
+            RankedSequence<String>[] rankedIssueKeysByState = this.rankedIssueKeysByState;
+            if (rankedIssueKeysByState == null) {
+                rankedIssueKeysByState = project.rankedIssueKeysByState;
+                if (movedIssues.size() > 0) {
+                    //The other issues keep their relative order, so only the moved ones need placing. Take all of
+                    //them out first, so that the states are in rank order when placing each one
+                    rankedIssueKeysByState = rankedIssueKeysByState.clone();
+                    for (String issueKey : movedIssues.keySet()) {
+                        removeFromStates(rankedIssueKeysByState, issueKey);
+                    }
+                    for (Map.Entry<String, Integer> entry : movedIssues.entrySet()) {
+                        addToState(rankedIssueKeysByState, rankedIssueKeys, entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+
+            return new BoardProject(projectConfig, rankedIssueKeys, rankedIssueKeysByState, project.parallelTaskValues);
+        }
 
-            return new BoardProject(projectConfig, rankedIssueKeys, project.parallelTaskValues);
+        private static void removeFromStates(RankedSequence<String>[] rankedIssueKeysByState, String issueKey) {
+            for (int i = 0 ; i < rankedIssueKeysByState.length ; i++) {
+                rankedIssueKeysByState[i] = rankedIssueKeysByState[i].minus(issueKey);
+            }
+        }
+
+        private static void addToState(RankedSequence<String>[] rankedIssueKeysByState, RankedSequence<String> rankedIssueKeys,
+                                       String issueKey, int stateIndex) {
+            final int rank = rankedIssueKeys.indexOf(issueKey);
+            if (stateIndex < 0 || rank < 0) {
+                return;
+            }
+            //Find the first issue in the state ranked after the moved one
+            final RankedSequence<String> issueKeys = rankedIssueKeysByState[stateIndex];
+            int low = 0;
+            int high = issueKeys.size();
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (rankedIssueKeys.indexOf(issueKeys.get(middle)) < rank) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            rankedIssueKeysByState[stateIndex] =
+                    issueKeys.insertBefore(issueKey, low < issueKeys.size() ? issueKeys.get(low) : null);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static RankedSequence<String>[] splitByState(BoardProjectConfig projectConfig, List<String> rankedIssueKeys,
+                                                         Function<String, Integer> stateIndices) {
+        final List<List<String>> issueKeysByState = new ArrayList<>();
+        for (int i = 0 ; i < projectConfig.getStateNames().size() ; i++) {
+            issueKeysByState.add(new ArrayList<>());
+        }
+        for (String issueKey : rankedIssueKeys) {
+            issueKeysByState.get(stateIndices.apply(issueKey)).add(issueKey);
+        }
+        final RankedSequence<String>[] rankedIssueKeysByState = new RankedSequence[issueKeysByState.size()];
+        for (int i = 0 ; i < rankedIssueKeysByState.length ; i++) {
+            rankedIssueKeysByState[i] = RankedSequence.copyOf(issueKeysByState.get(i));
+        }
+        return rankedIssueKeysByState;
+    }
+
+    /**
+     * Merges the issue keys of several states back into rank order
+     */
+    private static class RankOrderIterator implements Iterator<String> {
+        private final RankedSequence<String> rankedIssueKeys;
+        private final List<Iterator<String>> iterators = new ArrayList<>();
+        private final String[] heads;
+        private final int[] headRanks;
+
+        RankOrderIterator(RankedSequence<String> rankedIssueKeys, List<RankedSequence<String>> issueKeysByState) {
+            this.rankedIssueKeys = rankedIssueKeys;
+            this.heads = new String[issueKeysByState.size()];
+            this.headRanks = new int[issueKeysByState.size()];
+            for (int i = 0 ; i < heads.length ; i++) {
+                iterators.add(issueKeysByState.get(i).iterator());
+                advance(i);
+            }
+        }
+
+        private void advance(int i) {
+            final Iterator<String> iterator = iterators.get(i);
+            if (iterator.hasNext()) {
+                heads[i] = iterator.next();
+                headRanks[i] = rankedIssueKeys.indexOf(heads[i]);
+            } else {
+                heads[i] = null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            for (String head : heads) {
+                if (head != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String next() {
+            int next = -1;
+            for (int i = 0 ; i < heads.length ; i++) {
+                if (heads[i] != null && (next < 0 || headRanks[i] < headRanks[next])) {
+                    next = i;
+                }
+            }
+            if (next < 0) {
+                throw new NoSuchElementException();
+            }
+            final String key = heads[next];
+            advance(next);
+            return key;
         }
     }
 
@@ -505,10 +794,11 @@ public class BoardProject {
             return linkedProjectConfig;
         }
 
-        Integer getStateIndexRecordingMissing(String projectCode, String issueKey, String stateName) {
+        int getStateIndexRecordingMissing(String projectCode, String issueKey, String stateName) {
             final Integer index = linkedProjectConfig.getStateIndex(stateName);
             if (index == null) {
                 board.addMissingState(issueKey, stateName);
+                return -1;
             }
             return index;
         }
@@ -16,13 +16,6 @@
 
 package org.jirban.jira.impl.board;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
-
 import org.jirban.jira.impl.JiraInjectables;
 import org.jirban.jira.impl.config.CustomFieldConfig;
 
@@ -43,16 +36,6 @@ public abstract class CustomFieldUtil {
 
     abstract BulkLoadContext<?> createBulkLoadContext(BoardProject.Builder project, CustomFieldConfig customFieldConfig);
 
-    public Map<String, CustomFieldValue> sortFields(Map<String, CustomFieldValue> fields) {
-        List<CustomFieldValue> fieldValues = new ArrayList<>(fields.values());
-        Collections.sort(fieldValues, Comparator.comparing(CustomFieldValue::getValueForComparator, String.CASE_INSENSITIVE_ORDER));
-        LinkedHashMap<String, CustomFieldValue> result = new LinkedHashMap<>();
-        for (CustomFieldValue field : fieldValues) {
-            result.put(field.getKey(), field);
-        }
-        return result;
-    }
-
     public static CustomFieldUtil getUtil(CustomFieldConfig config) {
         switch (config.getType()) {
             case USER:
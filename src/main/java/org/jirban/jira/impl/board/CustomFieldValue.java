@@ -20,6 +20,7 @@ import static org.jirban.jira.impl.Constants.KEY;
 import static org.jirban.jira.impl.Constants.VALUE;
 
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,9 +40,18 @@ import com.atlassian.jira.issue.fields.CustomField;
  */
 public class CustomFieldValue {
 
+    /**
+     * The order the values of a custom field are shown in. This is by value ignoring case, like
+     * {@link String#CASE_INSENSITIVE_ORDER}, and then by key for values which only differ in case or are the same.
+     */
+    static final Comparator<CustomFieldValue> COMPARATOR =
+            Comparator.comparing(CustomFieldValue::getCollationKey).thenComparing(CustomFieldValue::getKey);
+
     private final String customFieldName;
     private final String key;
     private final String value;
+    //The value with the case folded, worked out once so that comparing values does not need to fold it every time
+    private final String collationKey;
 
     //Jira's event mechanism seems to use an empty string to unset custom fields
     public static final String UNSET_VALUE = "";
@@ -50,6 +60,7 @@ public class CustomFieldValue {
         this.customFieldName = customFieldName;
         this.key = key;
         this.value = value;
+        this.collationKey = createCollationKey(value);
     }
 
     static Map<String, CustomFieldValue> loadCustomFieldValues(final BoardProject.Accessor project, final Issue issue) {
@@ -186,4 +197,28 @@ public class CustomFieldValue {
         return value;
     }
 
+    String getCollationKey() {
+        return collationKey;
+    }
+
+    private static String createCollationKey(String value) {
+        if (value == null) {
+            return "";
+        }
+        char[] chars = null;
+        for (int i = 0 ; i < value.length() ; i++) {
+            final char c = value.charAt(i);
+            //This is how String.CASE_INSENSITIVE_ORDER compares characters
+            final char folded = Character.toLowerCase(Character.toUpperCase(c));
+            if (folded != c) {
+                if (chars == null) {
+                    chars = value.toCharArray();
+                }
+                chars[i] = folded;
+            }
+        }
+        //Values which are already folded, such as version numbers, share the string
+        return chars == null ? value : new String(chars);
+    }
+
 }
@@ -27,13 +27,17 @@ import static org.jirban.jira.impl.Constants.SUMMARY;
 import static org.jirban.jira.impl.Constants.TYPE;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.IntFunction;
 
 import org.jboss.dmr.ModelNode;
 import org.jirban.jira.impl.Constants;
@@ -45,6 +49,9 @@ import org.jirban.jira.impl.config.BoardProjectConfig;
 import org.jirban.jira.impl.config.LinkedProjectConfig;
 import org.jirban.jira.impl.config.ParallelTaskConfig;
 import org.jirban.jira.impl.config.ProjectConfig;
+import org.jirban.jira.impl.util.OffHeapStringArena;
+import org.jirban.jira.impl.util.OffHeapStringArena.OffHeapString;
+import org.jirban.jira.impl.util.StringInterner;
 
 import com.atlassian.jira.issue.link.IssueLink;
 import com.atlassian.jira.issue.link.IssueLinkManager;
@@ -59,14 +66,15 @@ public abstract class Issue {
 
     private final ProjectConfig project;
     private final String key;
-    private final String state;
-    private final Integer stateIndex;
-    private final String summary;
+    /** The index of the state in the project's own states. The name is looked up in the project config */
+    private final int stateIndex;
+    /** Either a {@code String}, or an {@link OffHeapString} if the board keeps the summaries off-heap */
+    private final CharSequence summary;
 
-    Issue(ProjectConfig project, String key, String state, Integer stateIndex, String summary) {
+    Issue(ProjectConfig project, String key, int stateIndex, CharSequence summary) {
         this.project = project;
-        this.key = key;
-        this.state = state;
+        //There is one of these per issue on every board, and per board copy for the changed issues
+        this.key = StringInterner.intern(key);
         this.stateIndex = stateIndex;
         this.summary = summary;
     }
@@ -76,27 +84,127 @@ public abstract class Issue {
     }
 
     public String getState() {
-        return state;
+        return project.getStateName(stateIndex);
     }
 
     public String getSummary() {
-        return summary;
+        return summary == null ? null : summary.toString();
     }
 
     public String getProjectCode() {
         return project.getCode();
     }
 
-    Integer getStateIndex() {
+    int getStateIndex() {
         return stateIndex;
     }
 
+    ProjectConfig getProjectConfig() {
+        return project;
+    }
+
+    /**
+     * Checks whether the issue is in one of the board's backlog states.
+     *
+     * @return {@code true} if the issue is in the backlog
+     */
+    boolean isInBacklogState() {
+        return false;
+    }
+
     boolean hasLinkedIssues() {
         return false;
     }
 
-    Iterable<LinkedIssue> getLinkedIssues() {
-        return () -> Collections.<LinkedIssue>emptySet().iterator();
+    /**
+     * Gets the keys of the linked issues. The linked issues themselves are held in the board's link table.
+     *
+     * @return the keys, sorted. Do not modify the returned array
+     */
+    String[] getLinkedIssueKeys() {
+        return NO_LINKED_ISSUE_KEYS;
+    }
+
+    Assignee getAssignee() {
+        return null;
+    }
+
+    Set<Component> getComponents(MultiSelectValueLookup lookup) {
+        return null;
+    }
+
+    Set<Label> getLabels(MultiSelectValueLookup lookup) {
+        return null;
+    }
+
+    Set<FixVersion> getFixVersions(MultiSelectValueLookup lookup) {
+        return null;
+    }
+
+    List<CustomFieldValue> getCustomFieldValues() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Checks whether the data sent to the clients for this issue is the same as for a reloaded copy of it. The
+     * linked issues are not checked, use {@link #hasSameLinkedIssues(Issue, LinkedIssueLookup, LinkedIssueLookup)}
+     * for those.
+     *
+     * @param other the reloaded issue
+     * @return {@code true} if the data is the same
+     */
+    boolean hasSameData(Issue other) {
+        return key.equals(other.key) && getState().equals(other.getState()) && Objects.equals(getSummary(), other.getSummary());
+    }
+
+    /**
+     * As {@link #hasSameData(Issue)}, for when the other issue may belong to a different board, so that the ids of
+     * its components, labels and fix versions need resolving with another lookup.
+     *
+     * @param other the reloaded issue
+     * @param lookup the lookup for this issue's multi-select values
+     * @param otherLookup the lookup for the other issue's multi-select values
+     * @return {@code true} if the data is the same
+     */
+    boolean hasSameData(Issue other, MultiSelectValueLookup lookup, MultiSelectValueLookup otherLookup) {
+        return hasSameData(other);
+    }
+
+    /**
+     * Checks whether the linked issues sent to the clients for this issue are the same as for a reloaded copy of it.
+     *
+     * @param other the reloaded issue
+     * @param lookup the lookup for this issue's linked issues
+     * @param otherLookup the lookup for the other issue's linked issues
+     * @return {@code true} if the linked issues are the same
+     */
+    boolean hasSameLinkedIssues(Issue other, LinkedIssueLookup lookup, LinkedIssueLookup otherLookup) {
+        final String[] linkedIssueKeys = getLinkedIssueKeys();
+        if (!Arrays.equals(linkedIssueKeys, other.getLinkedIssueKeys())) {
+            return false;
+        }
+        for (String linkedIssueKey : linkedIssueKeys) {
+            if (!lookup.getLinkedIssue(linkedIssueKey).hasSameData(otherLookup.getLinkedIssue(linkedIssueKey))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the linked issues to the serialized issue.
+     *
+     * @param issueNode the serialized issue
+     * @param lookup the lookup for the linked issues
+     */
+    void serializeLinkedIssues(ModelNode issueNode, LinkedIssueLookup lookup) {
+        final String[] linkedIssueKeys = getLinkedIssueKeys();
+        if (linkedIssueKeys.length > 0) {
+            final ModelNode linkedIssuesNode = issueNode.get(LINKED_ISSUES);
+            for (String linkedIssueKey : linkedIssueKeys) {
+                linkedIssuesNode.add(((Issue) lookup.getLinkedIssue(linkedIssueKey)).getBaseModelNode());
+            }
+        }
     }
 
     ModelNode getModelNodeForFullRefresh(Board board) {
@@ -107,8 +215,8 @@ public abstract class Issue {
     private ModelNode getBaseModelNode() {
         ModelNode issueNode = new ModelNode();
         issueNode.get(KEY).set(key);
-        issueNode.get(STATE).set(project.getStateIndex(state));
-        issueNode.get(SUMMARY).set(summary);
+        issueNode.get(STATE).set(stateIndex);
+        issueNode.get(SUMMARY).set(getSummary());
         return issueNode;
     }
 
@@ -133,16 +241,16 @@ public abstract class Issue {
      * @param issueType the issue's type
      * @param priority the priority
      * @param assignee the assignee
-     * @param components the components
-     * @param labels the labels
-     * @param fixVersions the fix versions
+     * @param components the sorted ids of the components
+     * @param labels the sorted ids of the labels
+     * @param fixVersions the sorted ids of the fix versions
      * @param customFieldValues the custom field values
      * @param parallelTaskValues the parallel task values
      * @return the issue
      */
     static Issue createForCreateEvent(BoardProject.Accessor project, String issueKey, String state,
                                       String summary, String issueType, String priority, Assignee assignee,
-                                      Set<Component> components, Set<Label> labels, Set<FixVersion> fixVersions,
+                                      int[] components, int[] labels, int[] fixVersions,
                                       Map<String, CustomFieldValue> customFieldValues,
                                       Map<Integer, Integer> parallelTaskValues) {
         Builder builder = new Builder(project, issueKey);
@@ -176,16 +284,16 @@ public abstract class Issue {
      * @param priority the new issue priority
      * @param summary the new issue summary
      * @param issueAssignee the new issue assignee
-     * @param issueComponents the new issue components
-     * @param labels the new issue labels
-     * @param fixVersions the new issue fix versions
+     * @param issueComponents the sorted ids of the new issue components
+     * @param labels the sorted ids of the new issue labels
+     * @param fixVersions the sorted ids of the new issue fix versions
      * @param state the state of the issue  @return the new issue
      * @param customFieldValues the custom field values
      * @param parallelTaskValues the parallel task values
      */
     static Issue copyForUpdateEvent(BoardProject.Accessor project, Issue existing, String issueType, String priority,
-                                    String summary, Assignee issueAssignee, Set<Component> issueComponents,
-                                    Set<Label> labels, Set<FixVersion> fixVersions,
+                                    String summary, Assignee issueAssignee, int[] issueComponents,
+                                    int[] labels, int[] fixVersions,
                                     String state, Map<String, CustomFieldValue> customFieldValues,
                                     Map<Integer, Integer> parallelTaskValues) {
         if (existing instanceof BoardIssue == false) {
@@ -197,8 +305,8 @@ public abstract class Issue {
     }
 
     private static Issue copyForUpdateEvent(BoardProject.Accessor project, BoardIssue existing, String issueType, String priority,
-                                            String summary, Assignee issueAssignee, Set<Component> issueComponents,
-                                            Set<Label> labels, Set<FixVersion> fixVersions,
+                                            String summary, Assignee issueAssignee, int[] issueComponents,
+                                            int[] labels, int[] fixVersions,
                                             String state, Map<String, CustomFieldValue> customFieldValues,
                                             Map<Integer, Integer> parallelTaskValues) {
         Builder builder = new Builder(project, existing);
@@ -227,7 +335,7 @@ public abstract class Issue {
         }
         if (issueComponents != null) {
             //A non-null component means it was updated.
-            if (issueComponents.size() == 0) {
+            if (issueComponents.length == 0) {
                 builder.setComponents(null);
                 changed = true;
             } else {
@@ -237,7 +345,7 @@ public abstract class Issue {
         }
         if (labels != null) {
             //A non-null labels means it was updated
-            if (labels.size() == 0) {
+            if (labels.length == 0) {
                 builder.setLabels(null);
                 changed = true;
             } else {
@@ -247,7 +355,7 @@ public abstract class Issue {
         }
         if (fixVersions != null) {
             //A non-null labels means it was updated
-            if (fixVersions.size() == 0) {
+            if (fixVersions.length == 0) {
                 builder.setFixVersions(null);
                 changed = true;
             } else {
@@ -273,102 +381,262 @@ public abstract class Issue {
         return null;
     }
 
-    abstract BoardChangeRegistry.IssueChange convertToCreateIssueChange(BoardChangeRegistry registry, BoardConfig boardConfig);
+    abstract BoardChangeRegistry.IssueChange convertToCreateIssueChange(BoardChangeRegistry registry, BoardConfig boardConfig,
+                                                                        MultiSelectValueLookup lookup);
 
+    /**
+     * Converts a reloaded issue to a change containing all its data, so that a client can replace its copy of the issue.
+     *
+     * @param registry the change registry
+     * @param boardConfig the board config
+     * @param existing the issue before the reload, or {@code null} if the issue is new
+     * @param lookup the lookup for this issue's multi-select values
+     * @return the change
+     */
+    abstract BoardChangeRegistry.IssueChange convertToReloadedIssueChange(BoardChangeRegistry registry, BoardConfig boardConfig,
+                                                                          Issue existing, MultiSelectValueLookup lookup);
+
+    /**
+     * Holds the fields of an issue in primitives and flat arrays rather than boxed indices and collections, since
+     * there is one of these for every issue on every board.
+     */
     private static class BoardIssue extends Issue {
         private final Assignee assignee;
-        private final Set<Component> components;
-        private final Set<Label> labels;
-        private final Set<FixVersion> fixVersions;
+        /** The sorted ids of the components in the board, or {@code null} if there are none */
+        private final int[] components;
+        /** The sorted ids of the labels in the board, or {@code null} if there are none */
+        private final int[] labels;
+        /** The sorted ids of the fix versions in the board, or {@code null} if there are none */
+        private final int[] fixVersions;
         /** The index of the issue type in the owning board config */
-        private final Integer issueTypeIndex;
+        private final int issueTypeIndex;
         /** The index of the priority in the owning board config */
-        private final Integer priorityIndex;
-        private final List<LinkedIssue> linkedIssues;
-        private final Map<String, CustomFieldValue> customFieldValues;
-        private final List<Integer> parallelTaskFieldValues;
-
-        public BoardIssue(BoardProjectConfig project, String key, String state, Integer stateIndex, String summary,
-                          Integer issueTypeIndex, Integer priorityIndex, Assignee assignee,
-                          Set<Component> components, Set<Label> labels, Set<FixVersion> fixVersions,
-                          List<LinkedIssue> linkedIssues,
-                          Map<String, CustomFieldValue> customFieldValues, List<Integer> parallelTaskFieldValues) {
-            super(project, key, state, stateIndex, summary);
+        private final int priorityIndex;
+        /** The keys of the linked issues in the board's link table, sorted */
+        private final String[] linkedIssueKeys;
+        /** The values of the project's custom fields, in the order of {@link BoardProjectConfig#getCustomFieldNames()}.
+         * Unset fields are {@code null} */
+        private final CustomFieldValue[] customFieldValues;
+        /** The option index of each parallel task, or {@code null} if the project has no parallel tasks */
+        private final int[] parallelTaskFieldValues;
+
+        public BoardIssue(BoardProjectConfig project, String key, int stateIndex, CharSequence summary,
+                          int issueTypeIndex, int priorityIndex, Assignee assignee,
+                          int[] components, int[] labels, int[] fixVersions,
+                          String[] linkedIssueKeys,
+                          CustomFieldValue[] customFieldValues, int[] parallelTaskFieldValues) {
+            super(project, key, stateIndex, summary);
             this.issueTypeIndex = issueTypeIndex;
             this.priorityIndex = priorityIndex;
             this.assignee = assignee;
             this.components = components;
             this.labels = labels;
             this.fixVersions = fixVersions;
-            this.linkedIssues = linkedIssues;
+            this.linkedIssueKeys = linkedIssueKeys;
             this.customFieldValues = customFieldValues;
             this.parallelTaskFieldValues = parallelTaskFieldValues;
         }
 
+        @Override
+        boolean isInBacklogState() {
+            return ((BoardProjectConfig) getProjectConfig()).isBacklogState(getStateIndex());
+        }
+
+        @Override
         boolean hasLinkedIssues() {
-            return linkedIssues.size() > 0;
+            return linkedIssueKeys.length > 0;
         }
 
-        Iterable<LinkedIssue> getLinkedIssues() {
-            return linkedIssues::iterator;
+        @Override
+        String[] getLinkedIssueKeys() {
+            return linkedIssueKeys;
+        }
+
+        @Override
+        Assignee getAssignee() {
+            return assignee;
+        }
+
+        @Override
+        Set<Component> getComponents(MultiSelectValueLookup lookup) {
+            return resolve(components, lookup::getComponent);
+        }
+
+        @Override
+        Set<Label> getLabels(MultiSelectValueLookup lookup) {
+            return resolve(labels, lookup::getLabel);
+        }
+
+        @Override
+        Set<FixVersion> getFixVersions(MultiSelectValueLookup lookup) {
+            return resolve(fixVersions, lookup::getFixVersion);
+        }
+
+        private static <T> Set<T> resolve(int[] ids, IntFunction<T> lookup) {
+            if (ids == null) {
+                return null;
+            }
+            final Set<T> values = new LinkedHashSet<>(ids.length);
+            for (int id : ids) {
+                values.add(lookup.apply(id));
+            }
+            return values;
+        }
+
+        @Override
+        List<CustomFieldValue> getCustomFieldValues() {
+            final List<CustomFieldValue> values = new ArrayList<>(customFieldValues.length);
+            for (CustomFieldValue value : customFieldValues) {
+                if (value != null) {
+                    values.add(value);
+                }
+            }
+            return values;
+        }
+
+        @Override
+        boolean hasSameData(Issue other) {
+            return hasSameData(other, null, null);
+        }
+
+        @Override
+        boolean hasSameData(Issue other, MultiSelectValueLookup lookup, MultiSelectValueLookup otherLookup) {
+            if (!super.hasSameData(other) || other instanceof BoardIssue == false) {
+                return false;
+            }
+            final BoardIssue otherIssue = (BoardIssue) other;
+            return issueTypeIndex == otherIssue.issueTypeIndex &&
+                    priorityIndex == otherIssue.priorityIndex &&
+                    Objects.equals(assignee == null ? null : assignee.getKey(),
+                            otherIssue.assignee == null ? null : otherIssue.assignee.getKey()) &&
+                    hasSameMultiSelectValues(otherIssue, lookup, otherLookup) &&
+                    hasSameCustomFieldKeys(otherIssue) &&
+                    Arrays.equals(parallelTaskFieldValues, otherIssue.parallelTaskFieldValues);
+        }
+
+        private boolean hasSameMultiSelectValues(BoardIssue other, MultiSelectValueLookup lookup, MultiSelectValueLookup otherLookup) {
+            if (lookup == otherLookup) {
+                //The ids come from the same board, so we can compare them directly
+                return Arrays.equals(components, other.components) &&
+                        Arrays.equals(labels, other.labels) &&
+                        Arrays.equals(fixVersions, other.fixVersions);
+            }
+            //The ids are handed out independently by each board, so compare the names
+            return Objects.equals(getNames(getComponents(lookup)), getNames(other.getComponents(otherLookup))) &&
+                    Objects.equals(getNames(getLabels(lookup)), getNames(other.getLabels(otherLookup))) &&
+                    Objects.equals(getNames(getFixVersions(lookup)), getNames(other.getFixVersions(otherLookup)));
+        }
+
+        private static Set<String> getNames(Set<? extends MultiSelectNameOnlyValue> values) {
+            if (values == null) {
+                return null;
+            }
+            final Set<String> names = new HashSet<>(values.size());
+            values.forEach(value -> names.add(value.getName()));
+            return names;
+        }
+
+        private boolean hasSameCustomFieldKeys(BoardIssue other) {
+            if (customFieldValues.length != other.customFieldValues.length) {
+                return false;
+            }
+            for (int i = 0 ; i < customFieldValues.length ; i++) {
+                final CustomFieldValue value = customFieldValues[i];
+                final CustomFieldValue otherValue = other.customFieldValues[i];
+                if (!Objects.equals(value == null ? null : value.getKey(), otherValue == null ? null : otherValue.getKey())) {
+                    return false;
+                }
+            }
+            return true;
         }
 
         @Override
         ModelNode getModelNodeForFullRefresh(Board board) {
-            final BoardProject boardProject = board.getBoardProject(getProjectCode());
             final ModelNode issueNode = super.getModelNodeForFullRefresh(board);
             issueNode.get(PRIORITY).set(priorityIndex);
             issueNode.get(TYPE).set(issueTypeIndex);
             if (assignee != null) {
                 //This map will always be populated
-                issueNode.get(ASSIGNEE).set(boardProject.getAssigneeIndex(assignee));
-            }
-            if (components != null) {
-                components.forEach(component -> issueNode.get(Constants.COMPONENTS).add(boardProject.getComponentIndex(component)));
+                issueNode.get(ASSIGNEE).set(board.getAssigneeId(assignee));
             }
-            if (labels != null) {
-                labels.forEach(label -> issueNode.get(Constants.LABELS).add(boardProject.getLabelIndex(label)));
-            }
-            if (fixVersions != null) {
-                fixVersions.forEach(fixVersion -> issueNode.get(Constants.FIX_VERSIONS).add(boardProject.getFixVersionIndex(fixVersion)));
-            }
-            if (customFieldValues.size() > 0) {
-                final ModelNode custom = issueNode.get(CUSTOM);
-                customFieldValues.values().forEach(
-                        customFieldValue -> custom.get(customFieldValue.getCustomFieldName()).set(boardProject.getCustomFieldValueIndex(customFieldValue)));
+            addIds(issueNode, Constants.COMPONENTS, components);
+            addIds(issueNode, Constants.LABELS, labels);
+            addIds(issueNode, Constants.FIX_VERSIONS, fixVersions);
+            for (CustomFieldValue customFieldValue : customFieldValues) {
+                if (customFieldValue != null) {
+                    issueNode.get(CUSTOM, customFieldValue.getCustomFieldName()).set(board.getCustomFieldIndex(customFieldValue));
+                }
             }
             if (parallelTaskFieldValues != null) {
                 final ModelNode parallel = issueNode.get(PARALLEL_TASKS).setEmptyList();
-                parallelTaskFieldValues.forEach(value -> parallel.add(value));
+                for (int value : parallelTaskFieldValues) {
+                    parallel.add(value);
+                }
             }
 
-            if (hasLinkedIssues()) {
-                final ModelNode linkedIssuesNode = issueNode.get(LINKED_ISSUES);
-                linkedIssues.forEach(linkedIssue -> linkedIssuesNode.add(linkedIssue.getModelNodeForFullRefresh(board)));
+            return issueNode;
+        }
+
+        private static void addIds(ModelNode issueNode, String name, int[] ids) {
+            if (ids != null) {
+                final ModelNode idsNode = issueNode.get(name);
+                for (int id : ids) {
+                    idsNode.add(id);
+                }
             }
+        }
 
-            return issueNode;
+        @Override
+        BoardChangeRegistry.IssueChange convertToCreateIssueChange(BoardChangeRegistry registry, BoardConfig boardConfig,
+                                                                   MultiSelectValueLookup lookup) {
+            String issueType = boardConfig.getIssueTypeName(issueTypeIndex);
+            String priority = boardConfig.getPriorityName(priorityIndex);
+            return registry.createCreateIssueChange(this, assignee, issueType, priority,
+                    getComponents(lookup), getLabels(lookup), getFixVersions(lookup));
         }
 
         @Override
-        BoardChangeRegistry.IssueChange convertToCreateIssueChange(BoardChangeRegistry registry, BoardConfig boardConfig) {
+        BoardChangeRegistry.IssueChange convertToReloadedIssueChange(BoardChangeRegistry registry, BoardConfig boardConfig,
+                                                                     Issue existing, MultiSelectValueLookup lookup) {
             String issueType = boardConfig.getIssueTypeName(issueTypeIndex);
             String priority = boardConfig.getPriorityName(priorityIndex);
-            return registry.createCreateIssueChange(this, assignee, issueType, priority, components, labels, fixVersions);
+
+            final Map<String, CustomFieldValue> customFieldValues = new HashMap<>();
+            if (existing != null) {
+                //Clear the fields which no longer have a value
+                existing.getCustomFieldValues().forEach(value -> customFieldValues.put(value.getCustomFieldName(), null));
+            }
+            getCustomFieldValues().forEach(value -> customFieldValues.put(value.getCustomFieldName(), value));
+            return registry.createReloadedIssueChange(this, existing == null, assignee, issueType, priority,
+                    getComponents(lookup), getLabels(lookup), getFixVersions(lookup), customFieldValues, parallelTaskFieldValues);
         }
     }
 
-    private static class LinkedIssue extends Issue {
-        public LinkedIssue(LinkedProjectConfig project, String key, String state, Integer stateIndex, String summary) {
-            super(project, key, state, stateIndex, summary);
+    /**
+     * An issue in one of the linked projects. There is one of these per linked issue in the board's link table, however
+     * many board issues link to it
+     */
+    static class LinkedIssue extends Issue {
+        public LinkedIssue(LinkedProjectConfig project, String key, int stateIndex, CharSequence summary) {
+            super(project, key, stateIndex, summary);
+        }
+
+        @Override
+        BoardChangeRegistry.IssueChange convertToCreateIssueChange(BoardChangeRegistry registry, BoardConfig boardConfig,
+                                                                   MultiSelectValueLookup lookup) {
+            throw new IllegalStateException("Not for linked issues");
         }
 
         @Override
-        BoardChangeRegistry.IssueChange convertToCreateIssueChange(BoardChangeRegistry registry, BoardConfig boardConfig) {
+        BoardChangeRegistry.IssueChange convertToReloadedIssueChange(BoardChangeRegistry registry, BoardConfig boardConfig,
+                                                                     Issue existing, MultiSelectValueLookup lookup) {
             throw new IllegalStateException("Not for linked issues");
         }
     }
 
+    private static final String[] NO_LINKED_ISSUE_KEYS = new String[0];
+    private static final CustomFieldValue[] NO_CUSTOM_FIELD_VALUES = new CustomFieldValue[0];
+
     /**
      * The builder for the board issues
      */
@@ -377,22 +645,26 @@ public abstract class Issue {
 
         private final IssueLoadStrategy issueLoadStrategy;
         private String issueKey;
-        private String summary;
+        //A String for a new summary, or the stored summary of the existing issue when updating
+        private CharSequence summary;
         private Assignee assignee;
-        private Set<Component> components;
-        private Set<Label> labels;
-        private Set<FixVersion> fixVersions;
-        private Integer issueTypeIndex;
-        private Integer priorityIndex;
+        private int[] components;
+        private int[] labels;
+        private int[] fixVersions;
+        private int issueTypeIndex = -1;
+        private int priorityIndex = -1;
         private String state;
-        private Integer stateIndex;
-        private Set<LinkedIssue> linkedIssues;
+        private int stateIndex = -1;
         //Will only be set for an update
-        private Map<String, CustomFieldValue> originalCustomFieldValues;
+        private String[] originalLinkedIssueKeys;
+        private Set<String> linkedIssueKeys;
+        //Will only be set for an update
+        private CustomFieldValue[] originalCustomFieldValues;
+        //Keyed by custom field name. A null value clears the field
         private Map<String, CustomFieldValue> customFieldValues;
 
         //Will only be set for an update
-        private List<Integer> originalParallelTaskValues;
+        private int[] originalParallelTaskValues;
         private Integer[] parallelTaskValues;
 
         private Builder(BoardProject.Accessor project, IssueLoadStrategy issueLoadStrategy) {
@@ -413,7 +685,7 @@ public abstract class Issue {
             this.project = project;
             this.issueKey = existing.getKey();
             this.issueLoadStrategy = new LazyLoadStrategy(project);
-            this.summary = existing.getSummary();
+            this.summary = ((Issue) existing).summary;
             this.assignee = existing.assignee;
             this.components = existing.components;
             this.labels = existing.labels;
@@ -422,13 +694,7 @@ public abstract class Issue {
             this.priorityIndex = existing.priorityIndex;
             this.state = existing.getState();
             this.stateIndex = existing.getStateIndex();
-            if (existing.linkedIssues.size() > 0) {
-                Set<LinkedIssue> linkedIssues = createLinkedIssueSet();
-                linkedIssues.addAll(existing.linkedIssues);
-                this.linkedIssues = Collections.unmodifiableSet(linkedIssues);
-            } else {
-                this.linkedIssues = Collections.emptySet();
-            }
+            this.originalLinkedIssueKeys = existing.linkedIssueKeys;
             this.originalCustomFieldValues = existing.customFieldValues;
             this.originalParallelTaskValues = existing.parallelTaskFieldValues;
         }
@@ -437,9 +703,9 @@ public abstract class Issue {
             issueKey = issue.getKey();
             summary = issue.getSummary();
             assignee = project.getAssignee(issue.getAssignee());
-            components = project.getComponents(issue.getComponentObjects());
-            labels = project.getLabels(issue.getLabels());
-            fixVersions = project.getFixVersions(issue.getFixVersions());
+            setComponents(project.getComponentIds(issue.getComponentObjects()));
+            setLabels(project.getLabelIds(issue.getLabels()));
+            setFixVersions(project.getFixVersionIds(issue.getFixVersions()));
             setIssueType(issue.getIssueTypeObject().getName());
             setPriority(issue.getPriorityObject().getName());
             setState(issue.getStatusObject().getName());
@@ -452,8 +718,6 @@ public abstract class Issue {
             addLinkedIssues(issueLinkManager.getInwardLinks(issue.getId()), false);
         }
 
-
-
         private Builder setIssueKey(String issueKey) {
             this.issueKey = issueKey;
             return this;
@@ -469,21 +733,20 @@ public abstract class Issue {
             return this;
         }
 
-        private Builder setComponents(Set<Component> components) {
-            return setMultiSelectNameOnlyValue(components, set -> this.components = set);
+        private Builder setComponents(int[] components) {
+            return setMultiSelectNameOnlyValue(components, ids -> this.components = ids);
         }
 
-        private Builder setLabels(Set<Label> labels) {
-            return setMultiSelectNameOnlyValue(labels, set -> this.labels = set);
+        private Builder setLabels(int[] labels) {
+            return setMultiSelectNameOnlyValue(labels, ids -> this.labels = ids);
         }
 
-        private Builder setFixVersions(Set<FixVersion> fixVersions) {
-            return setMultiSelectNameOnlyValue(fixVersions, set -> this.fixVersions = set);
+        private Builder setFixVersions(int[] fixVersions) {
+            return setMultiSelectNameOnlyValue(fixVersions, ids -> this.fixVersions = ids);
         }
 
-        private <T extends MultiSelectNameOnlyValue> Builder setMultiSelectNameOnlyValue(
-                Set<T> values, Consumer<Set<T>> consumer) {
-            if (values == null || values.size() == 0) {
+        private Builder setMultiSelectNameOnlyValue(int[] values, Consumer<int[]> consumer) {
+            if (values == null || values.length == 0) {
                 consumer.consume(null);
             } else {
                 consumer.consume(values);
@@ -516,100 +779,107 @@ public abstract class Issue {
             }
             for (IssueLink link : links) {
                 com.atlassian.jira.issue.Issue linkedIssue = outbound ? link.getDestinationObject() : link.getSourceObject();
-                String linkedProjectKey = linkedIssue.getProjectObject().getKey();
-                BoardProject.LinkedProjectContext linkedProjectContext = project.getLinkedProjectContext(linkedProjectKey);
-                if (linkedProjectContext == null) {
-                    //This was not set up as one of the linked projects we are interested in
-                    continue;
-                }
-                String stateName = linkedIssue.getStatusObject().getName();
-                Integer stateIndex = linkedProjectContext.getStateIndexRecordingMissing(linkedProjectContext.getCode(), linkedIssue.getKey(), stateName);
-                if (stateIndex != null) {
-                    if (linkedIssues == null) {
-                        linkedIssues = createLinkedIssueSet();
+                //Issues linking to the same issue share the entry in the link table, so only look it up once per load
+                LinkedIssue loaded = project.getLoadedLinkedIssue(linkedIssue.getKey());
+                if (loaded == null) {
+                    String linkedProjectKey = linkedIssue.getProjectObject().getKey();
+                    BoardProject.LinkedProjectContext linkedProjectContext = project.getLinkedProjectContext(linkedProjectKey);
+                    if (linkedProjectContext == null) {
+                        //This was not set up as one of the linked projects we are interested in
+                        continue;
+                    }
+                    String stateName = linkedIssue.getStatusObject().getName();
+                    int stateIndex = linkedProjectContext.getStateIndexRecordingMissing(linkedProjectContext.getCode(), linkedIssue.getKey(), stateName);
+                    if (stateIndex < 0) {
+                        continue;
                     }
-                    linkedIssues.add(new LinkedIssue(linkedProjectContext.getConfig(), linkedIssue.getKey(),
-                            stateName, stateIndex, linkedIssue.getSummary()));
+                    loaded = new LinkedIssue(linkedProjectContext.getConfig(), linkedIssue.getKey(),
+                            stateIndex, storeSummary(linkedIssue.getSummary()));
+                    project.addLinkedIssue(loaded);
                 }
+                if (linkedIssueKeys == null) {
+                    linkedIssueKeys = new TreeSet<>();
+                }
+                linkedIssueKeys.add(loaded.getKey());
             }
         }
 
-        private TreeSet<LinkedIssue> createLinkedIssueSet() {
-            return new TreeSet<>(new Comparator<LinkedIssue>() {
-                @Override
-                public int compare(LinkedIssue o1, LinkedIssue o2) {
-                    return o1.getKey().compareTo(o2.getKey());
-                }
-            });
+        private CharSequence storeSummary(CharSequence summary) {
+            if (summary instanceof String) {
+                final OffHeapStringArena summaryArena = project.getSummaryArena();
+                return summaryArena == null ?
+                        StringInterner.intern((String) summary) : summaryArena.add((String) summary);
+            }
+            //Null, or the already stored summary of the issue being updated
+            return summary;
         }
 
         Issue build() {
             issueLoadStrategy.finish();
-            if (issueTypeIndex != null && priorityIndex != null && stateIndex != null) {
-                List<LinkedIssue> linkedList = linkedIssues == null ?
-                        Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(linkedIssues));
+            if (issueTypeIndex >= 0 && priorityIndex >= 0 && stateIndex >= 0) {
+                final String[] linkedArray;
+                if (linkedIssueKeys != null) {
+                    linkedArray = linkedIssueKeys.toArray(new String[linkedIssueKeys.size()]);
+                } else {
+                    linkedArray = originalLinkedIssueKeys != null ? originalLinkedIssueKeys : NO_LINKED_ISSUE_KEYS;
+                }
 
-                //Map<String, CustomFieldValue> builtCustomFieldValues
                 return new BoardIssue(
-                        project.getConfig(), issueKey, state, stateIndex, summary,
+                        project.getConfig(), issueKey, stateIndex, storeSummary(summary),
                         issueTypeIndex, priorityIndex, assignee, components,
                         labels, fixVersions,
-                        linkedList,
+                        linkedArray,
                         mergeCustomFieldValues(), mergeParallelTaskFieldValues());
             }
             return null;
         }
 
-        private Map<String, CustomFieldValue> mergeCustomFieldValues() {
-            if (originalCustomFieldValues == null) {
-                //We are creating a new issue
-                return customFieldValues == null ? Collections.emptyMap() : Collections.unmodifiableMap(customFieldValues);
-            } else {
-                if (customFieldValues == null) {
-                    return originalCustomFieldValues;
+        private CustomFieldValue[] mergeCustomFieldValues() {
+            if (customFieldValues == null && originalCustomFieldValues != null) {
+                return originalCustomFieldValues;
+            }
+            final List<String> customFieldNames = project.getConfig().getCustomFieldNames();
+            if (customFieldNames.size() == 0) {
+                return NO_CUSTOM_FIELD_VALUES;
+            }
+            final CustomFieldValue[] merged = originalCustomFieldValues == null ?
+                    new CustomFieldValue[customFieldNames.size()] : originalCustomFieldValues.clone();
+            if (customFieldValues != null) {
+                for (int i = 0 ; i < merged.length ; i++) {
+                    final String name = customFieldNames.get(i);
+                    if (customFieldValues.containsKey(name)) {
+                        merged[i] = customFieldValues.get(name);
+                    }
                 }
-                Map<String, CustomFieldValue> merged = new HashMap<>(originalCustomFieldValues);
-                customFieldValues.entrySet().forEach(entry -> {
-                    if (entry.getValue() == null) {
-                        merged.remove(entry.getKey());
-                    } else {
-                        merged.put(entry.getKey(), entry.getValue());
-                    }});
-
-                return Collections.unmodifiableMap(merged);
             }
+            return merged;
         }
 
-        private List<Integer> mergeParallelTaskFieldValues() {
+        private int[] mergeParallelTaskFieldValues() {
             if (originalParallelTaskValues == null) {
                 //We are creating a new issue
                 initialiseParallelTaskValues();
                 if (parallelTaskValues == null) {
                     return null;
                 }
-                List<Integer> values = new ArrayList<>();
+                final int[] values = new int[parallelTaskValues.length];
                 for (int i = 0 ; i < parallelTaskValues.length ; i++) {
                     Integer val = parallelTaskValues[i];
-                    if (val == null) {
-                        val = 0;
-                    }
-                    values.add(val);
+                    values[i] = val == null ? 0 : val;
                 }
-                return Collections.unmodifiableList(values);
+                return values;
             } else {
                 if (parallelTaskValues == null) {
                     return originalParallelTaskValues;
                 }
-                List<Integer> merged = new ArrayList<>();
-                for (int i = 0 ; i < originalParallelTaskValues.size() ; i++) {
+                final int[] merged = originalParallelTaskValues.clone();
+                for (int i = 0 ; i < merged.length ; i++) {
                     Integer newVal = parallelTaskValues[i];
                     if (newVal != null) {
-                        merged.add(newVal);
-                    } else {
-                        merged.add(originalParallelTaskValues.get(i));
+                        merged[i] = newVal;
                     }
                 }
-                return Collections.unmodifiableList(merged);
+                return merged;
             }
         }
 
@@ -624,7 +894,7 @@ public abstract class Issue {
             if (customFieldValues == null) {
                 customFieldValues = new HashMap<>();
             }
-            customFieldValues.put(value.getKey(), value);
+            customFieldValues.put(value.getCustomFieldName(), value);
             return this;
         }
 
@@ -670,8 +940,6 @@ public abstract class Issue {
             this.project = project;
         }
 
-
-
         @Override
         public void handle(com.atlassian.jira.issue.Issue issue, Builder builder) {
             builder.setCustomFieldValues(CustomFieldValue.loadCustomFieldValues(project, issue));
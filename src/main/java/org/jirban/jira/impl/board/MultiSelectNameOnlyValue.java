@@ -16,6 +16,7 @@
 package org.jirban.jira.impl.board;
 
 import org.jboss.dmr.ModelNode;
+import org.jirban.jira.impl.util.StringInterner;
 
 /**
  * Base class for things like Component, Fix Version, Label which can all have more than one entry set per issue
@@ -26,7 +27,7 @@ public abstract class MultiSelectNameOnlyValue {
     private final String name;
 
     protected MultiSelectNameOnlyValue(String name) {
-        this.name = name;
+        this.name = StringInterner.intern(name);
     }
 
     public String getName() {
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl.board;
+
+import org.jirban.jira.impl.board.MultiSelectNameOnlyValue.Component;
+import org.jirban.jira.impl.board.MultiSelectNameOnlyValue.FixVersion;
+import org.jirban.jira.impl.board.MultiSelectNameOnlyValue.Label;
+
+/**
+ * The issues only store the ids of their components, labels and fix versions. This looks up the values for the ids
+ * in the board, or board update, the issue belongs to.
+ *
+ * @author Kabir Khan
+ */
+interface MultiSelectValueLookup {
+    Component getComponent(int id);
+
+    Label getLabel(int id);
+
+    FixVersion getFixVersion(int id);
+}
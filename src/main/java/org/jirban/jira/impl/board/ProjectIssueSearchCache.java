@@ -0,0 +1,191 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl.board;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.jirban.jira.JirbanLogger;
+import org.jirban.jira.impl.JiraInjectables;
+import org.jirban.jira.impl.config.BoardProjectConfig;
+
+import com.atlassian.jira.issue.search.SearchException;
+import com.atlassian.jira.user.ApplicationUser;
+
+/**
+ * Shares the search for the issues of a project between the boards containing it. Several boards often include the
+ * same project with the same query-filter, and get loaded or rebuilt at around the same time, e.g. by the board warmer
+ * or when their refresh entries expire together. Rather than each of them running the same query and hydrating the
+ * same issues, the first one to load the project does the search, and the others loading it while that is in progress,
+ * or within the cache period after it finished, get the same results.
+ * <p>
+ * The search only depends on the project, its done states, its query-filter and the board owner doing the search, so
+ * that is what the results are keyed by. Building the board issues from the results is still done per board, since
+ * they are indexed against the states, priorities, issue types and custom field values of each board's config.
+ * <p>
+ * Any event for a project throws out its cached results, so a board never gets given results which are older than
+ * an event it has not seen. A board which joins a search started before an event has started its own load before the
+ * event as well, so it replays the event like for any other load.
+ *
+ * @author Kabir Khan
+ */
+public class ProjectIssueSearchCache {
+
+    private final long cacheMillis;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param cacheMillis how long to keep the results once the search is done. If 0, the results are only shared with
+     *                    the boards loading the project while the search is in progress
+     */
+    public ProjectIssueSearchCache(long cacheMillis) {
+        this.cacheMillis = cacheMillis;
+    }
+
+    /**
+     * Gets the issues of the project which belong on the board, in rank order.
+     *
+     * @param jiraInjectables the jira injectables
+     * @param projectConfig the project config
+     * @param boardOwner the board owner
+     * @return the issues. Do not modify the returned list
+     * @throws SearchException if the search failed
+     */
+    List<com.atlassian.jira.issue.Issue> search(JiraInjectables jiraInjectables, BoardProjectConfig projectConfig,
+                                                ApplicationUser boardOwner) throws SearchException {
+        final long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+
+        final Key key = new Key(projectConfig, boardOwner);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            final Entry newEntry = new Entry(new Callable<List<com.atlassian.jira.issue.Issue>>() {
+                @Override
+                public List<com.atlassian.jira.issue.Issue> call() throws Exception {
+                    return Collections.unmodifiableList(
+                            BoardProject.searchIssues(jiraInjectables, projectConfig, boardOwner, null));
+                }
+            });
+            entry = entries.putIfAbsent(key, newEntry);
+            if (entry == null) {
+                //We are the first to load the project, so do the search in this thread
+                entry = newEntry;
+                entry.run();
+            } else {
+                JirbanLogger.LOGGER.debug("ProjectIssueSearchCache - Sharing the search for {}", projectConfig.getCode());
+            }
+        } else {
+            JirbanLogger.LOGGER.debug("ProjectIssueSearchCache - Sharing the search for {}", projectConfig.getCode());
+        }
+        try {
+            return entry.getResult();
+        } catch (SearchException | RuntimeException e) {
+            //Don't give the failure to the next board loading the project
+            entries.remove(key, entry);
+            throw e;
+        }
+    }
+
+    /**
+     * Throws out the results for a project, e.g. because an issue in it changed.
+     *
+     * @param projectCode the project code
+     */
+    public void invalidate(String projectCode) {
+        entries.keySet().removeIf(key -> key.projectCode.equals(projectCode));
+    }
+
+    private static class Key {
+        private final String projectCode;
+        private final Set<String> doneStateNames;
+        private final String queryFilter;
+        private final String boardOwnerKey;
+
+        Key(BoardProjectConfig projectConfig, ApplicationUser boardOwner) {
+            this.projectCode = projectConfig.getCode();
+            this.doneStateNames = projectConfig.getOwnDoneStateNames();
+            this.queryFilter = projectConfig.getQueryFilter();
+            this.boardOwnerKey = boardOwner == null ? null : boardOwner.getKey();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return projectCode.equals(key.projectCode) &&
+                    doneStateNames.equals(key.doneStateNames) &&
+                    Objects.equals(queryFilter, key.queryFilter) &&
+                    Objects.equals(boardOwnerKey, key.boardOwnerKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(projectCode, doneStateNames, queryFilter, boardOwnerKey);
+        }
+    }
+
+    private class Entry {
+        private final FutureTask<List<com.atlassian.jira.issue.Issue>> task;
+        //When the search finished, or 0 while it is in progress
+        private volatile long searchedTime;
+
+        Entry(Callable<List<com.atlassian.jira.issue.Issue>> search) {
+            this.task = new FutureTask<>(search);
+        }
+
+        void run() {
+            task.run();
+            searchedTime = System.currentTimeMillis();
+        }
+
+        boolean isExpired(long now) {
+            final long searchedTime = this.searchedTime;
+            return searchedTime > 0 && now - searchedTime >= cacheMillis;
+        }
+
+        List<com.atlassian.jira.issue.Issue> getResult() throws SearchException {
+            try {
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof SearchException) {
+                    throw (SearchException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+}
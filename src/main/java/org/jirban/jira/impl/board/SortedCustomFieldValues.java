@@ -16,28 +16,36 @@
 
 package org.jirban.jira.impl.board;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.jboss.dmr.ModelNode;
 import org.jirban.jira.impl.JiraInjectables;
 import org.jirban.jira.impl.config.CustomFieldConfig;
-import org.jirban.jira.impl.util.IndexedMap;
+import org.jirban.jira.impl.util.PersistentHashMap;
+import org.jirban.jira.impl.util.RankedSequence;
 
 /**
  * Sorted values for a given custom field used as the 'registry' in the overall board data.
- * The sort order is according to the key or the value.
+ * The sort order is according to {@link CustomFieldValue#COMPARATOR}. The keys are kept sorted in a
+ * {@link RankedSequence}, so a new value seen in an event is inserted in place rather than all the values being
+ * sorted again, and the board copies share the values which were there already.
  *
  * @author Kabir Khan
  */
 public class SortedCustomFieldValues {
     private final CustomFieldConfig config;
-    private final IndexedMap<String, CustomFieldValue> sortedFields;
+    private final PersistentHashMap<String, CustomFieldValue> fields;
+    private final RankedSequence<String> sortedKeys;
 
-    private SortedCustomFieldValues(CustomFieldConfig config, IndexedMap<String, CustomFieldValue> sortedFields) {
+    private SortedCustomFieldValues(CustomFieldConfig config, PersistentHashMap<String, CustomFieldValue> fields,
+                                    RankedSequence<String> sortedKeys) {
         this.config = config;
-        this.sortedFields = sortedFields;
+        this.fields = fields;
+        this.sortedKeys = sortedKeys;
     }
 
 
@@ -46,17 +54,17 @@ public class SortedCustomFieldValues {
     }
 
     CustomFieldValue getCustomFieldValue(String key) {
-        return sortedFields.get(key);
+        return fields.get(key);
     }
 
     int getCustomFieldIndex(CustomFieldValue customFieldValue) {
-        return sortedFields.getIndex(customFieldValue.getKey());
+        return sortedKeys.indexOf(customFieldValue.getKey());
     }
 
     public void serialize(ModelNode parentNode) {
         ModelNode fieldList = new ModelNode();
-        for (CustomFieldValue customFieldValue : sortedFields.values()) {
-            customFieldValue.serializeRegistry(fieldList);
+        for (String key : sortedKeys) {
+            fields.get(key).serializeRegistry(fieldList);
         }
         if (fieldList.isDefined()) {
             parentNode.get(config.getName()).set(fieldList);
@@ -65,11 +73,9 @@ public class SortedCustomFieldValues {
 
     static abstract class Accessor {
         protected final CustomFieldConfig config;
-        protected final Map<String, CustomFieldValue> fields;
 
-        protected Accessor(CustomFieldConfig config, Map<String, CustomFieldValue> fields) {
+        protected Accessor(CustomFieldConfig config) {
             this.config = config;
-            this.fields = fields == null ? new LinkedHashMap<>() : new LinkedHashMap<>(fields);
         }
 
         CustomFieldUtil getUtil() {
@@ -78,9 +84,10 @@ public class SortedCustomFieldValues {
     }
 
     static class Builder extends Accessor {
+        private final Map<String, CustomFieldValue> fields = new HashMap<>();
 
         Builder(CustomFieldConfig config) {
-            super(config, new HashMap<>());
+            super(config);
         }
 
         CustomFieldValue getCustomFieldValue(Object customFieldValue) {
@@ -93,22 +100,39 @@ public class SortedCustomFieldValues {
         }
 
         SortedCustomFieldValues build() {
-            final Map<String, CustomFieldValue> sortedFields;
-            sortedFields = getUtil().sortFields(fields);
-            return new SortedCustomFieldValues(config, new IndexedMap<>(sortedFields));
+            final List<CustomFieldValue> values = new ArrayList<>(fields.values());
+            values.sort(CustomFieldValue.COMPARATOR);
+            final List<String> sortedKeys = new ArrayList<>(values.size());
+            for (CustomFieldValue value : values) {
+                sortedKeys.add(value.getKey());
+            }
+            return new SortedCustomFieldValues(config, PersistentHashMap.copyOf(fields), RankedSequence.copyOf(sortedKeys));
         }
     }
 
     static class Updater extends Accessor {
+        private PersistentHashMap<String, CustomFieldValue> fields;
+        private RankedSequence<String> sortedKeys;
+        //Compares the keys by their values, which are in the map by the time they are compared
+        private final Comparator<String> keyComparator =
+                (key1, key2) -> CustomFieldValue.COMPARATOR.compare(fields.get(key1), fields.get(key2));
+
         Updater(CustomFieldConfig config, SortedCustomFieldValues sortedCustomFieldValues) {
-            super(
-                    config,
-                    sortedCustomFieldValues == null ? null : sortedCustomFieldValues.sortedFields.map());
+            super(config);
+            this.fields = sortedCustomFieldValues == null ? PersistentHashMap.empty() : sortedCustomFieldValues.fields;
+            this.sortedKeys = sortedCustomFieldValues == null ? RankedSequence.empty() : sortedCustomFieldValues.sortedKeys;
         }
 
         CustomFieldValue getCustomFieldValue(JiraInjectables jiraInjectables, String key) {
-            return fields.computeIfAbsent(
-                    key, s -> getUtil().loadCustomFieldFromKey(jiraInjectables, config, key));
+            CustomFieldValue value = fields.get(key);
+            if (value == null) {
+                value = getUtil().loadCustomFieldFromKey(jiraInjectables, config, key);
+                if (value != null) {
+                    fields = fields.plus(key, value);
+                    sortedKeys = sortedKeys.insertBefore(key, sortedKeys.ceiling(key, keyComparator));
+                }
+            }
+            return value;
         }
 
         static Map<String, SortedCustomFieldValues> merge(Map<Long, SortedCustomFieldValues.Updater> updates, Map<String, SortedCustomFieldValues> original) {
@@ -117,11 +141,9 @@ public class SortedCustomFieldValues {
             }
             Map<String, SortedCustomFieldValues> result = new HashMap<>(original);
             for (SortedCustomFieldValues.Updater updater : updates.values()) {
-                final Map<String, CustomFieldValue> sortedFields;
-                sortedFields = updater.getUtil().sortFields(updater.fields);
                 result.put(
                         updater.config.getName(),
-                        new SortedCustomFieldValues(updater.config, new IndexedMap<>(sortedFields)));
+                        new SortedCustomFieldValues(updater.config, updater.fields, updater.sortedKeys));
             }
             return result;
         }
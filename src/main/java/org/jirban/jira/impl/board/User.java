@@ -21,6 +21,7 @@ import static org.jirban.jira.impl.Constants.NAME;
 
 import org.jboss.dmr.ModelNode;
 import org.jirban.jira.impl.Constants;
+import org.jirban.jira.impl.util.StringInterner;
 
 import com.atlassian.jira.user.ApplicationUser;
 
@@ -35,9 +36,9 @@ public class User {
     private final String displayName;
 
     protected User(String key, String email, String displayName) {
-        this.key = key;
+        this.key = StringInterner.intern(key);
         this.email = email;
-        this.displayName = displayName;
+        this.displayName = StringInterner.intern(displayName);
     }
 
     static User create(ApplicationUser user) {
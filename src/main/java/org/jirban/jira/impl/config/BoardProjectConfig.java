@@ -50,6 +50,12 @@ public class BoardProjectConfig extends ProjectConfig {
 
     private final Set<String> ownDoneStateNames;
 
+    //Indexed by our own state index, so that the issues, which only store that, can be placed and filtered without
+    //looking up their state names
+    private final int[] ownToBoardStateIndices;
+    private final boolean[] ownBacklogStates;
+    private final boolean[] ownDoneStates;
+
     private final List<String> customFieldNames;
     private final ParallelTaskConfig parallelTaskConfig;
 
@@ -77,6 +83,18 @@ public class BoardProjectConfig extends ProjectConfig {
         }
         this.ownDoneStateNames = Collections.unmodifiableSet(ownDoneStateNames);
         this.customFieldNames = customFieldNames;
+
+        final int ownStateCount = states.size();
+        this.ownToBoardStateIndices = new int[ownStateCount];
+        this.ownBacklogStates = new boolean[ownStateCount];
+        this.ownDoneStates = new boolean[ownStateCount];
+        for (Map.Entry<String, Integer> entry : states.entrySet()) {
+            final int ownStateIndex = entry.getValue();
+            final int boardStateIndex = boardStates.getStateIndex(ownToBoardStates.get(entry.getKey()));
+            ownToBoardStateIndices[ownStateIndex] = boardStateIndex;
+            ownBacklogStates[ownStateIndex] = boardStates.isBacklogState(boardStateIndex);
+            ownDoneStates[ownStateIndex] = boardStates.isDoneState(boardStateIndex);
+        }
     }
 
     static BoardProjectConfig load(final BoardStates boardStates, final String projectCode, ModelNode project,
@@ -169,11 +187,21 @@ public class BoardProjectConfig extends ProjectConfig {
         return colour;
     }
 
+    /**
+     * Gets the index of the board state one of our own states is mapped onto.
+     *
+     * @param state the name of our own state
+     * @return the index of the board state, or {@code null} if the state is not mapped onto the board
+     */
     public Integer mapOwnStateOntoBoardStateIndex(String state) {
-        String boardState = mapOwnStateOntoBoardState(state);
-        return boardStates.getStateIndex(boardState);
+        final Integer ownStateIndex = getStateIndex(state);
+        return ownStateIndex == null ? null : ownToBoardStateIndices[ownStateIndex];
+    }
 
+    public int mapOwnStateIndexOntoBoardStateIndex(int ownStateIndex) {
+        return ownToBoardStateIndices[ownStateIndex];
     }
+
     public String mapBoardStateOntoOwnState(String boardState) {
         return boardToOwnStates.get(boardState);
     }
@@ -222,20 +250,21 @@ public class BoardProjectConfig extends ProjectConfig {
     }
 
     public boolean isBacklogState(String ownState) {
-        return isBacklogState(mapOwnStateOntoBoardStateIndex(ownState));
+        final Integer ownStateIndex = getStateIndex(ownState);
+        return ownStateIndex != null && ownBacklogStates[ownStateIndex];
     }
 
     public boolean isDoneState(String ownState) {
-        Integer boardStateIndex = mapOwnStateOntoBoardStateIndex(ownState);
-        return boardStateIndex == null ? false : isDoneState(boardStateIndex);
+        final Integer ownStateIndex = getStateIndex(ownState);
+        return ownStateIndex != null && ownDoneStates[ownStateIndex];
     }
 
-    private boolean isBacklogState(int boardStateIndex) {
-        return boardStates.isBacklogState(boardStateIndex);
+    public boolean isBacklogState(int ownStateIndex) {
+        return ownBacklogStates[ownStateIndex];
     }
 
-    public boolean isDoneState(int boardStateIndex) {
-        return boardStates.isDoneState(boardStateIndex);
+    public boolean isDoneState(int ownStateIndex) {
+        return ownDoneStates[ownStateIndex];
     }
 
     public Set<String> getOwnDoneStateNames() {
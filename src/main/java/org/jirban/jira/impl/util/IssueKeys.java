@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl.util;
+
+import java.util.Arrays;
+
+/**
+ * Encodes Jira issue keys such as {@code TDP-1234} as a {@code long}, with the ordinal of the project code in the
+ * upper 32 bits and the issue number in the lower 32 bits. The encoded keys can be hashed, compared and kept in
+ * primitive arrays and maps, and sort by project and then numerically by issue number.
+ * <p>
+ * The ordinals are handed out as the project codes are first seen, and are shared by all the boards, so an encoded
+ * key only has a meaning within the running instance and must be decoded before it leaves it.
+ *
+ * @author Kabir Khan
+ */
+public final class IssueKeys {
+
+    //Copied on write. There are only a handful of projects, so they are looked up by scanning
+    private static volatile String[] projectCodes = new String[0];
+
+    private IssueKeys() {
+    }
+
+    /**
+     * Encodes an issue key.
+     *
+     * @param issueKey the issue key
+     * @return the encoded key, which is never negative
+     * @throws IllegalArgumentException if the key is not a project code followed by a dash and the issue number
+     */
+    public static long encode(String issueKey) {
+        final int dash = issueKey.lastIndexOf('-');
+        if (dash <= 0 || dash == issueKey.length() - 1 || issueKey.length() - dash > 11) {
+            throw new IllegalArgumentException("Bad issue key " + issueKey);
+        }
+        long number = 0;
+        for (int i = dash + 1 ; i < issueKey.length() ; i++) {
+            final char c = issueKey.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Bad issue key " + issueKey);
+            }
+            number = number * 10 + (c - '0');
+        }
+        if (number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bad issue key " + issueKey);
+        }
+        return ((long) getProjectOrdinal(issueKey, dash) << 32) | number;
+    }
+
+    /**
+     * Decodes an issue key.
+     *
+     * @param key the encoded key
+     * @return the issue key
+     */
+    public static String decode(long key) {
+        final int ordinal = getProjectOrdinal(key);
+        final String[] projectCodes = IssueKeys.projectCodes;
+        if (key < 0 || ordinal >= projectCodes.length) {
+            throw new IllegalArgumentException("Bad encoded issue key " + key);
+        }
+        return StringInterner.intern(projectCodes[ordinal] + '-' + getIssueNumber(key));
+    }
+
+    public static int getProjectOrdinal(long key) {
+        return (int) (key >>> 32);
+    }
+
+    public static int getIssueNumber(long key) {
+        return (int) key;
+    }
+
+    private static int getProjectOrdinal(String issueKey, int length) {
+        final int ordinal = findProjectOrdinal(projectCodes, issueKey, length);
+        return ordinal >= 0 ? ordinal : addProjectCode(issueKey, length);
+    }
+
+    private static synchronized int addProjectCode(String issueKey, int length) {
+        //Someone else might have added it in the meantime
+        final String[] projectCodes = IssueKeys.projectCodes;
+        final int ordinal = findProjectOrdinal(projectCodes, issueKey, length);
+        if (ordinal >= 0) {
+            return ordinal;
+        }
+        final String[] added = Arrays.copyOf(projectCodes, projectCodes.length + 1);
+        added[projectCodes.length] = StringInterner.intern(issueKey.substring(0, length));
+        IssueKeys.projectCodes = added;
+        return projectCodes.length;
+    }
+
+    private static int findProjectOrdinal(String[] projectCodes, String issueKey, int length) {
+        for (int i = 0 ; i < projectCodes.length ; i++) {
+            final String projectCode = projectCodes[i];
+            if (projectCode.length() == length && issueKey.regionMatches(0, projectCode, 0, length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
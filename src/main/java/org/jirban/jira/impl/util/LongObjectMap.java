@@ -0,0 +1,193 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl.util;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A mutable map from primitive {@code long}s, such as the keys encoded by {@link IssueKeys}, to objects. The keys
+ * live in an open addressing table with linear probing, and the values in a parallel array, so neither putting nor
+ * looking up a value boxes the key. {@code null} values are not allowed. It is not thread-safe, and is meant for
+ * collecting things while handling a single request.
+ *
+ * @author Kabir Khan
+ */
+public final class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    //A null value marks a free slot
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public LongObjectMap() {
+        keys = new long[MIN_CAPACITY];
+        values = new Object[MIN_CAPACITY];
+        mask = MIN_CAPACITY - 1;
+    }
+
+    /**
+     * Gets the value for a key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        for (int i = slot(key) ; values[i] != null ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Puts a value in the map.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value, or {@code null} if the key was not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null value for " + key);
+        }
+        int i = slot(key);
+        for ( ; values[i] != null ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                final V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        //Keep the table at most half full
+        if (++size > keys.length >> 1) {
+            resize();
+        }
+        return null;
+    }
+
+    /**
+     * Removes a key from the map.
+     *
+     * @param key the key
+     * @return the removed value, or {@code null} if the key was not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int i = slot(key);
+        for ( ; values[i] != null ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                final V removed = (V) values[i];
+                values[i] = null;
+                size--;
+                //Move back the entries further along the probe sequence which can use the freed slot
+                int free = i;
+                for (int j = (i + 1) & mask ; values[j] != null ; j = (j + 1) & mask) {
+                    final int home = slot(keys[j]);
+                    if (((j - home) & mask) >= ((j - free) & mask)) {
+                        keys[free] = keys[j];
+                        values[free] = values[j];
+                        values[j] = null;
+                        free = j;
+                    }
+                }
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a view of the values, in no particular order.
+     *
+     * @return the values
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new Iterator<V>() {
+                    private int next = advance(0);
+
+                    private int advance(int from) {
+                        while (from < values.length && values[from] == null) {
+                            from++;
+                        }
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public V next() {
+                        if (next >= values.length) {
+                            throw new NoSuchElementException();
+                        }
+                        final V value = (V) values[next];
+                        next = advance(next + 1);
+                        return value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int slot(long key) {
+        //Spread the bits, since the encoded issue keys differ mostly in the low bits of each half
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void resize() {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = new Object[oldValues.length << 1];
+        mask = keys.length - 1;
+        for (int i = 0 ; i < oldKeys.length ; i++) {
+            if (oldValues[i] != null) {
+                int j = slot(oldKeys[i]);
+                while (values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
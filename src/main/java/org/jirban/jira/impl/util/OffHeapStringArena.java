@@ -0,0 +1,167 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Holds strings as UTF-8 outside of the heap, in chunks of direct memory which are filled up one after the other.
+ * Each string added gets back a small handle with its chunk, offset and length, and is decoded again when it is read.
+ * This is meant for the large, rarely read, texts of very large boards such as the issue summaries, so that they do
+ * not fill up the old generation.
+ * <p>
+ * The handles are what keep a chunk alive. Board copies share the handles of the issues which did not change, so a
+ * chunk is freed once no board snapshot holds a handle into it any more, in the same way as the direct memory of any
+ * other {@code ByteBuffer}. Strings are never removed from a chunk, so a board which gets a lot of updates wastes
+ * some space until it is next rebuilt from scratch with a new arena.
+ *
+ * @author Kabir Khan
+ */
+public final class OffHeapStringArena {
+
+    private static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+    private final int chunkSize;
+
+    //The chunk being filled
+    private ByteBuffer chunk;
+    //The read-only view of the chunk being filled, which the handles refer to
+    private ByteBuffer chunkView;
+    private long allocatedBytes;
+    private long usedBytes;
+    private int size;
+
+    public OffHeapStringArena() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public OffHeapStringArena(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Bad chunk size " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Adds a string to the arena.
+     *
+     * @param string the string
+     * @return the handle to read the string back with
+     */
+    public synchronized OffHeapString add(String string) {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        if (chunk == null || chunk.remaining() < bytes.length) {
+            //Strings bigger than the chunk size get a chunk to themselves
+            chunk = ByteBuffer.allocateDirect(Math.max(chunkSize, bytes.length));
+            chunkView = chunk.asReadOnlyBuffer();
+            allocatedBytes += chunk.capacity();
+        }
+        final int offset = chunk.position();
+        chunk.put(bytes);
+        usedBytes += bytes.length;
+        size++;
+        return new OffHeapString(chunkView, offset, bytes.length);
+    }
+
+    /**
+     * Gets the number of strings added to the arena.
+     *
+     * @return the number of strings
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of bytes taken up by the strings added to the arena.
+     *
+     * @return the number of bytes
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Gets the number of bytes of direct memory allocated by the arena, including chunks which might since have been
+     * freed.
+     *
+     * @return the number of bytes
+     */
+    public synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * A string held in an {@link OffHeapStringArena}. {@link #toString()} decodes it again, so callers needing the
+     * string more than once should hang on to the result.
+     */
+    public static final class OffHeapString implements CharSequence {
+        private final ByteBuffer chunk;
+        private final int offset;
+        private final int length;
+
+        private OffHeapString(ByteBuffer chunk, int offset, int length) {
+            this.chunk = chunk;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * Gets the length of the string in UTF-8.
+         *
+         * @return the number of bytes
+         */
+        public int getByteLength() {
+            return length;
+        }
+
+        /**
+         * Copies the UTF-8 bytes of the string.
+         *
+         * @param dest the array to copy the bytes into
+         * @param destOffset the offset in {@code dest} to copy the bytes to
+         */
+        public void getBytes(byte[] dest, int destOffset) {
+            //Other threads might be reading or adding to the same chunk, so use our own position
+            final ByteBuffer buffer = chunk.duplicate();
+            buffer.position(offset);
+            buffer.get(dest, destOffset, length);
+        }
+
+        @Override
+        public int length() {
+            return toString().length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return toString().charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            final byte[] bytes = new byte[length];
+            getBytes(bytes, 0);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map, where {@link #plus(Object, Object)} and {@link #minus(Object)} return a new map sharing everything
+ * but the path to the changed entry with this one. It is a hash array mapped trie, so each level of the trie uses
+ * five bits of the hash, and a change costs O(log32 n) and allocates a handful of small arrays rather than copying
+ * the whole map.
+ * <p>
+ * The standard mutating {@code Map} methods throw {@code UnsupportedOperationException}. Keys and values may not be
+ * {@code null}.
+ *
+ * @author Kabir Khan
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    //Seven bitmap levels use up the 32 bits of the hash, plus one level for collisions
+    private static final int MAX_DEPTH = 8;
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(new BitmapNode<>(0, new Object[0]), 0);
+
+    private final BitmapNode<K, V> root;
+    private final int size;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    private PersistentHashMap(BitmapNode<K, V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    public static <K, V> PersistentHashMap<K, V> copyOf(Map<K, V> map) {
+        if (map instanceof PersistentHashMap) {
+            return (PersistentHashMap<K, V>) map;
+        }
+        PersistentHashMap<K, V> result = empty();
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            result = result.plus(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a map with the entry added, or replaced if there already is one for the key.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the new map, or this map if it already contained the value for the key
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        final boolean[] added = new boolean[1];
+        final BitmapNode<K, V> newRoot = root.put(new Entry<>(key, value, hash(key)), 0, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the entry for the key.
+     *
+     * @param key the key
+     * @return the new map, or this map if there was no entry for the key
+     */
+    public PersistentHashMap<K, V> minus(K key) {
+        final Node<K, V> newRoot = root.remove(key, hash(key), 0);
+        if (newRoot == root) {
+            return this;
+        }
+        if (newRoot == null) {
+            return empty();
+        }
+        if (newRoot instanceof Entry) {
+            //The root must always be a bitmap node
+            return PersistentHashMap.<K, V>empty().plus(((Entry<K, V>) newRoot).key, ((Entry<K, V>) newRoot).value);
+        }
+        return new PersistentHashMap<>((BitmapNode<K, V>) newRoot, size - 1);
+    }
+
+    @Override
+    public V get(Object key) {
+        final Entry<K, V> entry = key == null ? null : root.find(key, hash(key), 0);
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && root.find(key, hash(key), 0) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> entrySet = this.entrySet;
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new EntryIterator<>(root);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+            this.entrySet = entrySet;
+        }
+        return entrySet;
+    }
+
+    private static int hash(Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private abstract static class Node<K, V> {
+        abstract Entry<K, V> find(Object key, int hash, int shift);
+
+        //Returns this if nothing changed
+        abstract Node<K, V> put(Entry<K, V> entry, int shift, boolean[] added);
+
+        //Returns this if nothing changed, null if the node is now empty, or the remaining entry if only one is left
+        abstract Node<K, V> remove(Object key, int hash, int shift);
+    }
+
+    private static final class Entry<K, V> extends Node<K, V> implements Map.Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final int hash;
+
+        Entry(K key, V value, int hash) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        boolean matches(Object key, int hash) {
+            return this.hash == hash && this.key.equals(key);
+        }
+
+        @Override
+        Entry<K, V> find(Object key, int hash, int shift) {
+            return matches(key, hash) ? this : null;
+        }
+
+        @Override
+        Node<K, V> put(Entry<K, V> entry, int shift, boolean[] added) {
+            if (matches(entry.key, entry.hash)) {
+                return value == entry.value ? this : entry;
+            }
+            added[0] = true;
+            return pair(this, entry, shift);
+        }
+
+        @Override
+        Node<K, V> remove(Object key, int hash, int shift) {
+            return matches(key, hash) ? null : this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+            return key.equals(that.getKey()) && value.equals(that.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private static <K, V> Node<K, V> pair(Entry<K, V> first, Entry<K, V> second, int shift) {
+        if (first.hash == second.hash) {
+            return new CollisionNode<>(first.hash, new Object[]{first, second});
+        }
+        final int firstIndex = (first.hash >>> shift) & MASK;
+        final int secondIndex = (second.hash >>> shift) & MASK;
+        if (firstIndex == secondIndex) {
+            return new BitmapNode<>(1 << firstIndex, new Object[]{pair(first, second, shift + BITS)});
+        }
+        return new BitmapNode<>((1 << firstIndex) | (1 << secondIndex),
+                firstIndex < secondIndex ? new Object[]{first, second} : new Object[]{second, first});
+    }
+
+    /**
+     * A level of the trie. Bit {@code i} of the bitmap is set if there is an entry or a sub-node for the index
+     * {@code i} of this level, and the slots only contain the ones which are set.
+     */
+    private static final class BitmapNode<K, V> extends Node<K, V> {
+        private final int bitmap;
+        private final Object[] slots;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Entry<K, V> find(Object key, int hash, int shift) {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            return ((Node<K, V>) slots[slot(bit)]).find(key, hash, shift + BITS);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        BitmapNode<K, V> put(Entry<K, V> entry, int shift, boolean[] added) {
+            final int bit = 1 << ((entry.hash >>> shift) & MASK);
+            final int slot = slot(bit);
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                final Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, slot);
+                newSlots[slot] = entry;
+                System.arraycopy(slots, slot, newSlots, slot + 1, slots.length - slot);
+                return new BitmapNode<>(bitmap | bit, newSlots);
+            }
+            final Node<K, V> current = (Node<K, V>) slots[slot];
+            final Node<K, V> updated = current.put(entry, shift + BITS, added);
+            if (updated == current) {
+                return this;
+            }
+            return withSlot(slot, updated);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Node<K, V> remove(Object key, int hash, int shift) {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            final int slot = slot(bit);
+            final Node<K, V> current = (Node<K, V>) slots[slot];
+            final Node<K, V> updated = current.remove(key, hash, shift + BITS);
+            if (updated == current) {
+                return this;
+            }
+            if (updated != null) {
+                if (slots.length == 1 && updated instanceof Entry) {
+                    //Let the parent inline the remaining entry
+                    return updated;
+                }
+                return withSlot(slot, updated);
+            }
+            if (slots.length == 1) {
+                return null;
+            }
+            if (slots.length == 2 && slots[1 - slot] instanceof Entry) {
+                return (Node<K, V>) slots[1 - slot];
+            }
+            final Object[] newSlots = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, newSlots, 0, slot);
+            System.arraycopy(slots, slot + 1, newSlots, slot, slots.length - slot - 1);
+            return new BitmapNode<>(bitmap & ~bit, newSlots);
+        }
+
+        private int slot(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private BitmapNode<K, V> withSlot(int slot, Node<K, V> node) {
+            final Object[] newSlots = slots.clone();
+            newSlots[slot] = node;
+            return new BitmapNode<>(bitmap, newSlots);
+        }
+    }
+
+    /**
+     * Holds the entries whose keys have the same hash
+     */
+    private static final class CollisionNode<K, V> extends Node<K, V> {
+        private final int hash;
+        private final Object[] entries;
+
+        CollisionNode(int hash, Object[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Entry<K, V> find(Object key, int hash, int shift) {
+            if (hash != this.hash) {
+                return null;
+            }
+            for (Object entry : entries) {
+                if (((Entry<K, V>) entry).matches(key, hash)) {
+                    return (Entry<K, V>) entry;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Node<K, V> put(Entry<K, V> entry, int shift, boolean[] added) {
+            if (entry.hash != hash) {
+                //Push this node down a level, next to the new entry
+                final int thisIndex = (hash >>> shift) & MASK;
+                final int entryIndex = (entry.hash >>> shift) & MASK;
+                if (thisIndex == entryIndex) {
+                    return new BitmapNode<>(1 << thisIndex, new Object[]{put(entry, shift + BITS, added)});
+                }
+                added[0] = true;
+                return new BitmapNode<>((1 << thisIndex) | (1 << entryIndex),
+                        thisIndex < entryIndex ? new Object[]{this, entry} : new Object[]{entry, this});
+            }
+            for (int i = 0 ; i < entries.length ; i++) {
+                final Entry<K, V> current = (Entry<K, V>) entries[i];
+                if (current.matches(entry.key, entry.hash)) {
+                    if (current.value == entry.value) {
+                        return this;
+                    }
+                    final Object[] newEntries = entries.clone();
+                    newEntries[i] = entry;
+                    return new CollisionNode<>(hash, newEntries);
+                }
+            }
+            added[0] = true;
+            final Object[] newEntries = new Object[entries.length + 1];
+            System.arraycopy(entries, 0, newEntries, 0, entries.length);
+            newEntries[entries.length] = entry;
+            return new CollisionNode<>(hash, newEntries);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Node<K, V> remove(Object key, int hash, int shift) {
+            if (hash != this.hash) {
+                return this;
+            }
+            for (int i = 0 ; i < entries.length ; i++) {
+                if (((Entry<K, V>) entries[i]).matches(key, hash)) {
+                    if (entries.length == 2) {
+                        return (Entry<K, V>) entries[1 - i];
+                    }
+                    final Object[] newEntries = new Object[entries.length - 1];
+                    System.arraycopy(entries, 0, newEntries, 0, i);
+                    System.arraycopy(entries, i + 1, newEntries, i, entries.length - i - 1);
+                    return new CollisionNode<>(hash, newEntries);
+                }
+            }
+            return this;
+        }
+    }
+
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Object[][] stack = new Object[MAX_DEPTH + 1][];
+        private final int[] positions = new int[MAX_DEPTH + 1];
+        private int depth;
+        private Entry<K, V> next;
+
+        EntryIterator(BitmapNode<K, V> root) {
+            push(root);
+            advance();
+        }
+
+        private void push(Node<K, V> node) {
+            stack[depth] = node instanceof BitmapNode ? ((BitmapNode<K, V>) node).slots : ((CollisionNode<K, V>) node).entries;
+            positions[depth] = 0;
+            depth++;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth > 0) {
+                final Object[] slots = stack[depth - 1];
+                final int position = positions[depth - 1];
+                if (position == slots.length) {
+                    stack[--depth] = null;
+                    continue;
+                }
+                positions[depth - 1] = position + 1;
+                final Object slot = slots[position];
+                if (slot instanceof Entry) {
+                    next = (Entry<K, V>) slot;
+                    return;
+                }
+                push((Node<K, V>) slot);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            final Entry<K, V> current = next;
+            advance();
+            return current;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl.util;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable list of distinct keys in rank order. {@link #insertBefore(Object, Object)} and {@link #minus(Object)}
+ * return a new sequence sharing most of its structure with this one, and together with {@link #indexOf(Object)} and
+ * {@link #get(int)} they are O(log n).
+ * <p>
+ * Each key gets a label, and the labels increase along the sequence. The keys are held in a balanced tree ordered by
+ * label, where each node knows the size of its subtree, and the label of each key is found through a
+ * {@link PersistentHashMap}. When there is no room left for a label between two neighbours, all the keys get new,
+ * evenly spaced, labels.
+ *
+ * @author Kabir Khan
+ */
+public final class RankedSequence<K> extends AbstractList<K> {
+    private static final long GAP = 1L << 20;
+
+    private static final RankedSequence<?> EMPTY = new RankedSequence<>(null, PersistentHashMap.empty());
+
+    private final Node<K> root;
+    private final PersistentHashMap<K, Long> labels;
+
+    private RankedSequence(Node<K> root, PersistentHashMap<K, Long> labels) {
+        this.root = root;
+        this.labels = labels;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K> RankedSequence<K> empty() {
+        return (RankedSequence<K>) EMPTY;
+    }
+
+    /**
+     * Creates a sequence containing the keys in the order they are returned by the collection.
+     *
+     * @param keys the keys. They must be distinct
+     * @return the sequence
+     */
+    @SuppressWarnings("unchecked")
+    public static <K> RankedSequence<K> copyOf(Collection<K> keys) {
+        if (keys instanceof RankedSequence) {
+            return (RankedSequence<K>) keys;
+        }
+        return relabel(keys);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> RankedSequence<K> relabel(Collection<K> keys) {
+        final Object[] array = keys.toArray();
+        PersistentHashMap<K, Long> labels = PersistentHashMap.empty();
+        for (int i = 0 ; i < array.length ; i++) {
+            labels = labels.plus((K) array[i], i * GAP);
+        }
+        if (labels.size() != array.length) {
+            throw new IllegalArgumentException("Duplicate keys in " + keys);
+        }
+        return new RankedSequence<>(build(array, 0, array.length), labels);
+    }
+
+    /**
+     * Returns a sequence where the key is placed in front of {@code nextKey}. If the key is already in this sequence,
+     * it is moved.
+     *
+     * @param key the key to insert or move
+     * @param nextKey the key to put it in front of. If {@code null}, or not in the sequence, the key goes at the end
+     * @return the new sequence, or this one if the key was already in place
+     */
+    public RankedSequence<K> insertBefore(K key, K nextKey) {
+        final Long current = labels.get(key);
+        if (key.equals(nextKey) && current != null) {
+            return this;
+        }
+        if (nextKey != null && (key.equals(nextKey) || !labels.containsKey(nextKey))) {
+            nextKey = null;
+        }
+        if (current != null) {
+            final int index = rank(root, current);
+            final boolean inPlace = nextKey == null ?
+                    index == size() - 1 :
+                    index + 1 < size() && select(root, index + 1).key.equals(nextKey);
+            if (inPlace) {
+                return this;
+            }
+        }
+        final RankedSequence<K> removed = current == null ? this : minus(key);
+        final Long label = removed.labelFor(nextKey);
+        if (label == null) {
+            //No room between the neighbours
+            return relabel(removed).insertBefore(key, nextKey);
+        }
+        return new RankedSequence<>(insert(removed.root, key, label), removed.labels.plus(key, label));
+    }
+
+    /**
+     * Returns a sequence without the key.
+     *
+     * @param key the key
+     * @return the new sequence, or this one if it did not contain the key
+     */
+    public RankedSequence<K> minus(K key) {
+        final Long label = labels.get(key);
+        if (label == null) {
+            return this;
+        }
+        return new RankedSequence<>(remove(root, label), labels.minus(key));
+    }
+
+    /**
+     * Finds the first key which is not ordered before {@code key}. Only meaningful if the sequence is sorted by
+     * {@code comparator}, in which case {@code insertBefore(key, ceiling(key, comparator))} keeps it sorted.
+     *
+     * @param key the key to look for
+     * @param comparator the comparator the sequence is sorted by
+     * @return the first key which is greater than or equal to {@code key}, or {@code null} if there is none
+     */
+    public K ceiling(K key, Comparator<? super K> comparator) {
+        K ceiling = null;
+        Node<K> node = root;
+        while (node != null) {
+            if (comparator.compare(node.key, key) >= 0) {
+                ceiling = node.key;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return ceiling;
+    }
+
+    private Long labelFor(K nextKey) {
+        if (root == null) {
+            return 0L;
+        }
+        if (nextKey == null) {
+            return select(root, size() - 1).label + GAP;
+        }
+        final long next = labels.get(nextKey);
+        final int index = rank(root, next);
+        final long previous = index == 0 ? next - 2 * GAP : select(root, index - 1).label;
+        if (next - previous < 2) {
+            return null;
+        }
+        return previous + (next - previous) / 2;
+    }
+
+    @Override
+    public K get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return select(root, index).key;
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return labels.containsKey(o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        final Long label = labels.get(o);
+        return label == null ? -1 : rank(root, label);
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator<>(root);
+    }
+
+    private static final class Node<K> {
+        private final K key;
+        private final long label;
+        private final Node<K> left;
+        private final Node<K> right;
+        private final int height;
+        private final int size;
+
+        Node(K key, long label, Node<K> left, Node<K> right) {
+            this.key = key;
+            this.label = label;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Node<K> build(Object[] keys, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        final int middle = (from + to) >>> 1;
+        return new Node<>((K) keys[middle], middle * GAP, build(keys, from, middle), build(keys, middle + 1, to));
+    }
+
+    //The number of nodes with a lower label
+    private static int rank(Node<?> node, long label) {
+        int rank = 0;
+        while (node != null) {
+            if (label < node.label) {
+                node = node.left;
+            } else if (label > node.label) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return rank;
+    }
+
+    private static <K> Node<K> select(Node<K> node, int index) {
+        while (true) {
+            final int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private static <K> Node<K> insert(Node<K> node, K key, long label) {
+        if (node == null) {
+            return new Node<>(key, label, null, null);
+        }
+        if (label < node.label) {
+            return balance(node.key, node.label, insert(node.left, key, label), node.right);
+        }
+        return balance(node.key, node.label, node.left, insert(node.right, key, label));
+    }
+
+    private static <K> Node<K> remove(Node<K> node, long label) {
+        if (label < node.label) {
+            return balance(node.key, node.label, remove(node.left, label), node.right);
+        }
+        if (label > node.label) {
+            return balance(node.key, node.label, node.left, remove(node.right, label));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        final Node<K> first = select(node.right, 0);
+        return balance(first.key, first.label, node.left, remove(node.right, first.label));
+    }
+
+    private static <K> Node<K> balance(K key, long label, Node<K> left, Node<K> right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.key, left.label, left.left, new Node<>(key, label, left.right, right));
+            }
+            final Node<K> middle = left.right;
+            return new Node<>(middle.key, middle.label,
+                    new Node<>(left.key, left.label, left.left, middle.left),
+                    new Node<>(key, label, middle.right, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.key, right.label, new Node<>(key, label, left, right.left), right.right);
+            }
+            final Node<K> middle = right.left;
+            return new Node<>(middle.key, middle.label,
+                    new Node<>(key, label, left, middle.left),
+                    new Node<>(right.key, right.label, middle.right, right.right));
+        }
+        return new Node<>(key, label, left, right);
+    }
+
+    private static final class KeyIterator<K> implements Iterator<K> {
+        //An AVL tree with 2^31 nodes is less than 64 levels deep
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private final Node<K>[] stack = new Node[64];
+        private int depth;
+
+        KeyIterator(Node<K> root) {
+            pushLeft(root);
+        }
+
+        private void pushLeft(Node<K> node) {
+            while (node != null) {
+                stack[depth++] = node;
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        @Override
+        public K next() {
+            if (depth == 0) {
+                throw new NoSuchElementException();
+            }
+            final Node<K> node = stack[--depth];
+            stack[depth] = null;
+            pushLeft(node.right);
+            return node.key;
+        }
+    }
+}
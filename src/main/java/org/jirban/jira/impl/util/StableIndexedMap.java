@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable map where each value has a stable id. The ids are handed out in the order the values are added, so
+ * adding a value never changes the id of an existing one, and they are what the issues reference in the serialized
+ * board. The display order of the values is a separate permutation of the ids, which is only worked out when it is
+ * needed.
+ *
+ * @author Kabir Khan
+ */
+public final class StableIndexedMap<K, V> {
+    private final Comparator<V> displayOrder;
+    private final PersistentHashMap<K, Integer> ids;
+    private final PersistentHashMap<Integer, V> values;
+    //Worked out when first needed
+    private volatile int[] sortOrder;
+
+    private StableIndexedMap(Comparator<V> displayOrder, PersistentHashMap<K, Integer> ids, PersistentHashMap<Integer, V> values) {
+        this.displayOrder = displayOrder;
+        this.ids = ids;
+        this.values = values;
+    }
+
+    /**
+     * Creates an empty map. The ids are handed out in the order the values are added.
+     *
+     * @param displayOrder the order to display the values in
+     * @return the map
+     */
+    public static <K, V> StableIndexedMap<K, V> empty(Comparator<V> displayOrder) {
+        return new StableIndexedMap<>(displayOrder, PersistentHashMap.empty(), PersistentHashMap.empty());
+    }
+
+    /**
+     * Creates a map from the values loaded for a new board. The ids are given out in display order, so the sort order
+     * starts off as the identity permutation.
+     *
+     * @param map the values
+     * @param displayOrder the order to display the values in
+     * @return the map
+     */
+    public static <K, V> StableIndexedMap<K, V> create(Map<K, V> map, Comparator<V> displayOrder) {
+        final List<Map.Entry<K, V>> entries = new ArrayList<>(map.entrySet());
+        Collections.sort(entries, (e1, e2) -> displayOrder.compare(e1.getValue(), e2.getValue()));
+        PersistentHashMap<K, Integer> ids = PersistentHashMap.empty();
+        PersistentHashMap<Integer, V> values = PersistentHashMap.empty();
+        for (Map.Entry<K, V> entry : entries) {
+            values = values.plus(ids.size(), entry.getValue());
+            ids = ids.plus(entry.getKey(), ids.size());
+        }
+        return new StableIndexedMap<>(displayOrder, ids, values);
+    }
+
+    /**
+     * Returns a map with the value added with the next id.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the new map
+     */
+    public StableIndexedMap<K, V> plus(K key, V value) {
+        if (ids.containsKey(key)) {
+            throw new IllegalArgumentException("Already have a value for " + key);
+        }
+        final int id = ids.size();
+        return new StableIndexedMap<>(displayOrder, ids.plus(key, id), values.plus(id, value));
+    }
+
+    public V get(K key) {
+        final Integer id = ids.get(key);
+        return id == null ? null : values.get(id);
+    }
+
+    public Integer getId(K key) {
+        return ids.get(key);
+    }
+
+    public V forId(int id) {
+        return values.get(id);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Gets the values in id order
+     *
+     * @return the values
+     */
+    public List<V> values() {
+        return new AbstractList<V>() {
+            @Override
+            public V get(int index) {
+                return values.get(index);
+            }
+
+            @Override
+            public int size() {
+                return values.size();
+            }
+        };
+    }
+
+    /**
+     * Gets the ids of the values in display order.
+     *
+     * @return the ids in display order. Do not modify the returned array
+     */
+    public int[] getSortOrder() {
+        int[] sortOrder = this.sortOrder;
+        if (sortOrder == null) {
+            final List<Integer> sorted = new ArrayList<>(size());
+            for (int i = 0 ; i < size() ; i++) {
+                sorted.add(i);
+            }
+            Collections.sort(sorted, (id1, id2) -> displayOrder.compare(values.get(id1), values.get(id2)));
+            sortOrder = new int[sorted.size()];
+            for (int i = 0 ; i < sortOrder.length ; i++) {
+                sortOrder[i] = sorted.get(i);
+            }
+            this.sortOrder = sortOrder;
+        }
+        return sortOrder;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl.util;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Collapses equal strings to one instance. Jira hands out a new string for the issue key, summary, state name etc.
+ * every time an issue is loaded, so without this each board, each board copy's new issues, and each event holds its
+ * own copy of the same text. The pool only holds on to the strings weakly, so a string which is no longer referenced
+ * by any board gets garbage collected as normal.
+ * <p>
+ * The pool is split into segments by hash code, so that boards being loaded at the same time do not all wait on the
+ * same lock.
+ *
+ * @author Kabir Khan
+ */
+public final class StringInterner {
+
+    private static final StringInterner SHARED = new StringInterner();
+
+    //Must be a power of two
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public StringInterner() {
+        for (int i = 0 ; i < SEGMENTS ; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Interns a string in the pool shared by all the boards.
+     *
+     * @param string the string. May be {@code null}
+     * @return the pooled instance equal to {@code string}, or {@code null} if {@code string} is {@code null}
+     */
+    public static String intern(String string) {
+        return SHARED.get(string);
+    }
+
+    /**
+     * Gets the pooled instance of a string, adding it to the pool if it is not there yet.
+     *
+     * @param string the string. May be {@code null}
+     * @return the pooled instance equal to {@code string}, or {@code null} if {@code string} is {@code null}
+     */
+    public String get(String string) {
+        if (string == null) {
+            return null;
+        }
+        final int h = string.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)].get(string);
+    }
+
+    /**
+     * Gets the number of strings in the pool. Strings which have been garbage collected, but not yet expunged from the
+     * pool, might still be counted.
+     *
+     * @return the number of strings
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private static class Segment {
+        //The value refers to the key, so it must be weak as well for the entry to be collected
+        private final Map<String, WeakReference<String>> strings = new WeakHashMap<>();
+
+        synchronized String get(String string) {
+            final WeakReference<String> ref = strings.get(string);
+            if (ref != null) {
+                final String pooled = ref.get();
+                if (pooled != null) {
+                    return pooled;
+                }
+            }
+            strings.put(string, new WeakReference<>(string));
+            return string;
+        }
+
+        synchronized int size() {
+            return strings.size();
+        }
+    }
+}
@@ -21,9 +21,11 @@ import static org.jirban.jira.impl.Constants.CURRENT_BOARD_LAST_LOGGED_ACCESS;
 import static org.jirban.jira.impl.Constants.HELP;
 import static org.jirban.jira.impl.Constants.ISSUES;
 import static org.jirban.jira.impl.Constants.JIRBAN_VERSION;
+import static org.jirban.jira.impl.Constants.LINKED_ISSUES;
 import static org.jirban.jira.impl.Constants.UPDATES;
 import static org.jirban.jira.impl.Constants.VERSION;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
@@ -66,7 +68,7 @@ public class RestEndpoint {
      * If we change anything in the payloads etc. we should bump this so that the client can take action.
      * The corresponding location on the client is in app.ts
      */
-    private static final int API_VERSION = 2;
+    private static final int API_VERSION = 3;
 
     private final JiraFacade jiraFacade;
 
@@ -147,6 +149,18 @@ public class RestEndpoint {
                         viewId));
     }
 
+    @GET
+    @Path(ISSUES + "/{boardCode}/" + LINKED_ISSUES)
+    public Response getLinkedIssues(@PathParam("boardCode") String boardCode,
+                                    @QueryParam("backlog") Boolean backlog,
+                                    @QueryParam("issue") List<String> issueKeys) throws SearchException {
+        return createResponse(
+                jiraFacade.getLinkedIssuesJson(getUser(),
+                        backlog != null && backlog.booleanValue(),
+                        boardCode,
+                        issueKeys));
+    }
+
     @GET
     @Path(ISSUES + "/{boardCode}/" + HELP)
     public Response getBoard(
@@ -172,6 +186,15 @@ public class RestEndpoint {
         return createResponse("{}");
     }
 
+    @POST
+    @Path(ISSUES + "/{boardCode}/reload/{issueKey}")
+    public Response reloadIssue(
+            @PathParam("boardCode") String boardCode,
+            @PathParam("issueKey") String issueKey) throws SearchException {
+        jiraFacade.reloadIssue(getUser(), boardCode, issueKey);
+        return createResponse("{}");
+    }
+
     @GET
     @Path(BOARDS + "/{boardId}")
     public Response getBoardConfig(@PathParam("boardId") int boardId) {
@@ -260,6 +283,13 @@ public class RestEndpoint {
         return createResponse(jiraFacade.getUserAccessJson(user));
     }
 
+    @GET
+    @Path("event-queues")
+    public Response getEventQueues() {
+        ApplicationUser user = getUser();
+        return createResponse(jiraFacade.getEventQueuesJson(user));
+    }
+
     private Response createResponse(ModelNode modelNode) {
         return createResponse(modelNode.toJSONString(true));
     }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.jboss.dmr.ModelNode;
+import org.jirban.jira.api.NextRankedIssueUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the board event queues on a real thread pool. It lives in this package since the queue is internal to the
+ * board manager.
+ *
+ * @author Kabir Khan
+ */
+public class BoardEventQueueTest {
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void createExecutors() {
+        executor = Executors.newFixedThreadPool(4);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void shutdownExecutors() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testSingleWriterInOrder() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        BoardEventQueue queue = new BoardEventQueue("TST", executor, scheduler, handler, 0, 0);
+
+        //Use more than the number of tasks done before the queue gives up its thread
+        List<String> expected = new ArrayList<>();
+        for (int i = 1 ; i <= 500 ; i++) {
+            String key = "TDP-" + i;
+            expected.add(key);
+            queue.addEvent(JirbanIssueEvent.createDeleteEvent(key, "TDP"), null);
+            if (i % 100 == 0) {
+                //Tasks such as publishing a loaded board go through the same queue
+                String taskKey = "task-" + i;
+                expected.add(taskKey);
+                queue.add(() -> handler.record(taskKey));
+            }
+        }
+
+        waitFor(() -> queue.getMetrics().get("applied").asInt() == expected.size(), "All tasks applied");
+        Assert.assertEquals(expected, handler.getRecorded());
+        Assert.assertEquals(1, handler.maxActive.get());
+
+        ModelNode metrics = queue.getMetrics();
+        Assert.assertEquals(0, metrics.get("depth").asInt());
+        Assert.assertEquals(0, metrics.get("coalesced").asInt());
+        Assert.assertEquals(500, metrics.get("changed").asInt());
+        Assert.assertEquals(0, metrics.get("failures").asInt());
+        Assert.assertFalse(metrics.hasDefined("last-failure"));
+    }
+
+    @Test
+    public void testBoardsAreIsolated() throws Exception {
+        RecordingHandler handlerA = new RecordingHandler("TDP-2");
+        RecordingHandler handlerB = new RecordingHandler();
+        BoardEventQueue queueA = new BoardEventQueue("A", executor, scheduler, handlerA, 0, 0);
+        BoardEventQueue queueB = new BoardEventQueue("B", executor, scheduler, handlerB, 0, 0);
+
+        //Hold up board A
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        queueA.add(() -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        for (int i = 1 ; i <= 3 ; i++) {
+            queueA.addEvent(JirbanIssueEvent.createDeleteEvent("TDP-" + i, "TDP"), null);
+        }
+        //A failing publish/reload task only reports the failure to whoever waits for its result
+        FutureTask<Boolean> failingTask = new FutureTask<>(() -> {
+            throw new IllegalStateException("Could not publish");
+        });
+        queueA.add(failingTask);
+        queueA.addEvent(JirbanIssueEvent.createDeleteEvent("TDP-4", "TDP"), null);
+
+        //Board B should not have to wait for board A
+        for (int i = 1 ; i <= 3 ; i++) {
+            queueB.addEvent(JirbanIssueEvent.createDeleteEvent("TDP-" + i, "TDP"), null);
+        }
+        waitFor(() -> queueB.getMetrics().get("applied").asInt() == 3, "Board B applied");
+        Assert.assertEquals(Arrays.asList("TDP-1", "TDP-2", "TDP-3"), handlerB.getRecorded());
+        Assert.assertEquals(Collections.emptyList(), handlerA.getRecorded());
+        Assert.assertEquals(5, queueA.getMetrics().get("depth").asInt());
+
+        //The failures on board A should be counted, and not stop the tasks following them
+        release.countDown();
+        waitFor(() -> queueA.getMetrics().get("applied").asInt() == 6, "Board A applied");
+        Assert.assertEquals(Arrays.asList("TDP-1", "TDP-2", "TDP-3", "TDP-4"), handlerA.getRecorded());
+        ModelNode metricsA = queueA.getMetrics();
+        Assert.assertEquals(0, metricsA.get("depth").asInt());
+        Assert.assertEquals(2, metricsA.get("failures").asInt());
+        Assert.assertEquals("Could not publish", metricsA.get("last-failure").asString());
+        ModelNode metricsB = queueB.getMetrics();
+        Assert.assertEquals(0, metricsB.get("failures").asInt());
+        Assert.assertFalse(metricsB.hasDefined("last-failure"));
+    }
+
+    @Test
+    public void testErrorDoesNotStopQueue() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        BoardEventQueue queue = new BoardEventQueue("TST", executor, scheduler, handler, 0, 0);
+
+        queue.add(() -> {
+            throw new AssertionError("Broken task");
+        });
+        for (int i = 1 ; i <= 3 ; i++) {
+            queue.addEvent(JirbanIssueEvent.createDeleteEvent("TDP-" + i, "TDP"), null);
+        }
+        waitFor(() -> handler.getRecorded().size() == 3, "Events following the error applied");
+        Assert.assertEquals(Arrays.asList("TDP-1", "TDP-2", "TDP-3"), handler.getRecorded());
+
+        //The queue should still be usable afterwards
+        queue.addEvent(JirbanIssueEvent.createDeleteEvent("TDP-4", "TDP"), null);
+        waitFor(() -> handler.getRecorded().size() == 4, "Later event applied");
+        ModelNode metrics = queue.getMetrics();
+        Assert.assertEquals(0, metrics.get("depth").asInt());
+        Assert.assertEquals(1, metrics.get("failures").asInt());
+        Assert.assertEquals("Broken task", metrics.get("last-failure").asString());
+    }
+
+    private static void waitFor(BooleanSupplier condition, String description) throws InterruptedException {
+        final long end = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > end) {
+                Assert.fail("Timed out waiting for: " + description);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static class RecordingHandler implements BoardEventQueue.EventHandler {
+        private final Set<String> failingKeys;
+        private final List<String> recorded = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger maxActive = new AtomicInteger();
+
+        RecordingHandler(String... failingKeys) {
+            this.failingKeys = new HashSet<>(Arrays.asList(failingKeys));
+        }
+
+        @Override
+        public boolean handleEvent(JirbanIssueEvent event, NextRankedIssueUtil nextRankedIssueUtil) {
+            record(event.getIssueKey());
+            if (failingKeys.contains(event.getIssueKey())) {
+                throw new IllegalStateException("Can't find issue " + event.getIssueKey());
+            }
+            return true;
+        }
+
+        @Override
+        public boolean handleEvents(List<JirbanIssueEvent> events, NextRankedIssueUtil nextRankedIssueUtil) {
+            for (JirbanIssueEvent event : events) {
+                record(event.getIssueKey());
+            }
+            return true;
+        }
+
+        void record(String key) {
+            final int current = active.incrementAndGet();
+            maxActive.accumulateAndGet(current, Math::max);
+            //Give the other threads in the pool a chance to get in if the queue were to let them
+            Thread.yield();
+            recorded.add(key);
+            active.decrementAndGet();
+        }
+
+        List<String> getRecorded() {
+            synchronized (recorded) {
+                return new ArrayList<>(recorded);
+            }
+        }
+    }
+}
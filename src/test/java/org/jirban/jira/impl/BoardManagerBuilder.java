@@ -15,6 +15,10 @@
  */
 package org.jirban.jira.impl;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
 import org.jirban.jira.api.BoardConfigurationManager;
 import org.jirban.jira.api.BoardManager;
 import org.jirban.jira.api.NextRankedIssueUtil;
@@ -32,6 +36,7 @@ import com.atlassian.jira.issue.CustomFieldManager;
 import com.atlassian.jira.issue.customfields.manager.OptionsManager;
 import com.atlassian.jira.issue.link.IssueLinkManager;
 import com.atlassian.jira.issue.search.SearchContextFactory;
+import com.atlassian.jira.issue.search.SearchException;
 import com.atlassian.jira.project.ProjectManager;
 import com.atlassian.jira.project.version.VersionManager;
 import com.atlassian.jira.security.GlobalPermissionManager;
@@ -48,6 +53,13 @@ import ut.org.jirban.jira.mock.ProjectManagerBuilder;
  */
 public class BoardManagerBuilder {
 
+    //Only used when there is a coalescing window, so share it between all the tests
+    private static final ScheduledExecutorService DEFAULT_BOARD_EVENT_SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "jirban-test-board-event-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private SearchService searchService;
     private AvatarService avatarService = AvatarServiceBuilder.getUserNameUrlMock();
     private IssueLinkManager issueLinkManager;
@@ -57,6 +69,11 @@ public class BoardManagerBuilder {
     private PermissionManager permissionManager = PermissionManagerBuilder.getAllowsAll();
     private NextRankedIssueUtil nextRankedIssueUtil;
     private ProjectParallelTaskOptionsLoader projectParallelTaskOptionsLoader = new ProjectParallelTaskOptionsLoaderBuilder().build();
+    private Executor boardEventExecutor;
+    private ScheduledExecutorService boardEventScheduler;
+    private int coalesceWindowMillis;
+    private int batchThreshold;
+    private boolean lazyLinkedIssues;
 
     public BoardManagerBuilder() {
     }
@@ -106,6 +123,41 @@ public class BoardManagerBuilder {
         return this;
     }
 
+    public BoardManagerBuilder setBoardEventExecutor(Executor boardEventExecutor) {
+        this.boardEventExecutor = boardEventExecutor;
+        return this;
+    }
+
+    public BoardManagerBuilder setBoardEventScheduler(ScheduledExecutorService boardEventScheduler) {
+        this.boardEventScheduler = boardEventScheduler;
+        return this;
+    }
+
+    public BoardManagerBuilder setCoalesceWindowMillis(int coalesceWindowMillis) {
+        this.coalesceWindowMillis = coalesceWindowMillis;
+        return this;
+    }
+
+    public BoardManagerBuilder setBatchThreshold(int batchThreshold) {
+        this.batchThreshold = batchThreshold;
+        return this;
+    }
+
+    public BoardManagerBuilder setLazyLinkedIssues(boolean lazyLinkedIssues) {
+        this.lazyLinkedIssues = lazyLinkedIssues;
+        return this;
+    }
+
+    //Lets the tests reconcile a board with Jira without waiting for the periodic task to do it
+    public static void reconcileBoard(BoardManager boardManager, String code) {
+        ((BoardManagerImpl) boardManager).reconcileBoard(code);
+    }
+
+    //Lets the tests rebuild a board from Jira without waiting for the periodic task to do it
+    public static void rebuildBoard(BoardManager boardManager, String code) throws SearchException {
+        ((BoardManagerImpl) boardManager).rebuildBoard(code);
+    }
+
     public BoardManager build() {
         //These are not needed for this code path at the moment
         final ActiveObjects activeObjects = null;
@@ -138,6 +190,17 @@ public class BoardManagerBuilder {
                 userService,
                 versionManager);
 
-        return new BoardManagerImpl(jiraInjectables, boardConfigurationManager, projectParallelTaskOptionsLoader);
+        //Unless a test wants a thread pool, apply the events in the calling thread so the tests can check the results
+        //right away
+        final Executor boardEventExecutor = this.boardEventExecutor != null ? this.boardEventExecutor : new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        final ScheduledExecutorService boardEventScheduler = this.boardEventScheduler != null ?
+                this.boardEventScheduler : DEFAULT_BOARD_EVENT_SCHEDULER;
+        return new BoardManagerImpl(jiraInjectables, boardConfigurationManager, projectParallelTaskOptionsLoader, nextRankedIssueUtil,
+                boardEventExecutor, boardEventScheduler, coalesceWindowMillis, batchThreshold, 0, lazyLinkedIssues);
     }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.jirban.jira.api.BoardManager;
+import org.jirban.jira.impl.activeobjects.UserAccess;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.atlassian.activeobjects.external.ActiveObjects;
+import com.atlassian.jira.issue.search.SearchException;
+import com.atlassian.sal.api.transaction.TransactionCallback;
+
+import net.java.ao.Query;
+
+/**
+ * Tests that the board warmer loads the most accessed boards, and leaves the others alone. It lives in this package
+ * since the warmer's test hooks are package-private.
+ *
+ * @author Kabir Khan
+ */
+public class BoardWarmerTest {
+
+    private ActiveObjects activeObjects;
+    private BoardManager boardManager;
+    private final List<UserAccess> accesses = new ArrayList<>();
+
+    @Before
+    public void setupMocks() {
+        activeObjects = mock(ActiveObjects.class);
+        when(activeObjects.executeInTransaction(any(TransactionCallback.class)))
+                .thenAnswer(invocation -> ((TransactionCallback)invocation.getArguments()[0]).doInTransaction());
+        when(activeObjects.find(eq(UserAccess.class), any(Query.class)))
+                .thenAnswer(invocation -> accesses.toArray(new UserAccess[accesses.size()]));
+        boardManager = mock(BoardManager.class);
+    }
+
+    @Test
+    public void testMostAccessedBoardCodes() {
+        access("TDP", 3);
+        access("TBG", 5);
+        access("ABC", 1);
+        access("XYZ", 2);
+
+        UserAccessManagerImpl userAccessManager = new UserAccessManagerImpl(activeObjects);
+        Assert.assertEquals(Arrays.asList("TBG", "TDP"), userAccessManager.getMostAccessedBoardCodes(7, 2));
+        Assert.assertEquals(Arrays.asList("TBG", "TDP", "XYZ", "ABC"), userAccessManager.getMostAccessedBoardCodes(7, 10));
+    }
+
+    @Test
+    public void testMostAccessedBoardCodesNoAccesses() {
+        UserAccessManagerImpl userAccessManager = new UserAccessManagerImpl(activeObjects);
+        Assert.assertEquals(0, userAccessManager.getMostAccessedBoardCodes(7, 2).size());
+    }
+
+    @Test
+    public void testWarmTopBoards() throws Exception {
+        access("TDP", 3);
+        access("TBG", 5);
+        access("ABC", 1);
+        access("XYZ", 2);
+
+        BoardWarmer warmer = createWarmer(2);
+        warmer.warmBoards();
+
+        verify(boardManager).setWarmBoards(new HashSet<>(Arrays.asList("TBG", "TDP")));
+        verify(boardManager).warmBoard("TBG");
+        verify(boardManager).warmBoard("TDP");
+        verify(boardManager, never()).warmBoard("XYZ");
+        verify(boardManager, never()).warmBoard("ABC");
+    }
+
+    @Test
+    public void testWarmBoardFailureDoesNotStopOthers() throws Exception {
+        access("TDP", 3);
+        access("TBG", 5);
+        doThrow(new SearchException("Deleted")).when(boardManager).warmBoard("TBG");
+
+        BoardWarmer warmer = createWarmer(2);
+        warmer.warmBoards();
+
+        verify(boardManager).warmBoard("TBG");
+        verify(boardManager).warmBoard("TDP");
+    }
+
+    private BoardWarmer createWarmer(int maxBoards) {
+        //Load the boards in the calling thread
+        return new BoardWarmer(boardManager, new UserAccessManagerImpl(activeObjects), maxBoards, Runnable::run);
+    }
+
+    private void access(String boardCode, int count) {
+        for (int i = 0 ; i < count ; i++) {
+            UserAccess access = mock(UserAccess.class);
+            when(access.getBoardCode()).thenReturn(boardCode);
+            accesses.add(access);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares how the board's issue table copes with a stream of issue events, when copying the whole map for every
+ * event as the board used to, and when using {@link PersistentHashMap}. It is not run as part of the tests, run it
+ * with e.g.
+ * <pre>
+ *     java -cp target/classes:target/test-classes org.jirban.jira.impl.util.PersistentHashMapBenchmark [issues] [events]
+ * </pre>
+ *
+ * @author Kabir Khan
+ */
+public class PersistentHashMapBenchmark {
+
+    public static void main(String[] args) {
+        final int issues = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        final int events = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+
+        final Map<String, String> initial = new HashMap<>();
+        for (int i = 0 ; i < issues ; i++) {
+            initial.put("TDP-" + i, "Issue " + i);
+        }
+
+        //Warm up
+        for (int i = 0 ; i < 3 ; i++) {
+            runCopy(initial, issues, events);
+            runPersistent(initial, issues, events);
+        }
+
+        System.out.println("Applying " + events + " events to a board with " + issues + " issues");
+        report("HashMap copy", runCopy(initial, issues, events), events);
+        report("PersistentHashMap", runPersistent(initial, issues, events), events);
+    }
+
+    private static long[] runCopy(Map<String, String> initial, int issues, int events) {
+        final Random random = new Random(1);
+        Map<String, String> map = Collections.unmodifiableMap(new HashMap<>(initial));
+        final long allocated = allocatedBytes();
+        final long start = System.nanoTime();
+        for (int i = 0 ; i < events ; i++) {
+            final Map<String, String> copy = new HashMap<>(map);
+            copy.put("TDP-" + random.nextInt(issues), "Event " + i);
+            map = Collections.unmodifiableMap(copy);
+        }
+        return new long[]{System.nanoTime() - start, allocatedBytes() - allocated, map.size()};
+    }
+
+    private static long[] runPersistent(Map<String, String> initial, int issues, int events) {
+        final Random random = new Random(1);
+        PersistentHashMap<String, String> map = PersistentHashMap.copyOf(initial);
+        final long allocated = allocatedBytes();
+        final long start = System.nanoTime();
+        for (int i = 0 ; i < events ; i++) {
+            map = map.plus("TDP-" + random.nextInt(issues), "Event " + i);
+        }
+        return new long[]{System.nanoTime() - start, allocatedBytes() - allocated, map.size()};
+    }
+
+    private static void report(String name, long[] result, int events) {
+        final double seconds = result[0] / 1e9;
+        System.out.printf("%-20s %,12.0f events/s %,12d bytes/event%n",
+                name, events / seconds, result[1] / events);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
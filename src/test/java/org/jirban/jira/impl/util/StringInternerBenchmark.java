@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jirban.jira.impl.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Shows the heap used by the strings of a synthetic board with and without the {@link StringInterner}, using the class
+ * histogram of the live objects. Each board holds the key, summary and state of every issue, and the key again in the
+ * ranked issues, as copies coming from separate loads. It is not run as part of the tests, run it with e.g.
+ * <pre>
+ *     java -cp target/classes:target/test-classes org.jirban.jira.impl.util.StringInternerBenchmark [issues] [boards]
+ * </pre>
+ *
+ * @author Kabir Khan
+ */
+public class StringInternerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        final int issues = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        final int boards = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        System.out.println(issues + " issues on " + boards + " boards");
+        final String[] baseline = histogram();
+        List<String[]> loaded = load(issues, boards, s -> s);
+        report("Not interned", baseline, histogram());
+        loaded = null;
+
+        final String[] baselineInterned = histogram();
+        loaded = load(issues, boards, StringInterner::intern);
+        report("Interned", baselineInterned, histogram());
+        System.out.println("(" + loaded.size() + " issues kept alive)");
+    }
+
+    private static List<String[]> load(int issues, int boards, Function<String, String> interner) {
+        final List<String[]> loaded = new ArrayList<>();
+        for (int board = 0 ; board < boards ; board++) {
+            for (int i = 0 ; i < issues ; i++) {
+                //Each load gets new strings from Jira
+                final String key = interner.apply(new String("TDP-" + i));
+                final String summary = interner.apply(new String("Summary of issue TDP-" + i));
+                final String state = interner.apply(new String("State " + (i % 10)));
+                final String rankedKey = interner.apply(new String("TDP-" + i));
+                loaded.add(new String[]{key, summary, state, rankedKey});
+            }
+        }
+        return loaded;
+    }
+
+    private static void report(String name, String[] before, String[] after) {
+        final long[] stringsBefore = parse(before, "java.lang.String");
+        final long[] stringsAfter = parse(after, "java.lang.String");
+        //The contents are in a byte[] from Java 9, and in a char[] before
+        final long contentsBefore = parse(before, "[B")[1] + parse(before, "[C")[1];
+        final long contentsAfter = parse(after, "[B")[1] + parse(after, "[C")[1];
+        System.out.printf("%-14s %,10d strings %,14d bytes in the strings and their contents %,14d bytes in total%n",
+                name,
+                stringsAfter[0] - stringsBefore[0],
+                stringsAfter[1] - stringsBefore[1] + contentsAfter - contentsBefore,
+                total(after) - total(before));
+    }
+
+    //Runs a full gc, and gets the live objects histogram, the same as 'jcmd <pid> GC.class_histogram'
+    private static String[] histogram() throws Exception {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final String histogram = (String) server.invoke(
+                new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                "gcClassHistogram",
+                new Object[]{null},
+                new String[]{String[].class.getName()});
+        return histogram.split("\n");
+    }
+
+    //Includes the pool and the arrays holding the loaded strings
+    private static long total(String[] histogram) {
+        for (String line : histogram) {
+            final String[] parts = line.trim().split("\\s+");
+            if (parts.length == 3 && parts[0].equals("Total")) {
+                return Long.parseLong(parts[2]);
+            }
+        }
+        return 0;
+    }
+
+    private static long[] parse(String[] histogram, String className) {
+        for (String line : histogram) {
+            //num:   #instances   #bytes   class name (module)
+            final String[] parts = line.trim().split("\\s+");
+            if (parts.length >= 4 && parts[0].endsWith(":") && parts[3].equals(className)) {
+                return new long[]{Long.parseLong(parts[1]), Long.parseLong(parts[2])};
+            }
+        }
+        return new long[]{0, 0};
+    }
+}
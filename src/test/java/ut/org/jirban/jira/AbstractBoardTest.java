@@ -41,10 +41,12 @@ import com.atlassian.jira.junit.rules.MockitoContainer;
 import com.atlassian.jira.junit.rules.MockitoMocksInContainer;
 import com.atlassian.jira.mock.component.MockComponentWorker;
 import com.atlassian.jira.project.version.Version;
+import com.atlassian.jira.security.GlobalPermissionManager;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.user.util.UserManager;
 
 import ut.org.jirban.jira.mock.CustomFieldManagerBuilder;
+import ut.org.jirban.jira.mock.GlobalPermissionManagerBuilder;
 import ut.org.jirban.jira.mock.IssueLinkManagerBuilder;
 import ut.org.jirban.jira.mock.IssueRegistry;
 import ut.org.jirban.jira.mock.MockLabel;
@@ -66,6 +68,7 @@ public abstract class AbstractBoardTest {
     protected IssueRegistry issueRegistry;
     protected NextRankedIssueUtil nextRankedIssueUtil;
     protected SearchCallback searchCallback = new SearchCallback();
+    protected GlobalPermissionManager globalPermissionManager = GlobalPermissionManagerBuilder.getAllowsAll();
 
     @Before
     public void initializeMocks() throws Exception {
@@ -81,6 +84,7 @@ public abstract class AbstractBoardTest {
                 .addConfigActiveObjectsFromFile(cfgResource)
                 .addSettingActiveObject(RANK_CUSTOM_FIELD_ID, "10000")
                 .setCustomFieldManager(CustomFieldManagerBuilder.loadFromResource(cfgResource))
+                .setGlobalPermissionManager(globalPermissionManager)
                 .build();
 
         MockComponentWorker worker = new MockComponentWorker();
@@ -96,7 +100,7 @@ public abstract class AbstractBoardTest {
                 .setIssueRegistry(issueRegistry)
                 .setSearchCallback(searchCallback)
                 .build();
-        IssueLinkManager issueLinkManager = new IssueLinkManagerBuilder().build();
+        IssueLinkManager issueLinkManager = new IssueLinkManagerBuilder().setIssueRegistry(issueRegistry).build();
         worker.init();
 
         BoardManagerBuilder boardManagerBuilder = new BoardManagerBuilder()
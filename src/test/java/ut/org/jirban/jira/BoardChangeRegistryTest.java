@@ -56,6 +56,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.jboss.dmr.ModelNode;
@@ -1708,6 +1711,254 @@ public class BoardChangeRegistryTest extends AbstractBoardTest {
         checkDeletes(changesNode, "TDP-1");
     }
 
+    @Test
+    public void testCoalesceUpdates() throws Exception {
+        final ManualScheduler scheduler = setupCoalescingBoard();
+
+        //Rank and move an issue, and then change its summary
+        issueRegistry.rerankIssue("TDP-7", "TDP-2");
+        JirbanIssueEvent first = updateEventBuilder("TDP-7").rank().state("TDP-B").buildAndRegister();
+        JirbanIssueEvent second = updateEventBuilder("TDP-7").summary("Seven-1").buildAndRegister();
+
+        //The merged event keeps the state the issue was in before the first event, and is ranked if either was
+        JirbanIssueEvent merged = first.merge(second);
+        Assert.assertEquals(JirbanIssueEvent.Type.UPDATE, merged.getType());
+        Assert.assertEquals("TDP-C", merged.getDetails().getOldState());
+        Assert.assertEquals("TDP-B", merged.getDetails().getState());
+        Assert.assertEquals("Seven-1", merged.getDetails().getSummary());
+        Assert.assertTrue(merged.getDetails().isReranked());
+
+        boardManager.handleEvent(first, nextRankedIssueUtil);
+        boardManager.handleEvent(second, nextRankedIssueUtil);
+        //Nothing gets applied until the coalescing window is over
+        checkViewId(0);
+
+        scheduler.runScheduled();
+        checkViewId(1);
+        ModelNode changes = getChangesJson(0, 1, new NewRankChecker().rank(1, "TDP-7"));
+        checkAdds(changes);
+        checkUpdates(changes, new UpdateIssueData("TDP-7").summary("Seven-1").state("TDP-B"));
+        checkDeletes(changes);
+    }
+
+    @Test
+    public void testCoalesceCreateAndUpdate() throws Exception {
+        final ManualScheduler scheduler = setupCoalescingBoard();
+
+        JirbanIssueEvent create = createEventBuilder("TDP-8", IssueType.BUG, Priority.HIGH, "Eight")
+                .assignee("kabir")
+                .state("TDP-D")
+                .buildAndRegister();
+        JirbanIssueEvent update = updateEventBuilder("TDP-8").summary("Eight-1").buildAndRegister();
+
+        //The issue was created in the window, so it stays a create
+        JirbanIssueEvent merged = create.merge(update);
+        Assert.assertEquals(JirbanIssueEvent.Type.CREATE, merged.getType());
+        Assert.assertEquals("Eight-1", merged.getDetails().getSummary());
+        Assert.assertEquals("TDP-D", merged.getDetails().getState());
+
+        boardManager.handleEvent(create, nextRankedIssueUtil);
+        boardManager.handleEvent(update, nextRankedIssueUtil);
+        checkViewId(0);
+
+        scheduler.runScheduled();
+        checkViewId(1);
+        ModelNode changes = getChangesJson(0, 1, new NewRankChecker().rank(7, "TDP-8"));
+        checkAdds(changes, new AddIssueData("TDP-8", IssueType.BUG, Priority.HIGH, "Eight-1", "TDP-D", "kabir"));
+        checkUpdates(changes);
+        checkDeletes(changes);
+    }
+
+    @Test
+    public void testCoalesceUpdateAndDelete() throws Exception {
+        final ManualScheduler scheduler = setupCoalescingBoard();
+
+        JirbanIssueEvent update = updateEventBuilder("TDP-3").summary("Three-1").buildAndRegister();
+        issueRegistry.deleteIssue("TDP-3");
+        JirbanIssueEvent delete = JirbanIssueEvent.createDeleteEvent("TDP-3", "TDP");
+
+        //The delete wins
+        Assert.assertSame(delete, update.merge(delete));
+
+        boardManager.handleEvent(update, nextRankedIssueUtil);
+        boardManager.handleEvent(delete, nextRankedIssueUtil);
+        checkViewId(0);
+
+        scheduler.runScheduled();
+        checkViewId(1);
+        ModelNode changes = getChangesJson(0, 1);
+        checkAdds(changes);
+        checkUpdates(changes);
+        checkDeletes(changes, "TDP-3");
+    }
+
+    @Test
+    public void testDoNotCoalesceUnrelatedEvents() throws Exception {
+        final ManualScheduler scheduler = setupCoalescingBoard();
+
+        //Events for different issues
+        JirbanIssueEvent first = updateEventBuilder("TDP-1").summary("One-1").buildAndRegister();
+        JirbanIssueEvent second = updateEventBuilder("TDP-2").summary("Two-1").buildAndRegister();
+        Assert.assertNull(first.merge(second));
+        boardManager.handleEvent(first, nextRankedIssueUtil);
+        boardManager.handleEvent(second, nextRankedIssueUtil);
+        scheduler.runScheduled();
+        checkViewId(2);
+        ModelNode changes = getChangesJson(0, 2);
+        checkAdds(changes);
+        checkUpdates(changes, new UpdateIssueData("TDP-1").summary("One-1"), new UpdateIssueData("TDP-2").summary("Two-1"));
+        checkDeletes(changes);
+
+        //A create followed by a delete is left to the board
+        JirbanIssueEvent create = createEventBuilder("TDP-8", IssueType.BUG, Priority.HIGH, "Eight")
+                .assignee("kabir")
+                .state("TDP-D")
+                .buildAndRegister();
+        issueRegistry.deleteIssue("TDP-8");
+        JirbanIssueEvent delete = JirbanIssueEvent.createDeleteEvent("TDP-8", "TDP");
+        Assert.assertNull(create.merge(delete));
+        boardManager.handleEvent(create, nextRankedIssueUtil);
+        boardManager.handleEvent(delete, nextRankedIssueUtil);
+        scheduler.runScheduled();
+        checkViewId(4);
+
+        //An update following a delete, and anything following a delete, are left to the board too
+        JirbanIssueEvent update = updateEventBuilder("TDP-4").summary("Four-1").buildAndRegister();
+        delete = JirbanIssueEvent.createDeleteEvent("TDP-4", "TDP");
+        Assert.assertNull(delete.merge(update));
+        Assert.assertNull(delete.merge(delete));
+    }
+
+    @Test
+    public void testBatchOfEventsPlacesReloadedIssues() throws Exception {
+        //With enough issues in the project, each reloaded issue gets placed in front of the next one in place
+        final ManualScheduler scheduler = setupBatchingBoard(9);
+        checkBatchOfEvents(scheduler, "TDP-17", 15);
+    }
+
+    @Test
+    public void testBatchOfEventsReranksProject() throws Exception {
+        //Reloading a large part of the project takes the whole ranking from the search
+        final ManualScheduler scheduler = setupBatchingBoard(0);
+        checkBatchOfEvents(scheduler, "TDP-8", 6);
+    }
+
+    private void checkBatchOfEvents(ManualScheduler scheduler, String newIssueKey, int newIssueRank) throws Exception {
+        //A bulk change firing an event per issue
+        JirbanIssueEvent update = updateEventBuilder("TDP-1").summary("One-1").buildAndRegister();
+        issueRegistry.rerankIssue("TDP-7", "TDP-2");
+        JirbanIssueEvent rerank = updateEventBuilder("TDP-7").rank().buildAndRegister();
+        issueRegistry.deleteIssue("TDP-3");
+        JirbanIssueEvent delete = JirbanIssueEvent.createDeleteEvent("TDP-3", "TDP");
+        JirbanIssueEvent create = createEventBuilder(newIssueKey, IssueType.BUG, Priority.HIGH, "New")
+                .assignee("kabir")
+                .state("TDP-D")
+                .buildAndRegister();
+        boardManager.handleEvent(update, nextRankedIssueUtil);
+        boardManager.handleEvent(rerank, nextRankedIssueUtil);
+        boardManager.handleEvent(delete, nextRankedIssueUtil);
+        boardManager.handleEvent(create, nextRankedIssueUtil);
+        checkViewId(0);
+
+        //The events are applied in one board update
+        scheduler.runScheduled();
+        checkViewId(1);
+        ModelNode changes = getChangesJson(0, 1, new NewRankChecker().rank(1, "TDP-7").rank(newIssueRank, newIssueKey));
+        checkAdds(changes, new AddIssueData(newIssueKey, IssueType.BUG, Priority.HIGH, "New", "TDP-D", "kabir"));
+        //The reloaded issues contain all their data
+        checkUpdates(changes,
+                new UpdateIssueData("TDP-1").type(IssueType.TASK).priority(Priority.HIGHEST).summary("One-1")
+                        .state("TDP-A").assignee("kabir").components("C1").labels("L1").fixVersions("F1"),
+                new UpdateIssueData("TDP-7").type(IssueType.FEATURE).priority(Priority.LOW).summary("Seven")
+                        .state("TDP-C").unassigned().components("C1").labels("L1").fixVersions("F1"));
+        checkDeletes(changes, "TDP-3");
+    }
+
+    @Test
+    public void testRebuildRegistersChanges() throws Exception {
+        //Change the issues in Jira without the board getting the events
+        issueRegistry.updateIssue("TDP-1", null, null, "One-1", null, null, null, null, null);
+        issueRegistry.rerankIssue("TDP-7", "TDP-2");
+        issueRegistry.deleteIssue("TDP-3");
+        issueRegistry.issueBuilder("TDP", "bug", "high", "New", "TDP-D")
+                .assignee("kabir").buildAndRegister();                      //8
+        BoardManagerBuilder.rebuildBoard(boardManager, "TST");
+
+        //The differences should be one set of changes following the current view, so the clients stay incremental
+        checkViewId(1);
+        ModelNode changes = getChangesJson(0, 1, new NewRankChecker().rank(1, "TDP-7").rank(6, "TDP-8"));
+        checkAdds(changes, new AddIssueData("TDP-8", IssueType.BUG, Priority.HIGH, "New", "TDP-D", "kabir"));
+        checkUpdates(changes,
+                new UpdateIssueData("TDP-1").type(IssueType.TASK).priority(Priority.HIGHEST).summary("One-1")
+                        .state("TDP-A").assignee("kabir").components("C1").labels("L1").fixVersions("F1"),
+                new UpdateIssueData("TDP-7").type(IssueType.FEATURE).priority(Priority.LOW).summary("Seven")
+                        .state("TDP-C").unassigned().components("C1").labels("L1").fixVersions("F1"));
+        checkDeletes(changes, "TDP-3");
+
+        //Events following the rebuild carry on from its view
+        JirbanIssueEvent delete = JirbanIssueEvent.createDeleteEvent("TDP-4", "TDP");
+        boardManager.handleEvent(delete, nextRankedIssueUtil);
+        changes = getChangesJson(1, 2);
+        checkAdds(changes);
+        checkUpdates(changes);
+        checkDeletes(changes, "TDP-4");
+        changes = getChangesJson(0, 2, new NewRankChecker().rank(1, "TDP-7").rank(5, "TDP-8"));
+        checkDeletes(changes, "TDP-3", "TDP-4");
+    }
+
+    @Test
+    public void testRebuildWithoutChanges() throws Exception {
+        BoardManagerBuilder.rebuildBoard(boardManager, "TST");
+        checkViewId(0);
+        checkNoIssueChanges(0, 0);
+
+        //The change registry should still be in use
+        JirbanIssueEvent delete = JirbanIssueEvent.createDeleteEvent("TDP-3", "TDP");
+        boardManager.handleEvent(delete, nextRankedIssueUtil);
+        ModelNode changes = getChangesJson(0, 1);
+        checkAdds(changes);
+        checkUpdates(changes);
+        checkDeletes(changes, "TDP-3");
+    }
+
+    private ManualScheduler setupBatchingBoard(int extraIssues) throws Exception {
+        final ManualScheduler scheduler = new ManualScheduler();
+        setupInitialBoard("config/board-tdp.json", new AdditionalSetup() {
+            @Override
+            public void initialise(BoardManagerBuilder boardManagerBuilder) {
+                boardManagerBuilder
+                        .setBoardEventScheduler(scheduler)
+                        .setCoalesceWindowMillis(20)
+                        .setBatchThreshold(3);
+            }
+
+            @Override
+            public void setupIssues() {
+                for (int i = 0 ; i < extraIssues ; i++) {
+                    issueRegistry.issueBuilder("TDP", "task", "low", "Extra", "TDP-D").buildAndRegister();
+                }
+            }
+        });
+        return scheduler;
+    }
+
+    private ManualScheduler setupCoalescingBoard() throws Exception {
+        final ManualScheduler scheduler = new ManualScheduler();
+        setupInitialBoard("config/board-tdp.json", new AdditionalSetup() {
+            @Override
+            public void initialise(BoardManagerBuilder boardManagerBuilder) {
+                boardManagerBuilder
+                        .setBoardEventScheduler(scheduler)
+                        .setCoalesceWindowMillis(20);
+            }
+
+            @Override
+            public void setupIssues() {
+            }
+        });
+        return scheduler;
+    }
+
     private ModelNode checkNoIssueChanges(int fromView, int expectedView, NewChecker...checkers) throws SearchException {
         return checkNoIssueChanges(fromView, expectedView, false, checkers);
     }
@@ -2172,6 +2423,36 @@ public class BoardChangeRegistryTest extends AbstractBoardTest {
         }
     }
 
+    /**
+     * Keeps hold of the drains scheduled by the board event queues, so that the tests can run them once all the events
+     * to be coalesced have been queued.
+     */
+    private static class ManualScheduler extends ScheduledThreadPoolExecutor {
+        private final List<Runnable> commands = new ArrayList<>();
+        private final List<Long> delays = new ArrayList<>();
+
+        ManualScheduler() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            commands.add(command);
+            delays.add(unit.toNanos(delay));
+            return null;
+        }
+
+        void runScheduled() throws InterruptedException {
+            Assert.assertFalse(commands.isEmpty());
+            while (!commands.isEmpty()) {
+                final Runnable command = commands.remove(0);
+                //Wait until the coalescing window of the event is over
+                TimeUnit.NANOSECONDS.sleep(delays.remove(0));
+                command.run();
+            }
+        }
+    }
+
     interface AdditionalSetup extends AdditionalBuilderInit {
         void setupIssues();
     }
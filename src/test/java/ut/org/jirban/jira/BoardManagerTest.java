@@ -20,19 +20,25 @@ import static org.jirban.jira.impl.Constants.ASSIGNEES;
 import static org.jirban.jira.impl.Constants.AVATAR;
 import static org.jirban.jira.impl.Constants.BACKLOG;
 import static org.jirban.jira.impl.Constants.BLACKLIST;
+import static org.jirban.jira.impl.Constants.CHANGES;
 import static org.jirban.jira.impl.Constants.COMPONENTS;
 import static org.jirban.jira.impl.Constants.CUSTOM;
+import static org.jirban.jira.impl.Constants.DELETE;
 import static org.jirban.jira.impl.Constants.DISPLAY;
 import static org.jirban.jira.impl.Constants.DONE;
 import static org.jirban.jira.impl.Constants.EMAIL;
 import static org.jirban.jira.impl.Constants.FIX_VERSIONS;
 import static org.jirban.jira.impl.Constants.ICON;
+import static org.jirban.jira.impl.Constants.INDEX;
 import static org.jirban.jira.impl.Constants.ISSUES;
 import static org.jirban.jira.impl.Constants.ISSUE_TYPES;
 import static org.jirban.jira.impl.Constants.KEY;
 import static org.jirban.jira.impl.Constants.LABELS;
+import static org.jirban.jira.impl.Constants.LAZY_LINKED_ISSUES;
+import static org.jirban.jira.impl.Constants.LINKED_ISSUES;
 import static org.jirban.jira.impl.Constants.MAIN;
 import static org.jirban.jira.impl.Constants.NAME;
+import static org.jirban.jira.impl.Constants.NEW;
 import static org.jirban.jira.impl.Constants.OPTIONS;
 import static org.jirban.jira.impl.Constants.PARALLEL_TASKS;
 import static org.jirban.jira.impl.Constants.PRIORITIES;
@@ -40,23 +46,35 @@ import static org.jirban.jira.impl.Constants.PRIORITY;
 import static org.jirban.jira.impl.Constants.PROJECTS;
 import static org.jirban.jira.impl.Constants.RANK;
 import static org.jirban.jira.impl.Constants.RANKED;
+import static org.jirban.jira.impl.Constants.SORT_ORDER;
 import static org.jirban.jira.impl.Constants.STATE;
 import static org.jirban.jira.impl.Constants.STATES;
 import static org.jirban.jira.impl.Constants.SUMMARY;
 import static org.jirban.jira.impl.Constants.TYPE;
+import static org.jirban.jira.impl.Constants.UPDATE;
 import static org.jirban.jira.impl.Constants.VALUE;
+import static org.jirban.jira.impl.Constants.VIEW;
 import static org.jirban.jira.impl.Constants.WIP;
 import static org.jirban.jira.impl.board.CustomFieldValue.UNSET_VALUE;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.dmr.Property;
+import org.jirban.jira.JirbanPermissionException;
+import org.jirban.jira.JirbanValidationException;
 import org.jirban.jira.impl.BoardManagerBuilder;
 import org.jirban.jira.impl.JirbanIssueEvent;
 import org.jirban.jira.impl.board.ProjectParallelTaskOptionsLoaderBuilder;
@@ -65,6 +83,7 @@ import org.junit.Test;
 
 import com.atlassian.jira.issue.search.SearchException;
 
+import ut.org.jirban.jira.mock.GlobalPermissionManagerBuilder;
 import ut.org.jirban.jira.mock.PermissionManagerBuilder;
 
 /**
@@ -474,6 +493,40 @@ public class BoardManagerTest extends AbstractBoardTest {
         checkProjectRankedIssues(boardNode, "TBG", 1, 2, 3, 4);
     }
 
+    @Test
+    public void testNewValuesKeepExistingIds() throws Exception {
+        issueRegistry.issueBuilder("TDP", "task", "highest", "One", "TDP-A")
+                .assignee("kabir").components("CE").labels("LE").fixVersions("FE").buildAndRegister();
+        getJson(0, new BoardAssigneeChecker("kabir"),
+                new BoardComponentsChecker("CE"),
+                new BoardLabelsChecker("LE"),
+                new BoardFixVersionsChecker("FE"));
+
+        //Add an issue with values which get displayed before the existing ones
+        JirbanIssueEvent create = createEventBuilder("TDP-2", IssueType.FEATURE, Priority.HIGH, "Two")
+                .assignee("brian")
+                .components("CA")
+                .labels("LA")
+                .fixVersions("FA")
+                .state("TDP-B")
+                .buildAndRegister();
+        boardManager.handleEvent(create, nextRankedIssueUtil);
+
+        //The existing values keep their ids, and the new ones get the next id. Only the sort order changes
+        ModelNode boardNode = ModelNode.fromJSONString(
+                boardManager.getBoardJson(userManager.getUserByKey("kabir"), false, "TST"));
+        Assert.assertEquals(0, boardNode.get(ISSUES, "TDP-1", ASSIGNEE).asInt());
+        Assert.assertEquals(1, boardNode.get(ISSUES, "TDP-2", ASSIGNEE).asInt());
+        for (String name : new String[]{COMPONENTS, LABELS, FIX_VERSIONS}) {
+            Assert.assertEquals(0, boardNode.get(ISSUES, "TDP-1", name).asList().get(0).asInt());
+            Assert.assertEquals(1, boardNode.get(ISSUES, "TDP-2", name).asList().get(0).asInt());
+            checkSortOrder(boardNode, name, 1, 0);
+        }
+        checkSortOrder(boardNode, ASSIGNEES, 1, 0);
+        Assert.assertEquals("kabir@example.com", boardNode.get(ASSIGNEES).asList().get(0).get(EMAIL).asString());
+        Assert.assertEquals("CE", boardNode.get(COMPONENTS).asList().get(0).asString());
+    }
+
     @Test
     public void testAddIssuesNewMultiSelectNameOnlyValues() throws Exception {
         issueRegistry.issueBuilder("TDP", "task", "highest", "One", "TDP-A")
@@ -1423,6 +1476,111 @@ public class BoardManagerTest extends AbstractBoardTest {
         checkProjectRankedIssues(boardNode, "TBG", 2);
     }
 
+    @Test
+    public void testMoveIssuesBetweenBacklogAndDoneStates() throws Exception {
+        initializeMocks("config/board-tdp-backlog.json");
+
+        issueRegistry.issueBuilder("TDP", "task", "high", "One", "TDP-A")
+                .assignee("kabir").buildAndRegister();      //1
+        issueRegistry.issueBuilder("TDP", "task", "high", "Two", "TDP-B")
+                .assignee("kabir").buildAndRegister();      //2
+        issueRegistry.issueBuilder("TDP", "task", "high", "Three", "TDP-C")
+                .assignee("kabir").buildAndRegister();      //3
+        issueRegistry.issueBuilder("TDP", "task", "high", "Four", "TDP-D")
+                .assignee("kabir").buildAndRegister();      //4
+        issueRegistry.issueBuilder("TDP", "task", "high", "Five", "TDP-C")
+                .assignee("kabir").buildAndRegister();      //5
+        issueRegistry.issueBuilder("TBG", "task", "high", "One", "TBG-X")
+                .assignee("kabir").buildAndRegister();      //1
+        issueRegistry.issueBuilder("TBG", "task", "high", "Two", "TBG-Y")
+                .assignee("kabir").buildAndRegister();      //2
+
+        //The non-backlog issues are spread over more than one state, but should still be in rank order
+        ModelNode boardNode = getJson(0, new BoardAssigneeChecker("kabir"));
+        getIssuesCheckingSize(boardNode, 4);
+        checkProjectRankedIssues(boardNode, "TDP", 3, 4, 5);
+        checkProjectRankedIssues(boardNode, "TBG", 2);
+
+        //Move an issue out of the backlog
+        JirbanIssueEvent update = updateEventBuilder("TDP-1").state("TDP-D").buildAndRegister();
+        boardManager.handleEvent(update, nextRankedIssueUtil);
+        boardNode = getJson(1, new BoardAssigneeChecker("kabir"));
+        ModelNode allIssues = getIssuesCheckingSize(boardNode, 5);
+        checkIssue(allIssues, "TDP-1", IssueType.TASK, Priority.HIGH, "One", 3, new AssigneeChecker(0));
+        checkIssue(allIssues, "TDP-3", IssueType.TASK, Priority.HIGH, "Three", 2, new AssigneeChecker(0));
+        checkIssue(allIssues, "TDP-4", IssueType.TASK, Priority.HIGH, "Four", 3, new AssigneeChecker(0));
+        checkIssue(allIssues, "TDP-5", IssueType.TASK, Priority.HIGH, "Five", 2, new AssigneeChecker(0));
+        checkIssue(allIssues, "TBG-2", IssueType.TASK, Priority.HIGH, "Two", 1, new AssigneeChecker(0));
+        checkProjectRankedIssues(boardNode, "TDP", 1, 3, 4, 5);
+        checkProjectRankedIssues(boardNode, "TBG", 2);
+
+        //Move an issue into the backlog
+        update = updateEventBuilder("TDP-4").state("TDP-B").buildAndRegister();
+        boardManager.handleEvent(update, nextRankedIssueUtil);
+        boardNode = getJson(2, new BoardAssigneeChecker("kabir"));
+        allIssues = getIssuesCheckingSize(boardNode, 4);
+        checkIssue(allIssues, "TDP-1", IssueType.TASK, Priority.HIGH, "One", 3, new AssigneeChecker(0));
+        checkIssue(allIssues, "TDP-3", IssueType.TASK, Priority.HIGH, "Three", 2, new AssigneeChecker(0));
+        checkIssue(allIssues, "TDP-5", IssueType.TASK, Priority.HIGH, "Five", 2, new AssigneeChecker(0));
+        checkIssue(allIssues, "TBG-2", IssueType.TASK, Priority.HIGH, "Two", 1, new AssigneeChecker(0));
+        checkProjectRankedIssues(boardNode, "TDP", 1, 3, 5);
+        checkProjectRankedIssues(boardNode, "TBG", 2);
+
+        //Move an issue between two non-backlog states, and rank it
+        issueRegistry.rerankIssue("TDP-5", "TDP-1");
+        update = updateEventBuilder("TDP-5").state("TDP-D").rank().buildAndRegister();
+        boardManager.handleEvent(update, nextRankedIssueUtil);
+        boardNode = getJson(3, new BoardAssigneeChecker("kabir"));
+        allIssues = getIssuesCheckingSize(boardNode, 4);
+        checkIssue(allIssues, "TDP-5", IssueType.TASK, Priority.HIGH, "Five", 3, new AssigneeChecker(0));
+        checkProjectRankedIssues(boardNode, "TDP", 5, 1, 3);
+
+        //The backlog should have everything
+        boardNode = getJson(3, true, new BoardAssigneeChecker("kabir"));
+        getIssuesCheckingSize(boardNode, 7);
+        checkProjectRankedIssues(boardNode, "TDP", 5, 1, 2, 3, 4);
+        checkProjectRankedIssues(boardNode, "TBG", 1, 2);
+
+        //Now try the same with done states
+        initializeMocks("config/board-tdp-done.json");
+
+        issueRegistry.issueBuilder("TDP", "task", "high", "One", "TDP-A")
+                .assignee("kabir").buildAndRegister();      //1
+        issueRegistry.issueBuilder("TDP", "task", "high", "Two", "TDP-B")
+                .assignee("kabir").buildAndRegister();      //2
+        issueRegistry.issueBuilder("TDP", "task", "high", "Three", "TDP-A")
+                .assignee("kabir").buildAndRegister();      //3
+        issueRegistry.issueBuilder("TDP", "task", "high", "Four", "TDP-D")
+                .assignee("kabir").buildAndRegister();      //4
+        issueRegistry.issueBuilder("TBG", "task", "high", "One", "TBG-X")
+                .assignee("kabir").buildAndRegister();      //1
+
+        boardNode = getJson(0, new BoardAssigneeChecker("kabir"));
+        getIssuesCheckingSize(boardNode, 4);
+        checkProjectRankedIssues(boardNode, "TDP", 1, 2, 3);
+        checkProjectRankedIssues(boardNode, "TBG", 1);
+
+        //Move an issue into a done state, which takes it off the board
+        update = updateEventBuilder("TDP-2").state("TDP-C").buildAndRegister();
+        boardManager.handleEvent(update, nextRankedIssueUtil);
+        boardNode = getJson(1, new BoardAssigneeChecker("kabir"));
+        allIssues = getIssuesCheckingSize(boardNode, 3);
+        checkIssue(allIssues, "TDP-1", IssueType.TASK, Priority.HIGH, "One", 0, new AssigneeChecker(0));
+        checkIssue(allIssues, "TDP-3", IssueType.TASK, Priority.HIGH, "Three", 0, new AssigneeChecker(0));
+        checkIssue(allIssues, "TBG-1", IssueType.TASK, Priority.HIGH, "One", 0, new AssigneeChecker(0));
+        checkProjectRankedIssues(boardNode, "TDP", 1, 3);
+        checkProjectRankedIssues(boardNode, "TBG", 1);
+
+        //Move an issue to the other non-done state
+        update = updateEventBuilder("TDP-1").state("TDP-B").buildAndRegister();
+        boardManager.handleEvent(update, nextRankedIssueUtil);
+        boardNode = getJson(2, new BoardAssigneeChecker("kabir"));
+        allIssues = getIssuesCheckingSize(boardNode, 3);
+        checkIssue(allIssues, "TDP-1", IssueType.TASK, Priority.HIGH, "One", 1, new AssigneeChecker(0));
+        checkIssue(allIssues, "TDP-3", IssueType.TASK, Priority.HIGH, "Three", 0, new AssigneeChecker(0));
+        checkProjectRankedIssues(boardNode, "TDP", 1, 3);
+    }
+
     @Test
     public void testCanRankIssues() throws Exception {
         initializeMocks("config/board-tdp.json");
@@ -2232,6 +2390,345 @@ public class BoardManagerTest extends AbstractBoardTest {
         checkIssue(allIssues, "TDP-3", IssueType.TASK, Priority.LOW, "Three", 2, new AssigneeChecker(1));
     }
 
+    @Test
+    public void testUpdateMissingIssueReloadsIssue() throws Exception {
+        issueRegistry.issueBuilder("TDP", "task", "highest", "One", "TDP-A")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "high", "Two", "TDP-B")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "low", "Three", "TDP-C")
+                .assignee("kabir").buildAndRegister();
+        getJson(0, new BoardAssigneeChecker("kabir"));
+
+        //Create an issue in Jira without the board getting the event, so that the update event for it fails
+        issueRegistry.issueBuilder("TDP", "task", "lowest", "Four", "TDP-D")
+                .assignee("brian").buildAndRegister();
+        JirbanIssueEvent event = updateEventBuilder("TDP-4").summary("Four-1").buildAndRegister();
+        boardManager.handleEvent(event, nextRankedIssueUtil);
+
+        //The issue should have been reloaded from Jira, and added to the board
+        ModelNode boardNode = getJson(1, new BoardAssigneeChecker("brian", "kabir"));
+        checkProjectRankedIssues(boardNode, "TDP", 1, 2, 3, 4);
+        ModelNode allIssues = getIssuesCheckingSize(boardNode, 4);
+        checkIssue(allIssues, "TDP-1", IssueType.TASK, Priority.HIGHEST, "One", 0, new AssigneeChecker(1));
+        checkIssue(allIssues, "TDP-2", IssueType.TASK, Priority.HIGH, "Two", 1, new AssigneeChecker(1));
+        checkIssue(allIssues, "TDP-3", IssueType.TASK, Priority.LOW, "Three", 2, new AssigneeChecker(1));
+        checkIssue(allIssues, "TDP-4", IssueType.TASK, Priority.LOWEST, "Four-1", 3, new AssigneeChecker(0));
+
+        //The clients should see it as a created issue
+        ModelNode changes = getIssueChanges(0, 1);
+        Assert.assertFalse(changes.hasDefined(UPDATE));
+        Assert.assertFalse(changes.hasDefined(DELETE));
+        List<ModelNode> newIssues = changes.get(NEW).asList();
+        Assert.assertEquals(1, newIssues.size());
+        Assert.assertEquals("TDP-4", newIssues.get(0).get(KEY).asString());
+        Assert.assertEquals("Four-1", newIssues.get(0).get(SUMMARY).asString());
+        Assert.assertEquals("brian", newIssues.get(0).get(ASSIGNEE).asString());
+    }
+
+    @Test
+    public void testReloadIssue() throws Exception {
+        issueRegistry.issueBuilder("TDP", "task", "highest", "One", "TDP-A")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "high", "Two", "TDP-B")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "low", "Three", "TDP-C")
+                .assignee("kabir").buildAndRegister();
+        getJson(0, new BoardAssigneeChecker("kabir"));
+
+        //Change an issue in Jira without the board getting the event, and get an administrator to reload it
+        issueRegistry.updateIssue("TDP-2", null, null, "Two-1", null, null, null, null, null);
+        boardManager.reloadIssue(userManager.getUserByKey("kabir"), "TST", "TDP-2");
+
+        ModelNode boardNode = getJson(1, new BoardAssigneeChecker("kabir"));
+        checkProjectRankedIssues(boardNode, "TDP", 1, 2, 3);
+        ModelNode allIssues = getIssuesCheckingSize(boardNode, 3);
+        checkIssue(allIssues, "TDP-2", IssueType.TASK, Priority.HIGH, "Two-1", 1, new AssigneeChecker(0));
+
+        ModelNode changes = getIssueChanges(0, 1);
+        Assert.assertFalse(changes.hasDefined(NEW));
+        Assert.assertFalse(changes.hasDefined(DELETE));
+        List<ModelNode> updatedIssues = changes.get(UPDATE).asList();
+        Assert.assertEquals(1, updatedIssues.size());
+        Assert.assertEquals("TDP-2", updatedIssues.get(0).get(KEY).asString());
+        Assert.assertEquals("Two-1", updatedIssues.get(0).get(SUMMARY).asString());
+
+        //Reloading an issue which has not changed should not create a new view
+        boardManager.reloadIssue(userManager.getUserByKey("kabir"), "TST", "TDP-3");
+        getJson(1, new BoardAssigneeChecker("kabir"));
+
+        //Bad issue keys should be rejected
+        for (String badKey : new String[]{"TDP", "TDP-", "-1"}) {
+            try {
+                boardManager.reloadIssue(userManager.getUserByKey("kabir"), "TST", badKey);
+                Assert.fail("Expected " + badKey + " to be rejected");
+            } catch (JirbanValidationException expected) {
+            }
+        }
+        getJson(1, new BoardAssigneeChecker("kabir"));
+    }
+
+    @Test
+    public void testReconcileDeletedIssues() throws Exception {
+        issueRegistry.issueBuilder("TDP", "task", "highest", "One", "TDP-A")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "high", "Two", "TDP-B")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "low", "Three", "TDP-C")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "lowest", "Four", "TDP-D")
+                .assignee("brian").buildAndRegister();
+        getJson(0, new BoardAssigneeChecker("brian", "kabir"));
+
+        //Delete an issue in Jira without the board getting the event
+        issueRegistry.deleteIssue("TDP-2");
+        BoardManagerBuilder.reconcileBoard(boardManager, "TST");
+
+        ModelNode boardNode = getJson(1, new BoardAssigneeChecker("brian", "kabir"));
+        checkProjectRankedIssues(boardNode, "TDP", 1, 3, 4);
+        ModelNode allIssues = getIssuesCheckingSize(boardNode, 3);
+        checkIssue(allIssues, "TDP-1", IssueType.TASK, Priority.HIGHEST, "One", 0, new AssigneeChecker(1));
+        checkIssue(allIssues, "TDP-3", IssueType.TASK, Priority.LOW, "Three", 2, new AssigneeChecker(1));
+        checkIssue(allIssues, "TDP-4", IssueType.TASK, Priority.LOWEST, "Four", 3, new AssigneeChecker(0));
+
+        ModelNode changes = getIssueChanges(0, 1);
+        Assert.assertFalse(changes.hasDefined(NEW));
+        Assert.assertFalse(changes.hasDefined(UPDATE));
+        List<ModelNode> deletedIssues = changes.get(DELETE).asList();
+        Assert.assertEquals(1, deletedIssues.size());
+        Assert.assertEquals("TDP-2", deletedIssues.get(0).asString());
+
+        //Nothing else changed, so reconciling again should not create a new view
+        BoardManagerBuilder.reconcileBoard(boardManager, "TST");
+        getJson(1, new BoardAssigneeChecker("brian", "kabir"));
+    }
+
+    @Test
+    public void testReconcileUpdatedIssues() throws Exception {
+        issueRegistry.issueBuilder("TDP", "task", "highest", "One", "TDP-A")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "high", "Two", "TDP-B")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "low", "Three", "TDP-C")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "lowest", "Four", "TDP-D")
+                .assignee("brian").buildAndRegister();
+        getJson(0, new BoardAssigneeChecker("brian", "kabir"));
+
+        //Only the issues updated since the board was last synchronised get reloaded. Make this change look older so
+        //that it should not be picked up
+        issueRegistry.updateIssue("TDP-4", null, null, "Four-1", null, null, null, null, null);
+        issueRegistry.setUpdated(new Date(System.currentTimeMillis() - 3600000));
+
+        //Update and create issues in Jira without the board getting the events
+        issueRegistry.updateIssue("TDP-2", null, null, "Two-1", null, null, null, null, null);
+        issueRegistry.issueBuilder("TDP", "bug", "high", "Five", "TDP-B")
+                .assignee("kabir").buildAndRegister();
+        BoardManagerBuilder.reconcileBoard(boardManager, "TST");
+
+        ModelNode boardNode = getJson(2, new BoardAssigneeChecker("brian", "kabir"));
+        checkProjectRankedIssues(boardNode, "TDP", 1, 2, 3, 4, 5);
+        ModelNode allIssues = getIssuesCheckingSize(boardNode, 5);
+        checkIssue(allIssues, "TDP-1", IssueType.TASK, Priority.HIGHEST, "One", 0, new AssigneeChecker(1));
+        checkIssue(allIssues, "TDP-2", IssueType.TASK, Priority.HIGH, "Two-1", 1, new AssigneeChecker(1));
+        checkIssue(allIssues, "TDP-3", IssueType.TASK, Priority.LOW, "Three", 2, new AssigneeChecker(1));
+        checkIssue(allIssues, "TDP-4", IssueType.TASK, Priority.LOWEST, "Four", 3, new AssigneeChecker(0));
+        checkIssue(allIssues, "TDP-5", IssueType.BUG, Priority.HIGH, "Five", 1, new AssigneeChecker(1));
+
+        ModelNode changes = getIssueChanges(0, 2);
+        Assert.assertFalse(changes.hasDefined(DELETE));
+        List<ModelNode> newIssues = changes.get(NEW).asList();
+        Assert.assertEquals(1, newIssues.size());
+        Assert.assertEquals("TDP-5", newIssues.get(0).get(KEY).asString());
+        List<ModelNode> updatedIssues = changes.get(UPDATE).asList();
+        Assert.assertEquals(1, updatedIssues.size());
+        Assert.assertEquals("TDP-2", updatedIssues.get(0).get(KEY).asString());
+        Assert.assertEquals("Two-1", updatedIssues.get(0).get(SUMMARY).asString());
+    }
+
+    @Test
+    public void testReconcileRerankedIssues() throws Exception {
+        issueRegistry.issueBuilder("TDP", "task", "highest", "One", "TDP-A")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "high", "Two", "TDP-B")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "low", "Three", "TDP-C")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "lowest", "Four", "TDP-D")
+                .assignee("brian").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "highest", "Five", "TDP-A")
+                .assignee("kabir").buildAndRegister();
+        getJson(0, new BoardAssigneeChecker("brian", "kabir"));
+
+        //Rerank an issue in Jira without the board getting the event. Ranking does not count as an update, so the
+        //reconcile has to find it by comparing the rank order
+        issueRegistry.setUpdated(new Date(System.currentTimeMillis() - 3600000));
+        issueRegistry.rerankIssue("TDP-4", "TDP-1");
+        BoardManagerBuilder.reconcileBoard(boardManager, "TST");
+
+        //Only the moved issue should have been reloaded, so there should only be one new view
+        ModelNode boardNode = getJson(1, new BoardAssigneeChecker("brian", "kabir"));
+        checkProjectRankedIssues(boardNode, "TDP", 4, 1, 2, 3, 5);
+        getIssuesCheckingSize(boardNode, 5);
+
+        ModelNode changes = ModelNode.fromJSONString(
+                boardManager.getChangesJson(userManager.getUserByKey("kabir"), false, "TST", 0)).get(CHANGES);
+        Assert.assertEquals(1, changes.get(VIEW).asInt());
+        Assert.assertFalse(changes.hasDefined(ISSUES, NEW));
+        Assert.assertFalse(changes.hasDefined(ISSUES, DELETE));
+        List<ModelNode> ranked = changes.get(RANK, "TDP").asList();
+        Assert.assertEquals(1, ranked.size());
+        Assert.assertEquals(0, ranked.get(0).get(INDEX).asInt());
+        Assert.assertEquals("TDP-4", ranked.get(0).get(KEY).asString());
+    }
+
+    @Test
+    public void testEventDuringLoadIsReplayedBeforePublish() throws Exception {
+        final ExecutorService boardEventExecutor = Executors.newFixedThreadPool(2);
+        try {
+            //Fire the event from the first search done by the board load
+            final AtomicReference<JirbanIssueEvent> pendingEvent = new AtomicReference<>();
+            searchCallback = new SearchCallback() {
+                @Override
+                public void searching() {
+                    super.searching();
+                    JirbanIssueEvent event = pendingEvent.getAndSet(null);
+                    if (event != null) {
+                        boardManager.handleEvent(event, nextRankedIssueUtil);
+                    }
+                }
+            };
+            initializeMocks("config/board-tdp.json", new AdditionalBuilderInit() {
+                @Override
+                public void initialise(BoardManagerBuilder boardManagerBuilder) {
+                    boardManagerBuilder.setBoardEventExecutor(boardEventExecutor);
+                }
+            });
+            issueRegistry.issueBuilder("TDP", "task", "highest", "One", "TDP-A")
+                    .assignee("kabir").buildAndRegister();
+            issueRegistry.issueBuilder("TDP", "task", "high", "Two", "TDP-B")
+                    .assignee("kabir").buildAndRegister();
+            //Jira changed the issue after the board searched for it, so the loaded board only gets the change from
+            //replaying the event
+            pendingEvent.set(updateEventBuilder("TDP-2").summary("Two-1").buildAndRegister());
+            issueRegistry.updateIssue("TDP-2", null, null, "Two", null, null, null, null, null);
+
+            ModelNode boardNode = getJson(1, new BoardAssigneeChecker("kabir"));
+            Assert.assertNull(pendingEvent.get());
+            checkProjectRankedIssues(boardNode, "TDP", 1, 2);
+            ModelNode allIssues = getIssuesCheckingSize(boardNode, 2);
+            checkIssue(allIssues, "TDP-1", IssueType.TASK, Priority.HIGHEST, "One", 0, new AssigneeChecker(0));
+            checkIssue(allIssues, "TDP-2", IssueType.TASK, Priority.HIGH, "Two-1", 1, new AssigneeChecker(0));
+
+            //The event only got recorded when the queue handled it, since there was no board to apply it to yet
+            List<ModelNode> queues = ModelNode.fromJSONString(
+                    boardManager.getEventQueuesJson(userManager.getUserByKey("kabir"))).asList();
+            Assert.assertEquals(1, queues.size());
+            Assert.assertEquals(0, queues.get(0).get("depth").asInt());
+            Assert.assertEquals(1, queues.get(0).get("ignored").asInt());
+            Assert.assertEquals(0, queues.get(0).get("changed").asInt());
+        } finally {
+            boardEventExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEventQueuesNeedJiraAdministrator() throws Exception {
+        getJson(0);
+        List<ModelNode> queues = ModelNode.fromJSONString(
+                boardManager.getEventQueuesJson(userManager.getUserByKey("kabir"))).asList();
+        Assert.assertEquals(1, queues.size());
+        Assert.assertEquals("TST", queues.get(0).get("board").asString());
+
+        //Override the default global permissions set up by the @Before method
+        globalPermissionManager = GlobalPermissionManagerBuilder.getDeniessAll();
+        initializeMocks();
+        getJson(0);
+        try {
+            boardManager.getEventQueuesJson(userManager.getUserByKey("kabir"));
+            Assert.fail("Only Jira Administrators should be able to view the event queues");
+        } catch (JirbanPermissionException expected) {
+        }
+    }
+
+    @Test
+    public void testLinkedIssues() throws Exception {
+        checkLinkedIssues(false);
+    }
+
+    @Test
+    public void testLazyLinkedIssues() throws Exception {
+        initializeMocks("config/board-tdp.json", new AdditionalBuilderInit() {
+            @Override
+            public void initialise(BoardManagerBuilder boardManagerBuilder) {
+                boardManagerBuilder.setLazyLinkedIssues(true);
+            }
+        });
+        checkLinkedIssues(true);
+    }
+
+    private void checkLinkedIssues(boolean lazy) throws Exception {
+        issueRegistry.issueBuilder("TDP", "task", "highest", "One", "TDP-A")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "high", "Two", "TDP-B")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TDP", "task", "low", "Three", "TDP-C")
+                .assignee("kabir").buildAndRegister();
+        issueRegistry.issueBuilder("TUP", "task", "high", "Linked One", "TUP-A")
+                .buildAndRegister();
+        issueRegistry.issueBuilder("TUP", "task", "high", "Linked Two", "TUP-B")
+                .buildAndRegister();
+        issueRegistry.linkIssue("TDP-1", "TUP-1");
+        issueRegistry.linkIssue("TUP-2", "TDP-1");
+        issueRegistry.linkIssue("TDP-3", "TUP-2");
+
+        ModelNode boardNode = getJson(0, new BoardAssigneeChecker("kabir"));
+        Assert.assertEquals(lazy, boardNode.hasDefined(LAZY_LINKED_ISSUES));
+        ModelNode allIssues = getIssuesCheckingSize(boardNode, 3);
+        if (lazy) {
+            //The clients have to ask for them
+            Assert.assertFalse(allIssues.get("TDP-1").hasDefined(LINKED_ISSUES));
+            Assert.assertFalse(allIssues.get("TDP-3").hasDefined(LINKED_ISSUES));
+        } else {
+            checkLinkedIssues(allIssues.get("TDP-1"), "TUP-1", "TUP-2");
+            checkLinkedIssues(allIssues.get("TDP-3"), "TUP-2");
+        }
+        Assert.assertFalse(allIssues.get("TDP-2").hasDefined(LINKED_ISSUES));
+
+        //Without any issue keys we get the linked issues of all the issues which have some
+        ModelNode linkedIssues = getLinkedIssues(0);
+        Assert.assertEquals(2, linkedIssues.keys().size());
+        checkLinkedIssues(linkedIssues.get("TDP-1"), "TUP-1", "TUP-2");
+        checkLinkedIssues(linkedIssues.get("TDP-3"), "TUP-2");
+
+        //Otherwise only the ones for the requested issues. Issues without links or not on the board are left out
+        linkedIssues = getLinkedIssues(0, "TDP-2", "TDP-3", "TDP-100");
+        Assert.assertEquals(1, linkedIssues.keys().size());
+        checkLinkedIssues(linkedIssues.get("TDP-3"), "TUP-2");
+    }
+
+    private ModelNode getLinkedIssues(int expectedViewId, String... issueKeys) throws SearchException {
+        String json = boardManager.getLinkedIssuesJson(userManager.getUserByKey("kabir"), false, "TST", Arrays.asList(issueKeys));
+        ModelNode linkedNode = ModelNode.fromJSONString(json);
+        Assert.assertEquals(expectedViewId, linkedNode.get(VIEW).asInt());
+        return linkedNode.get(ISSUES);
+    }
+
+    private void checkLinkedIssues(ModelNode issue, String... linkedIssueKeys) {
+        List<ModelNode> linkedIssues = issue.get(LINKED_ISSUES).asList();
+        Assert.assertEquals(linkedIssueKeys.length, linkedIssues.size());
+        for (int i = 0 ; i < linkedIssueKeys.length ; i++) {
+            Assert.assertEquals(linkedIssueKeys[i], linkedIssues.get(i).get(KEY).asString());
+        }
+    }
+
+    private ModelNode getIssueChanges(int fromView, int expectedView) throws SearchException {
+        String json = boardManager.getChangesJson(userManager.getUserByKey("kabir"), false, "TST", fromView);
+        ModelNode changesNode = ModelNode.fromJSONString(json);
+        Assert.assertEquals(expectedView, changesNode.get(CHANGES, VIEW).asInt());
+        return changesNode.get(CHANGES, ISSUES);
+    }
+
     private ModelNode getJson(int expectedViewId, BoardDataChecker... checkers) throws SearchException {
         return getJson(expectedViewId, false, checkers);
     }
@@ -2241,6 +2738,7 @@ public class BoardManagerTest extends AbstractBoardTest {
         Assert.assertNotNull(json);
         ModelNode boardNode = ModelNode.fromJSONString(json);
         Assert.assertEquals(expectedViewId, boardNode.get("view").asInt());
+        applySortOrder(boardNode);
 
         Map<Class<? extends BoardDataChecker>, BoardDataChecker> checkerMap = new HashMap<>();
         checkerMap.put(BoardAssigneeChecker.class, BoardAssigneeChecker.NONE);
@@ -2286,6 +2784,65 @@ public class BoardManagerTest extends AbstractBoardTest {
         }
     }
 
+    //The issues reference the assignees, components, labels and fix versions by their id. Rewrite the board to use
+    //the position in the display order instead, which is what the checks are written in terms of
+    private static void applySortOrder(ModelNode board) {
+        applySortOrder(board, ASSIGNEES, ASSIGNEE);
+        applySortOrder(board, COMPONENTS, COMPONENTS);
+        applySortOrder(board, LABELS, LABELS);
+        applySortOrder(board, FIX_VERSIONS, FIX_VERSIONS);
+    }
+
+    private static void applySortOrder(ModelNode board, String name, String issueField) {
+        if (!board.hasDefined(name)) {
+            Assert.assertFalse(board.hasDefined(SORT_ORDER, name));
+            return;
+        }
+        final List<ModelNode> values = board.get(name).asList();
+        final List<ModelNode> sortOrder = board.get(SORT_ORDER, name).asList();
+        Assert.assertEquals(values.size(), sortOrder.size());
+        final int[] positions = new int[values.size()];
+        final ModelNode sorted = new ModelNode().setEmptyList();
+        for (int i = 0 ; i < sortOrder.size() ; i++) {
+            final int id = sortOrder.get(i).asInt();
+            positions[id] = i;
+            sorted.add(values.get(id));
+        }
+        board.get(name).set(sorted);
+
+        if (!board.hasDefined(ISSUES)) {
+            return;
+        }
+        for (Property property : board.get(ISSUES).asPropertyList()) {
+            final ModelNode issue = board.get(ISSUES, property.getName());
+            if (!issue.hasDefined(issueField)) {
+                continue;
+            }
+            if (issue.get(issueField).getType() == ModelType.LIST) {
+                final List<Integer> mapped = new ArrayList<>();
+                for (ModelNode id : issue.get(issueField).asList()) {
+                    mapped.add(positions[id.asInt()]);
+                }
+                Collections.sort(mapped);
+                final ModelNode list = new ModelNode().setEmptyList();
+                for (int position : mapped) {
+                    list.add(position);
+                }
+                issue.get(issueField).set(list);
+            } else {
+                issue.get(issueField).set(positions[issue.get(issueField).asInt()]);
+            }
+        }
+    }
+
+    private static void checkSortOrder(ModelNode board, String name, int...expected) {
+        final List<ModelNode> sortOrder = board.get(SORT_ORDER, name).asList();
+        Assert.assertEquals(expected.length, sortOrder.size());
+        for (int i = 0 ; i < expected.length ; i++) {
+            Assert.assertEquals(expected[i], sortOrder.get(i).asInt());
+        }
+    }
+
     private ModelNode getIssuesCheckingSize(ModelNode board, int expectedLength) {
         ModelNode issues = board.get(ISSUES);
         Assert.assertEquals(expectedLength, issues.keys().size());
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ut.org.jirban.jira;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.jirban.jira.impl.util.IssueKeys;
+import org.jirban.jira.impl.util.LongObjectMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Kabir Khan
+ */
+public class IssueKeysTest {
+
+    @Test
+    public void testEncodeAndDecode() {
+        long tdp1 = IssueKeys.encode("TDP-1");
+        long tdp1234 = IssueKeys.encode("TDP-1234");
+        long tbg7 = IssueKeys.encode("TBG-7");
+        Assert.assertEquals(tdp1, IssueKeys.encode(new String("TDP-1")));
+        Assert.assertEquals(IssueKeys.getProjectOrdinal(tdp1), IssueKeys.getProjectOrdinal(tdp1234));
+        Assert.assertTrue(IssueKeys.getProjectOrdinal(tdp1) != IssueKeys.getProjectOrdinal(tbg7));
+        Assert.assertEquals(1234, IssueKeys.getIssueNumber(tdp1234));
+        Assert.assertEquals("TDP-1", IssueKeys.decode(tdp1));
+        Assert.assertEquals("TDP-1234", IssueKeys.decode(tdp1234));
+        Assert.assertEquals("TBG-7", IssueKeys.decode(tbg7));
+        Assert.assertEquals("MY-PROJ-12", IssueKeys.decode(IssueKeys.encode("MY-PROJ-12")));
+        Assert.assertEquals("TDP-2147483647", IssueKeys.decode(IssueKeys.encode("TDP-2147483647")));
+        //Numeric rather than lexical order within a project
+        Assert.assertTrue(IssueKeys.encode("TDP-9") < IssueKeys.encode("TDP-10"));
+    }
+
+    @Test
+    public void testBadKeys() {
+        for (String key : new String[]{"TDP", "TDP-", "-1", "TDP-1a", "TDP-2147483648", "TDP-12345678901"}) {
+            try {
+                IssueKeys.encode(key);
+                Assert.fail("Should have failed for " + key);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testLongObjectMap() {
+        final Random random = new Random(1);
+        final Map<Long, String> expected = new HashMap<>();
+        final LongObjectMap<String> map = new LongObjectMap<>();
+        for (int i = 0 ; i < 20000 ; i++) {
+            final long key = IssueKeys.encode((random.nextBoolean() ? "TDP-" : "TBG-") + random.nextInt(3000));
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                final String value = "v" + i;
+                Assert.assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            Assert.assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Long, String> entry : expected.entrySet()) {
+            Assert.assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Assert.assertNull(map.get(IssueKeys.encode("TDP-5000")));
+        Assert.assertEquals(expected.size(), map.values().size());
+        Assert.assertTrue(expected.values().containsAll(map.values()));
+    }
+}
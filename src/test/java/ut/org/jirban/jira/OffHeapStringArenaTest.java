@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ut.org.jirban.jira;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jirban.jira.impl.util.OffHeapStringArena;
+import org.jirban.jira.impl.util.OffHeapStringArena.OffHeapString;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Kabir Khan
+ */
+public class OffHeapStringArenaTest {
+
+    @Test
+    public void testAddAndGet() {
+        OffHeapStringArena arena = new OffHeapStringArena();
+        OffHeapString one = arena.add("Fix the board");
+        OffHeapString two = arena.add("");
+        OffHeapString three = arena.add("Réparer le tableau ✓");
+        Assert.assertEquals("Fix the board", one.toString());
+        Assert.assertEquals("", two.toString());
+        Assert.assertEquals("Réparer le tableau ✓", three.toString());
+        Assert.assertEquals("Réparer le tableau ✓".length(), three.length());
+        Assert.assertEquals('R', three.charAt(0));
+        Assert.assertEquals("le", three.subSequence(8, 10));
+        Assert.assertEquals(3, arena.size());
+    }
+
+    @Test
+    public void testBytes() {
+        OffHeapStringArena arena = new OffHeapStringArena();
+        arena.add("Padding");
+        OffHeapString string = arena.add("Tâche");
+        byte[] expected = "Tâche".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(expected.length, string.getByteLength());
+        byte[] bytes = new byte[expected.length + 2];
+        string.getBytes(bytes, 2);
+        for (int i = 0 ; i < expected.length ; i++) {
+            Assert.assertEquals(expected[i], bytes[i + 2]);
+        }
+        Assert.assertEquals("Padding".length() + expected.length, arena.getUsedBytes());
+    }
+
+    @Test
+    public void testChunks() {
+        //Small chunks, so that the strings are spread across several of them
+        OffHeapStringArena arena = new OffHeapStringArena(16);
+        List<OffHeapString> strings = new ArrayList<>();
+        for (int i = 0 ; i < 100 ; i++) {
+            strings.add(arena.add("Issue summary " + i));
+        }
+        //Bigger than a chunk
+        OffHeapString big = arena.add("A summary which does not fit in one chunk");
+        for (int i = 0 ; i < 100 ; i++) {
+            Assert.assertEquals("Issue summary " + i, strings.get(i).toString());
+        }
+        Assert.assertEquals("A summary which does not fit in one chunk", big.toString());
+        Assert.assertEquals(101, arena.size());
+        Assert.assertTrue(arena.getAllocatedBytes() >= arena.getUsedBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadChunkSize() {
+        new OffHeapStringArena(0);
+    }
+}
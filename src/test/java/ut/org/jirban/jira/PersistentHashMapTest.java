@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ut.org.jirban.jira;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.jirban.jira.impl.util.PersistentHashMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Kabir Khan
+ */
+public class PersistentHashMapTest {
+
+    @Test
+    public void testPlusAndMinus() {
+        PersistentHashMap<String, String> map = PersistentHashMap.empty();
+        PersistentHashMap<String, String> one = map.plus("TDP-1", "a");
+        PersistentHashMap<String, String> two = one.plus("TDP-2", "b");
+        PersistentHashMap<String, String> replaced = two.plus("TDP-1", "c");
+
+        Assert.assertEquals(0, map.size());
+        Assert.assertEquals(1, one.size());
+        Assert.assertEquals(2, two.size());
+        Assert.assertEquals(2, replaced.size());
+        Assert.assertEquals("a", two.get("TDP-1"));
+        Assert.assertEquals("c", replaced.get("TDP-1"));
+        Assert.assertEquals("b", replaced.get("TDP-2"));
+        Assert.assertNull(one.get("TDP-2"));
+
+        PersistentHashMap<String, String> removed = replaced.minus("TDP-1");
+        Assert.assertEquals(1, removed.size());
+        Assert.assertFalse(removed.containsKey("TDP-1"));
+        Assert.assertTrue(replaced.containsKey("TDP-1"));
+        Assert.assertSame(removed, removed.minus("TDP-1"));
+        Assert.assertSame(removed, removed.plus("TDP-2", "b"));
+        Assert.assertTrue(removed.minus("TDP-2").isEmpty());
+    }
+
+    @Test
+    public void testCollisions() {
+        //"Aa" and "BB" have the same hash code
+        PersistentHashMap<String, Integer> map = PersistentHashMap.<String, Integer>empty()
+                .plus("Aa", 1)
+                .plus("BB", 2)
+                .plus("C", 3);
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals(Integer.valueOf(1), map.get("Aa"));
+        Assert.assertEquals(Integer.valueOf(2), map.get("BB"));
+        map = map.minus("Aa");
+        Assert.assertEquals(2, map.size());
+        Assert.assertNull(map.get("Aa"));
+        Assert.assertEquals(Integer.valueOf(2), map.get("BB"));
+        Assert.assertEquals(Integer.valueOf(3), map.get("C"));
+    }
+
+    @Test
+    public void testAgainstHashMap() {
+        final Random random = new Random(1);
+        final Map<String, Integer> expected = new HashMap<>();
+        PersistentHashMap<String, Integer> map = PersistentHashMap.empty();
+        for (int i = 0 ; i < 20000 ; i++) {
+            final String key = "TDP-" + random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            }
+        }
+        Assert.assertEquals(expected.size(), map.size());
+        Assert.assertEquals(expected, map);
+        Assert.assertEquals(expected, new HashMap<>(map));
+        Assert.assertEquals(expected, PersistentHashMap.copyOf(expected));
+    }
+}
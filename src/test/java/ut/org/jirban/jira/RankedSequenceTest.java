@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ut.org.jirban.jira;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.jirban.jira.impl.util.RankedSequence;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Kabir Khan
+ */
+public class RankedSequenceTest {
+
+    @Test
+    public void testInsertMoveAndRemove() {
+        RankedSequence<String> sequence = RankedSequence.copyOf(Arrays.asList("TDP-1", "TDP-2", "TDP-3"));
+        Assert.assertEquals(Arrays.asList("TDP-1", "TDP-2", "TDP-3"), sequence);
+
+        sequence = sequence.insertBefore("TDP-4", "TDP-2");
+        Assert.assertEquals(Arrays.asList("TDP-1", "TDP-4", "TDP-2", "TDP-3"), sequence);
+        Assert.assertEquals(1, sequence.indexOf("TDP-4"));
+
+        sequence = sequence.insertBefore("TDP-1", null);
+        Assert.assertEquals(Arrays.asList("TDP-4", "TDP-2", "TDP-3", "TDP-1"), sequence);
+
+        sequence = sequence.insertBefore("TDP-3", "TDP-4");
+        Assert.assertEquals(Arrays.asList("TDP-3", "TDP-4", "TDP-2", "TDP-1"), sequence);
+
+        Assert.assertSame(sequence, sequence.insertBefore("TDP-3", "TDP-4"));
+        Assert.assertSame(sequence, sequence.insertBefore("TDP-1", null));
+
+        sequence = sequence.minus("TDP-4");
+        Assert.assertEquals(Arrays.asList("TDP-3", "TDP-2", "TDP-1"), sequence);
+        Assert.assertEquals(-1, sequence.indexOf("TDP-4"));
+        Assert.assertSame(sequence, sequence.minus("TDP-4"));
+    }
+
+    @Test
+    public void testNoRoomBetweenNeighbours() {
+        RankedSequence<String> sequence = RankedSequence.copyOf(Arrays.asList("TDP-1", "TDP-2"));
+        final List<String> expected = new ArrayList<>(sequence);
+        for (int i = 3 ; i < 200 ; i++) {
+            sequence = sequence.insertBefore("TDP-" + i, "TDP-2");
+            expected.add(expected.size() - 1, "TDP-" + i);
+        }
+        Assert.assertEquals(expected, sequence);
+    }
+
+    @Test
+    public void testAgainstList() {
+        final Random random = new Random(1);
+        final List<String> expected = new ArrayList<>();
+        RankedSequence<String> sequence = RankedSequence.empty();
+        for (int i = 0 ; i < 10000 ; i++) {
+            final String key = "TDP-" + random.nextInt(500);
+            expected.remove(key);
+            if (random.nextInt(4) == 0) {
+                sequence = sequence.minus(key);
+            } else {
+                final String nextKey = expected.isEmpty() || random.nextInt(5) == 0 ?
+                        null : expected.get(random.nextInt(expected.size()));
+                if (nextKey == null) {
+                    expected.add(key);
+                } else {
+                    expected.add(expected.indexOf(nextKey), key);
+                }
+                sequence = sequence.insertBefore(key, nextKey);
+            }
+            Assert.assertEquals(expected.size(), sequence.size());
+        }
+        Assert.assertEquals(expected, sequence);
+        for (int i = 0 ; i < expected.size() ; i++) {
+            Assert.assertEquals(i, sequence.indexOf(expected.get(i)));
+            Assert.assertEquals(expected.get(i), sequence.get(i));
+        }
+    }
+
+    @Test
+    public void testSortedInsert() {
+        final Random random = new Random(1);
+        final List<String> expected = new ArrayList<>();
+        RankedSequence<String> sequence = RankedSequence.empty();
+        for (int i = 0 ; i < 1000 ; i++) {
+            final String key = "User " + random.nextInt(500);
+            if (!expected.contains(key)) {
+                expected.add(key);
+                sequence = sequence.insertBefore(key, sequence.ceiling(key, String.CASE_INSENSITIVE_ORDER));
+            }
+        }
+        expected.sort(String.CASE_INSENSITIVE_ORDER);
+        Assert.assertEquals(expected, sequence);
+        Assert.assertEquals("User 0", sequence.ceiling("A", String.CASE_INSENSITIVE_ORDER));
+        Assert.assertNull(sequence.ceiling("Z", String.CASE_INSENSITIVE_ORDER));
+    }
+}
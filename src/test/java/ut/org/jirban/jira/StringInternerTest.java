@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ut.org.jirban.jira;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.jirban.jira.impl.util.StringInterner;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Kabir Khan
+ */
+public class StringInternerTest {
+
+    @Test
+    public void testIntern() {
+        final StringInterner interner = new StringInterner();
+        Assert.assertNull(interner.get(null));
+
+        final String key = interner.get(new String("TDP-1"));
+        Assert.assertEquals("TDP-1", key);
+        Assert.assertSame(key, interner.get(new String("TDP-1")));
+        Assert.assertNotSame(key, interner.get(new String("TDP-2")));
+        Assert.assertEquals(2, interner.size());
+    }
+
+    @Test
+    public void testDuplicatesCollapse() {
+        //The keys, summaries and states of a 10k issue board, loaded by three boards
+        final StringInterner interner = new StringInterner();
+        final List<String> pooled = new ArrayList<>();
+        for (int board = 0 ; board < 3 ; board++) {
+            for (int i = 0 ; i < 10000 ; i++) {
+                pooled.add(interner.get(new String("TDP-" + i)));
+                pooled.add(interner.get(new String("Summary of issue " + i)));
+                pooled.add(interner.get(new String("State " + i % 10)));
+            }
+        }
+        final Set<String> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        instances.addAll(pooled);
+        Assert.assertEquals(20010, instances.size());
+        Assert.assertEquals(20010, interner.size());
+    }
+
+    @Test
+    public void testUnreferencedStringsAreCollected() throws Exception {
+        final StringInterner interner = new StringInterner();
+        final String kept = interner.get(new String("TDP-0"));
+        for (int i = 1 ; i <= 1000 ; i++) {
+            interner.get(new String("TDP-" + i));
+        }
+        for (int i = 0 ; i < 50 && interner.size() > 1 ; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(1, interner.size());
+        Assert.assertSame(kept, interner.get(new String("TDP-0")));
+    }
+}
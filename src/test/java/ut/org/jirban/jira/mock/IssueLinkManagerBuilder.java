@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import com.atlassian.jira.issue.link.IssueLink;
 import com.atlassian.jira.issue.link.IssueLinkManager;
 
 /**
@@ -31,13 +32,32 @@ import com.atlassian.jira.issue.link.IssueLinkManager;
 public class IssueLinkManagerBuilder {
     private final IssueLinkManager issueLinkManager = mock(IssueLinkManager.class);
 
-    private List<String> outwardLinks = new ArrayList<>();
-    private List<String> inwardLinks = new ArrayList<>();
+    private IssueRegistry issueRegistry;
+
+    public IssueLinkManagerBuilder setIssueRegistry(IssueRegistry issueRegistry) {
+        this.issueRegistry = issueRegistry;
+        return this;
+    }
 
     public IssueLinkManager build() {
-        //TODO configure some links
-        when(issueLinkManager.getInwardLinks(anyLong())).thenReturn(Collections.emptyList());
-        when(issueLinkManager.getOutwardLinks(anyLong())).thenReturn(Collections.emptyList());
+        if (issueRegistry == null) {
+            when(issueLinkManager.getInwardLinks(anyLong())).thenReturn(Collections.emptyList());
+            when(issueLinkManager.getOutwardLinks(anyLong())).thenReturn(Collections.emptyList());
+        } else {
+            when(issueLinkManager.getInwardLinks(anyLong())).then(invocation -> getLinks((Long) invocation.getArguments()[0], false));
+            when(issueLinkManager.getOutwardLinks(anyLong())).then(invocation -> getLinks((Long) invocation.getArguments()[0], true));
+        }
         return issueLinkManager;
     }
+
+    private List<IssueLink> getLinks(Long issueId, boolean outward) {
+        List<IssueLink> links = new ArrayList<>();
+        for (String[] keys : issueRegistry.getIssueLinks(issueId, outward)) {
+            IssueLink link = mock(IssueLink.class);
+            when(link.getSourceObject()).thenReturn(issueRegistry.getIssue(keys[0]));
+            when(link.getDestinationObject()).thenReturn(issueRegistry.getIssue(keys[1]));
+            links.add(link);
+        }
+        return links;
+    }
 }
@@ -15,9 +15,11 @@
  */
 package ut.org.jirban.jira.mock;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -45,6 +47,9 @@ import com.atlassian.jira.user.util.UserManager;
 public class IssueRegistry implements NextRankedIssueUtil {
     private final UserManager userManager;
     private final Map<String, Map<String, MockIssue>> issuesByProject = new HashMap<>();
+    private final Map<Long, String> issueKeysById = new HashMap<>();
+    //The source and destination keys of the links between the issues
+    private final List<String[]> issueLinks = new ArrayList<>();
 
     public IssueRegistry(UserManager userManager) {
         this.userManager = userManager;
@@ -90,6 +95,7 @@ public class IssueRegistry implements NextRankedIssueUtil {
 
         MockIssue newIssue = new MockIssue(issueKey, issueType, priority, summ,
                 assigneeUser, comps, labelz, fixVersionz, status);
+        newIssue.setId(issue.getId());
         issues.put(issueKey, newIssue);
     }
 
@@ -103,13 +109,29 @@ public class IssueRegistry implements NextRankedIssueUtil {
         issue.setCustomField(customFieldId, value);
     }
 
+    /**
+     * Sets the time all the issues were last updated, e.g. to pretend that they have not changed since the board was
+     * last synchronised with Jira. Updating an issue afterwards sets its time to the current time again.
+     *
+     * @param updated the time
+     */
+    public void setUpdated(Date updated) {
+        for (Map<String, MockIssue> issues : issuesByProject.values()) {
+            for (MockIssue issue : issues.values()) {
+                issue.setUpdated(new Timestamp(updated.getTime()));
+            }
+        }
+    }
+
     public void setParallelTaskField(String issueKey, Long upstreamId, String optionKey) {
         setCustomField(issueKey, upstreamId, optionKey);
     }
 
-    List<Issue> getIssueList(String searchIssueKey, String project, String searchStatus, Collection<String> doneStatesFilter) {
-        if (searchIssueKey != null) {
-            return Collections.singletonList(getIssue(searchIssueKey));
+    List<Issue> getIssueList(Collection<String> searchIssueKeys, String project, String searchStatus, Collection<String> doneStatesFilter,
+                             Date updatedAfter) {
+        if (searchIssueKeys != null && project == null) {
+            //A search for a single issue, regardless of its state
+            return Collections.singletonList(getIssue(searchIssueKeys.iterator().next()));
         }
         Map<String, MockIssue> issues = issuesByProject.get(project);
         if (issues == null) {
@@ -118,12 +140,18 @@ public class IssueRegistry implements NextRankedIssueUtil {
 
         List<Issue> ret = new ArrayList<>();
         for (Issue issue : issues.values()) {
+            if (searchIssueKeys != null && !searchIssueKeys.contains(issue.getKey())) {
+                continue;
+            }
             if (searchStatus != null && !issue.getStatusId().equals(searchStatus)) {
                 continue;
             }
             if (doneStatesFilter != null && doneStatesFilter.contains(issue.getStatusId())) {
                 continue;
             }
+            if (updatedAfter != null && issue.getUpdated().before(updatedAfter)) {
+                continue;
+            }
             ret.add(issue);
         }
         return ret;
@@ -134,6 +162,23 @@ public class IssueRegistry implements NextRankedIssueUtil {
         return issues.get(issueKey);
     }
 
+    public void linkIssue(String sourceIssueKey, String destinationIssueKey) {
+        Assert.assertNotNull(getIssue(sourceIssueKey));
+        Assert.assertNotNull(getIssue(destinationIssueKey));
+        issueLinks.add(new String[]{sourceIssueKey, destinationIssueKey});
+    }
+
+    List<String[]> getIssueLinks(Long issueId, boolean outward) {
+        String issueKey = issueKeysById.get(issueId);
+        List<String[]> links = new ArrayList<>();
+        for (String[] link : issueLinks) {
+            if (link[outward ? 0 : 1].equals(issueKey)) {
+                links.add(link);
+            }
+        }
+        return links;
+    }
+
     public void rerankIssue(String issueKey, String beforeIssueKey) {
         String projectCode = getProjectCode(issueKey);
         Map<String, MockIssue> issues = issuesByProject.get(projectCode);
@@ -252,6 +297,9 @@ public class IssueRegistry implements NextRankedIssueUtil {
             String issueKey = projectCode + "-" + (issues.size() + 1);
             MockIssue issue =
                     new MockIssue(issueKey, issueType, priority, summary, assignee, components, labels, fixVersions, state);
+            Long id = (long) issueKeysById.size() + 1;
+            issue.setId(id);
+            issueKeysById.put(id, issueKey);
             issues.put(issueKey, issue);
             return issue;
         }
@@ -57,6 +57,8 @@ public class MockIssue implements Issue {
     private final Status state;
 
     private final Map<Long, Object> customFields = new HashMap<>();
+    private Long id;
+    private Timestamp updated = new Timestamp(System.currentTimeMillis());
 
     public MockIssue(String key, IssueType issueType, Priority priority, String summary, ApplicationUser assignee,
                      Set<ProjectComponent> components, Set<Label> labels, Set<Version> fixVersions, Status state) {
@@ -73,7 +75,7 @@ public class MockIssue implements Issue {
 
     @Override
     public Long getId() {
-        return null;
+        return id;
     }
 
     @Override
@@ -83,7 +85,8 @@ public class MockIssue implements Issue {
 
     @Override
     public Project getProjectObject() {
-        return null;
+        //The reloads look up the board project from the issue
+        return new MockProject(key.substring(0, key.indexOf("-")));
     }
 
     @Override
@@ -229,7 +232,7 @@ public class MockIssue implements Issue {
 
     @Override
     public Timestamp getUpdated() {
-        return null;
+        return updated;
     }
 
     @Override
@@ -383,6 +386,14 @@ public class MockIssue implements Issue {
         return state;
     }
 
+    void setId(Long id) {
+        this.id = id;
+    }
+
+    void setUpdated(Timestamp updated) {
+        this.updated = updated;
+    }
+
     void setCustomField(Long customFieldId, Object value) {
         if (value == null) {
             customFields.remove(customFieldId);
@@ -17,11 +17,14 @@ package ut.org.jirban.jira.mock;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -52,10 +55,11 @@ public class SearchServiceBuilder {
     private final MockComponentWorker mockComponentWorker;
 
     private IssueRegistry issueRegistry;
-    private String searchIssueKey;
+    private Collection<String> searchIssueKeys;
     private String searchProject;
     private String searchStatus;
     private Collection<String> doneStatesFilter;
+    private Date searchUpdatedAfter;
     private SearchCallback searchCallback;
 
     public SearchServiceBuilder(MockComponentWorker mockComponentWorker) {
@@ -85,13 +89,14 @@ public class SearchServiceBuilder {
                 searchCallback.searching();
             }
             try {
-                List<Issue> issues = issueRegistry.getIssueList(searchIssueKey, searchProject, searchStatus, doneStatesFilter);
+                List<Issue> issues = issueRegistry.getIssueList(searchIssueKeys, searchProject, searchStatus, doneStatesFilter, searchUpdatedAfter);
                 return issues;
             } finally {
-                searchIssueKey = null;
+                searchIssueKeys = null;
                 searchProject = null;
                 searchStatus = null;
                 doneStatesFilter = null;
+                searchUpdatedAfter = null;
             }
         });
 
@@ -119,8 +124,15 @@ public class SearchServiceBuilder {
                 searchProject = (String) invocation.getArguments()[0];
                 return jqlClauseBuilder;
             });
-            when(jqlClauseBuilder.issue(any(String[].class))).then(invocation -> {
-                searchIssueKey = (String)invocation.getArguments()[0];
+            when(jqlClauseBuilder.issue(anyVararg())).then(invocation -> {
+                searchIssueKeys = new HashSet<>();
+                for (Object key : invocation.getArguments()) {
+                    searchIssueKeys.add((String) key);
+                }
+                return jqlClauseBuilder;
+            });
+            when(jqlClauseBuilder.updatedAfter(any(Date.class))).then(invocation -> {
+                searchUpdatedAfter = (Date) invocation.getArguments()[0];
                 return jqlClauseBuilder;
             });
             when(jqlClauseBuilder.and()).then(invocation -> jqlClauseBuilder);
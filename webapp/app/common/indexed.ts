@@ -6,20 +6,31 @@ import {IMap, IMapUtil} from "./map";
 export class Indexed<T> {
     private _array:T[] = []
     private _indices:IMap<number> = {};
+    //The entries in the order of the input array, if it was reordered
+    private _byId:T[];
 
     /**
      * Creates an index where the input is an array of entries
      * @param input the array input
      * @param factory function to create the entries of type T
      * @param keyValue function to get the key to index by
+     * @param order the positions in the input array in the order the entries should be indexed. If not set, the
+     * order of the input array is used
      */
-    indexArray(input:any, factory:(entry:any)=>T, keyValue:(t:T)=>string) {
+    indexArray(input:any, factory:(entry:any)=>T, keyValue:(t:T)=>string, order?:number[]) {
         if (!input) {
             return;
         }
-        let i = 0;
+        let values:T[] = [];
         for (let entry of input) {
-            let value:T = factory(entry);
+            values.push(factory(entry));
+        }
+        if (order) {
+            this._byId = values;
+            values = order.map((id:number) => this._byId[id]);
+        }
+        let i = 0;
+        for (let value of values) {
             let key:string = keyValue(value);
             this._array.push(value);
             this._indices[key] = i++;
@@ -56,6 +67,14 @@ export class Indexed<T> {
         return this._array[index];
     }
 
+    /**
+     * Gets an entry by its position in the input array, which is how the issues reference them
+     * @param id the position in the input array
+     */
+    forId(id:number) : T {
+        return this._byId ? this._byId[id] : this._array[id];
+    }
+
     indexOf(key:string) : number {
         return this._indices[key];
     }
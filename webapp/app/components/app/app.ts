@@ -7,7 +7,7 @@ import {AppHeaderService} from "../../services/appHeaderService";
 import {RestUrlUtil} from "../../common/RestUrlUtil";
 
 /** The current API version. It should match what is set in RestEndpoint.API_VERSION */
-const VERSION: number = 2;
+const VERSION: number = 3;
 
 @Component({
     selector: 'my-app',
@@ -75,7 +75,8 @@ export class AssigneeDeserializer {
             },
             (assignee) => {
                 return assignee.key;
-            }
+            },
+            input["sort-order"] ? input["sort-order"]["assignees"] : null
         );
         return assignees;
     }
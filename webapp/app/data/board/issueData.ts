@@ -293,7 +293,7 @@ class BoardIssueDeserializer extends IssueDeserializer {
 
     deserialize(input:any):IssueData {
         super.deserialize(input);
-        this._assignee = this._boardData.assignees.forIndex(input.assignee);
+        this._assignee = this._boardData.assignees.forId(input.assignee);
         this._priority = this._boardData.priorities.forIndex(input.priority);
         this._type = this._boardData.issueTypes.forIndex(input.type);
         this._project = this._boardData.boardProjects.forKey(this._projectCode);
@@ -302,7 +302,7 @@ class BoardIssueDeserializer extends IssueDeserializer {
         if (input["components"]) {
             this._components = new Indexed<JiraComponent>()
             for (let componentIndex of input["components"]) {
-                let component:JiraComponent = this._boardData.components.forIndex(componentIndex);
+                let component:JiraComponent = this._boardData.components.forId(componentIndex);
                 this._components.add(component.name, component);
             }
         }
@@ -310,7 +310,7 @@ class BoardIssueDeserializer extends IssueDeserializer {
         if (input["labels"]) {
             this._labels = new Indexed<JiraLabel>();
             for (let index of input["labels"]) {
-                let label:JiraLabel = this._boardData.labels.forIndex(index);
+                let label:JiraLabel = this._boardData.labels.forId(index);
                 this._labels.add(label.name, label);
             }
         }
@@ -318,7 +318,7 @@ class BoardIssueDeserializer extends IssueDeserializer {
         if (input["fix-versions"]) {
             this._fixVersions = new Indexed<JiraFixVersion>();
             for (let index of input["fix-versions"]) {
-                let fixVersion:JiraFixVersion = this._boardData.fixVersions.forIndex(index);
+                let fixVersion:JiraFixVersion = this._boardData.fixVersions.forId(index);
                 this._fixVersions.add(fixVersion.name, fixVersion);
             }
         }
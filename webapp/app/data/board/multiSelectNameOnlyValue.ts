@@ -63,7 +63,8 @@ function deserializeValues<T extends JiraMultiSelectFieldValue>(input:any, value
         },
         (value) => {
             return value.name;
-        }
+        },
+        input["sort-order"] ? input["sort-order"][valueName] : null
     );
     return values;
 }